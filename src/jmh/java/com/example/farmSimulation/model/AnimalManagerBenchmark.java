@@ -0,0 +1,51 @@
+package com.example.farmSimulation.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh getAnimals(): copy cả danh sách mỗi lần gọi (cách cũ) và bản chụp chỉ đọc dùng chung (cách mới).
+ * Chạy: ./gradlew jmh (thêm -prof gc để xem số byte cấp phát mỗi lần gọi).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnimalManagerBenchmark {
+    @Param({"10", "100", "1000"})
+    private int animalCount;
+
+    private AnimalManager animalManager;
+
+    @Setup
+    public void setUp() {
+        WorldMap worldMap = new WorldMap();
+        animalManager = new AnimalManager(worldMap, new CollisionManager(worldMap));
+        AnimalType[] types = AnimalType.values();
+        for (int i = 0; i < animalCount; i++) {
+            animalManager.addAnimal(new Animal(types[i % types.length], i * 16.0, i * 8.0));
+        }
+        animalManager.getAnimals(); // Tạo sẵn bản chụp
+    }
+
+    // Cách cũ: return new ArrayList<>(animals)
+    @Benchmark
+    public List<Animal> copyPerCall() {
+        return new ArrayList<>(animalManager.getAnimals());
+    }
+
+    // Cách mới: bản chụp chỉ copy lại khi có con được thêm / bị xóa
+    @Benchmark
+    public List<Animal> cachedSnapshot() {
+        return animalManager.getAnimals();
+    }
+}
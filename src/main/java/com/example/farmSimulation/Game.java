@@ -2,6 +2,7 @@ package com.example.farmSimulation;
 
 import com.example.farmSimulation.config.AssetPaths;
 import com.example.farmSimulation.controller.GameController;
+import com.example.farmSimulation.model.FrameClock;
 import com.example.farmSimulation.model.GameManager;
 import com.example.farmSimulation.model.Player;
 import com.example.farmSimulation.model.WorldMap;
@@ -10,6 +11,7 @@ import com.example.farmSimulation.view.HotbarView;
 import com.example.farmSimulation.view.MainGameView;
 import com.example.farmSimulation.view.PlayerView;
 import com.example.farmSimulation.view.assets.ImageManager;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -27,8 +29,9 @@ public class Game {
         this.primaryStage = primaryStage;
 
         // Tải tài nguyên (Assets) - Chỉ tải 1 lần khi ứng dụng bắt đầu
+        // [SỬA] Tải nền trên worker thread trong lúc người chơi tạo nhân vật
         imageManager = new ImageManager();
-        imageManager.loadAssets();
+        imageManager.loadAssetsAsync();
 
         // Icon hiển thị game (Application Icon)
         primaryStage.getIcons().add(imageManager.getTexture(AssetPaths.LOGO));
@@ -66,6 +69,11 @@ public class Game {
             initializeAndStartGame(true);
         });
 
+        // [MỚI] Hiện trạng thái tải tài nguyên cho tới khi tải nền xong
+        characterCreationView.setAssetsLoading(!imageManager.isAssetsReady());
+        imageManager.loadAssetsAsync().whenComplete((v, ex) ->
+                Platform.runLater(() -> characterCreationView.setAssetsLoading(false)));
+
         // Hiển thị Character Creation Scene
         Scene characterCreationScene = characterCreationView.createScene();
         primaryStage.setTitle("Farm Simulation - Character Creation");
@@ -78,10 +86,17 @@ public class Game {
      * @param loadFromSave Nếu true, sẽ tải dữ liệu từ file save thay vì dùng mặc định
      */
     private void initializeAndStartGame(boolean loadFromSave) {
+        // [MỚI] Đảm bảo tài nguyên đã tải xong (thường đã xong từ lúc tạo nhân vật)
+        imageManager.awaitAssets();
+
         // Khởi tạo View (Hình ảnh)
+        // [MỚI] Đồng hồ khung hình chung: GameManager tick, PlayerView đọc thời gian animation
+        FrameClock frameClock = new FrameClock();
+
         // PlayerView được tạo và nhận Image từ AssetManager
         PlayerView playerView = new PlayerView(
-                imageManager.getTexture(AssetPaths.PLAYER_SHEET), imageManager.getTexture(AssetPaths.PLAYER_ACTIONS_SHEET)
+                imageManager.getTexture(AssetPaths.PLAYER_SHEET), imageManager.getTexture(AssetPaths.PLAYER_ACTIONS_SHEET),
+                frameClock
         );
 
         // Khởi tạo HotbarView
@@ -99,7 +114,8 @@ public class Game {
                 worldMap,
                 mainGameView,
                 playerView,
-                gameController
+                gameController,
+                frameClock
         );
 
         // Liên kết (Wiring)
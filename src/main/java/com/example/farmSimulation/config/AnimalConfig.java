@@ -310,5 +310,14 @@ public class AnimalConfig {
     /** Tần suất update động vật (ms) - để tối ưu performance */
     public static final long ANIMAL_UPDATE_INTERVAL_MS = 100;
 
+    /** [MỚI] Kích thước một ô của lưới không gian tìm động vật (pixels) - 2 tiles */
+    public static final double ANIMAL_SPATIAL_CELL_SIZE = 2.0 * 64.0;
+
+    /** [MỚI] Khoảng đệm ngoài màn hình vẫn vẽ động vật (pixels) - để sprite/icon không bị "bật" ở mép */
+    public static final double ANIMAL_CULL_MARGIN = 2.0 * 64.0;
+
+    /** [MỚI] Số bộ ImageView động vật rảnh tối đa giữ lại trong pool (phần dư sẽ bị gỡ khỏi scene) */
+    public static final int ANIMAL_SPRITE_POOL_MAX_IDLE = 8;
+
     private AnimalConfig() {}
 }
\ No newline at end of file
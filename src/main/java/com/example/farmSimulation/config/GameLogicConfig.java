@@ -16,6 +16,27 @@ public class GameLogicConfig {
 
     public static final double MIN_LIGHT_INTENSITY = 0.1; // Độ sáng tối thiểu (10%)
     public static final double MAX_DARKNESS_OPACITY = 0.8; // Độ tối tối đa (80%)
+    public static final int LIGHT_CURVE_RESOLUTION = 1440; // Số mẫu của bảng ánh sáng mỗi chu kỳ (1 mẫu / phút game)
+    public static final int DARKNESS_OPACITY_STEPS = 128; // Số bậc độ tối, lớp phủ chỉ được cập nhật khi đổi bậc
+
+    // --- [MỚI] Cấu hình Autosave ---
+    public static final double AUTOSAVE_INTERVAL_SECONDS = 120.0; // Tự lưu mỗi 2 phút chơi (<= 0 để tắt)
+    // [MỚI] Journal: autosave chỉ ghi thêm các thay đổi -> lưu thường xuyên hơn, crash chỉ mất vài giây chơi
+    public static final boolean SAVE_JOURNAL_ENABLED = true;
+    public static final double SAVE_JOURNAL_FLUSH_INTERVAL_SECONDS = 5.0; // Thay cho AUTOSAVE_INTERVAL_SECONDS khi bật journal
+    public static final long SAVE_JOURNAL_COMPACT_BYTES = 256 * 1024; // Journal lớn hơn -> gộp vào file save gốc
+    public static final double SAVE_JOURNAL_COMPACT_INTERVAL_SECONDS = 120.0; // Gộp ít nhất mỗi 2 phút (vùng đã gộp mới được unload)
+    public static final double SAVE_JOURNAL_ANIMAL_INTERVAL_SECONDS = 60.0; // Vị trí / độ đói động vật ghi lại tối đa mỗi 60 s (thêm / bớt con thì ghi ngay)
+
+    // --- [MỚI] Cấu hình lưu / load theo vùng (mỗi chunk 1 file) ---
+    public static final boolean SAVE_REGION_STORAGE_ENABLED = true;
+    public static final int REGION_LOAD_RADIUS_CHUNKS = 2; // Vùng trong bán kính này (tính theo chunk) quanh người chơi được load
+    public static final int REGION_UNLOAD_RADIUS_CHUNKS = 4; // Vùng xa hơn (đã lưu, không có gì đang chạy) được unload
+    public static final double REGION_STREAM_INTERVAL_SECONDS = 0.5; // Chu kỳ kiểm tra load / unload vùng
+    // [MỚI] Vùng unload được nén vào file memory-mapped (ngoài heap) thay vì bỏ hẳn -> quay lại không phải đọc file vùng
+    // [SỬA] Mặc định tắt: chỉ nên bật cho thế giới rất lớn (file tạm tăng theo từng đoạn 24 MB)
+    public static final boolean REGION_OFF_HEAP_ENABLED = false;
+    public static final String REGION_OFF_HEAP_FILE_NAME = "farm_world.map"; // File tạm cạnh file save, bị xóa khi thoát game
 
     // --- Cấu hình Brightness (Độ sáng) ---
     public static final double DEFAULT_BRIGHTNESS = 1.0; // 100% độ sáng mặc định
@@ -101,6 +101,12 @@ public class HudConfig {
     public static final String COORDS_TEXT_STYLE = "-fx-font-size: 12px; -fx-text-fill: white;"; // Font nhỏ hơn tiền (12px vs 18px)
     public static final boolean DEFAULT_SHOW_COORDINATES = true; // Mặc định tắt
 
+    // [MỚI] Cấu hình chỉ báo "đang lưu" (Bottom-Right, bên trái icon Shop)
+    public static final String SAVING_INDICATOR_TEXT = "Saving...";
+    public static final String SAVING_INDICATOR_STYLE = "-fx-background-color: rgba(0, 0, 0, 0.5); -fx-background-radius: 10; -fx-padding: 3 8 3 8; -fx-font-size: 12px; -fx-text-fill: white;";
+    public static final double SAVING_INDICATOR_WIDTH = 80.0;
+    public static final double SAVING_INDICATOR_MARGIN = 10.0; // Khoảng cách tới icon Shop
+
     // --- Cấu hình GUI Icons (from GUI_icon_32x32.png) ---
     public static final double GUI_ICON_SIZE = 32.0; // Kích thước mỗi icon trong sheet
     public static final int GUI_ICON_SETTINGS_COL = 0; // Settings (Gear) icon column
@@ -32,6 +32,9 @@ public class TreeConfig {
      */
     public static final int TREE_SPACING_RADIUS = 3;
 
+    /** Bán kính (ô) quanh player để sinh cây. Chunk nào chạm bán kính này sẽ được sinh toàn bộ */
+    public static final int TREE_GENERATION_RADIUS = 14;
+
     /** Khoảng cách tối thiểu từ player để cây có thể mọc (tiles) */
     public static final int MIN_SPAWN_DISTANCE_FROM_PLAYER = 10;
 
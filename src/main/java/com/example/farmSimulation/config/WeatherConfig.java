@@ -22,6 +22,7 @@ public class WeatherConfig {
     public static final int RAIN_DROP_COUNT = 200; // Số lượng giọt mưa
     public static final double RAIN_DROP_LENGTH = 20.0; // Chiều dài giọt mưa
     public static final double RAIN_DROP_SPEED = 5.0; // Tốc độ rơi của mưa (pixel/frame)
+    public static final double RAIN_DROP_WIDTH = 2.0; // Độ dày nét giọt mưa
     public static final Paint RAIN_COLOR = Color.rgb(150, 200, 255); // Màu mưa (xanh nhạt)
     public static final double RAIN_OPACITY = 0.6; // Độ trong suốt của mưa
     
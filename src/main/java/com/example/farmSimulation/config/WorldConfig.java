@@ -20,5 +20,25 @@ public class WorldConfig {
     public static final int NUM_COLS_ON_SCREEN = (int) (WindowConfig.SCREEN_WIDTH / TILE_SIZE) + 2;
     public static final int NUM_ROWS_ON_SCREEN = (int) (WindowConfig.SCREEN_HEIGHT / TILE_SIZE) + 2;
 
+    // --- Cấu hình Chunk (lưu trữ bản đồ) ---
+    /** Cạnh của một chunk (số ô). Bản đồ được chia thành các khối CHUNK_SIZE x CHUNK_SIZE */
+    public static final int CHUNK_SIZE = 32;
+
+    // --- [MỚI] Cấu hình Renderer bản đồ ---
+    /** true = vẽ bản đồ lên 1 Canvas (ít node, hợp máy yếu), false = lưới ImageView mỗi ô */
+    public static final boolean USE_CANVAS_TILE_RENDERER = false;
+
+    /** Bật/Tắt in thời gian khung hình (frame time) ra console để so sánh 2 chế độ renderer */
+    public static final boolean DEBUG_FRAME_TIME = false;
+
+    /** Số frame gộp lại cho mỗi lần in thống kê frame time */
+    public static final int FRAME_TIME_REPORT_INTERVAL = 300;
+
+    /** Số thread tối đa để giải mã spritesheet khi tải tài nguyên nền */
+    public static final int ASSET_LOADER_MAX_THREADS = 4;
+
+    /** Bật/Tắt in thời gian tải tài nguyên nền (giải mã + cắt frame) ra console */
+    public static final boolean DEBUG_ASSET_LOAD_TIME = false;
+
     private WorldConfig() {}
 }
\ No newline at end of file
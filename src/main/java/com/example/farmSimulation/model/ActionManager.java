@@ -64,7 +64,7 @@ public class ActionManager {
                 // THỰC THI HÀNH ĐỘNG: Thay đổi Model
                 if (action.getNewTileData() != null) {
                     // [SỬA] Lưu lại trạng thái cũ để kiểm tra xem có phải vừa phá rào không
-                    TileData oldData = worldMap.getTileData(action.getCol(), action.getRow());
+                    TileData oldData = worldMap.peekTileData(action.getCol(), action.getRow());
                     boolean wasFence = (oldData.getBaseTileType() == Tile.FENCE);
 
                     TileData newData = action.getNewTileData();
@@ -140,7 +140,7 @@ public class ActionManager {
                             boolean foundSpot = false;
 
                             // Kiểm tra ô lý tưởng trước (ô cây bị chặt)
-                            TileData idealTile = worldMap.getTileData(treeCol, treeRow);
+                            TileData idealTile = worldMap.peekTileData(treeCol, treeRow);
                             if (idealTile.getGroundItem() == null) {
                                 finalCol = treeCol;
                                 finalRow = treeRow;
@@ -156,7 +156,7 @@ public class ActionManager {
                                     for (int c = treeCol - searchRadius; c <= treeCol + searchRadius; c++) {
                                         if (r == treeRow && c == treeCol) continue;
 
-                                        TileData checkTile = worldMap.getTileData(c, r);
+                                        TileData checkTile = worldMap.peekTileData(c, r);
                                         if (checkTile.getGroundItem() == null) {
                                             finalCol = c;
                                             finalRow = r;
@@ -285,8 +285,9 @@ public class ActionManager {
         }
 
         // Update map nếu cần
+        // [SỬA] Không ép vẽ lại toàn màn hình: renderer chỉ vẽ lại các ô đã đánh dấu thay đổi trong WorldMap
         if (this.mapNeedsUpdate) {
-            mainGameView.updateMap(worldOffsetX, worldOffsetY, true);
+            mainGameView.updateMap(worldOffsetX, worldOffsetY, false);
             this.mapNeedsUpdate = false;
         }
     }
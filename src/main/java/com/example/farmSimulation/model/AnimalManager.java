@@ -3,6 +3,7 @@ package com.example.farmSimulation.model;
 import com.example.farmSimulation.config.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
@@ -17,6 +18,30 @@ public class AnimalManager {
     private final List<Animal> animals;
     private final Random random;
 
+    // [MỚI] Bản chụp chỉ đọc của danh sách động vật, chỉ tạo lại khi có con được thêm / bị xóa
+    private List<Animal> animalsSnapshot = Collections.emptyList();
+    private boolean snapshotDirty = false;
+
+    /**
+     * [MỚI] Lắng nghe khi có động vật được thêm / bị xóa khỏi danh sách.
+     * (Dùng cho WorldRenderer để tạo / thu hồi ImageView mà không cần so sánh lại toàn bộ danh sách mỗi frame)
+     */
+    public interface AnimalListener {
+        void onAnimalAdded(Animal animal);
+
+        void onAnimalRemoved(Animal animal);
+    }
+
+    private final List<AnimalListener> listeners = new ArrayList<>();
+
+    // [MỚI] Lưới không gian để tìm động vật lân cận (thay cho việc duyệt toàn bộ danh sách)
+    private final AnimalSpatialIndex spatialIndex;
+    // [MỚI] Danh sách dùng lại cho các truy vấn nội bộ (getAnimalAt, tìm bạn đời) -> không cấp phát mỗi lần gọi
+    private final List<Animal> queryBuffer = new ArrayList<>();
+
+    // [MỚI] Nửa hitbox lớn nhất trong các loại động vật (để mở rộng vùng truy vấn theo hitbox)
+    private static final double MAX_HITBOX_HALF_SIZE = computeMaxHitboxHalfSize();
+
     // Thời gian update lần cuối (để sử dụng interval)
     private long lastLogicUpdateTimeMs = 0; // [SỬA] Đổi tên biến để rõ nghĩa hơn: Chỉ dùng cho Logic chậm
 
@@ -28,6 +53,15 @@ public class AnimalManager {
         this.collisionManager = collisionManager;
         this.animals = new ArrayList<>();
         this.random = new Random();
+        this.spatialIndex = new AnimalSpatialIndex(AnimalConfig.ANIMAL_SPATIAL_CELL_SIZE);
+    }
+
+    private static double computeMaxHitboxHalfSize() {
+        double max = 0;
+        for (AnimalType type : AnimalType.values()) {
+            max = Math.max(max, Math.max(type.getHitboxWidth(), type.getHitboxHeight()) / 2.0);
+        }
+        return max;
     }
 
     /**
@@ -36,6 +70,9 @@ public class AnimalManager {
     public void addAnimal(Animal animal) {
         if (animal != null) {
             animals.add(animal);
+            spatialIndex.add(animal);
+            markMembershipChanged();
+            fireAnimalAdded(animal);
         }
     }
 
@@ -43,32 +80,107 @@ public class AnimalManager {
      * Xóa động vật khỏi danh sách
      */
     public void removeAnimal(Animal animal) {
-        animals.remove(animal);
+        if (animals.remove(animal)) {
+            spatialIndex.remove(animal);
+            markMembershipChanged();
+            fireAnimalRemoved(animal);
+        }
+    }
+
+    /**
+     * [MỚI] Xóa toàn bộ động vật (dùng khi Load Game)
+     */
+    public void clearAnimals() {
+        List<Animal> removed = new ArrayList<>(animals);
+        animals.clear();
+        spatialIndex.clear();
+        markMembershipChanged();
+        for (Animal animal : removed) {
+            fireAnimalRemoved(animal);
+        }
+    }
+
+    public void addAnimalListener(AnimalListener listener) {
+        listeners.add(listener);
+    }
+
+    private void fireAnimalAdded(Animal animal) {
+        for (AnimalListener listener : listeners) {
+            listener.onAnimalAdded(animal);
+        }
+    }
+
+    private void fireAnimalRemoved(Animal animal) {
+        for (AnimalListener listener : listeners) {
+            listener.onAnimalRemoved(animal);
+        }
     }
 
     /**
      * Lấy danh sách tất cả động vật
+     * [SỬA] Trả về bản chụp CHỈ ĐỌC dùng chung, chỉ copy lại khi có con được thêm / bị xóa
+     * (không còn copy O(n) mỗi lần gọi). Bản chụp không bị ảnh hưởng khi danh sách gốc thay đổi sau đó.
      */
     public List<Animal> getAnimals() {
-        return new ArrayList<>(animals); // Trả về bản sao để tránh concurrent modification
+        if (snapshotDirty) {
+            animalsSnapshot = Collections.unmodifiableList(new ArrayList<>(animals));
+            snapshotDirty = false;
+        }
+        return animalsSnapshot;
+    }
+
+    private void markMembershipChanged() {
+        snapshotDirty = true;
     }
 
     /**
      * Tìm động vật tại vị trí (để tương tác)
+     * [SỬA] Chỉ xét các ô lưới xung quanh, trả về con GẦN NHẤT trong tầm
      */
     public Animal getAnimalAt(double worldX, double worldY, double range) {
-        for (Animal animal : animals) {
+        queryBuffer.clear();
+        spatialIndex.queryRadius(worldX, worldY, range, queryBuffer);
+
+        Animal nearest = null;
+        double nearestDistSq = Double.MAX_VALUE;
+        for (Animal animal : queryBuffer) {
             if (animal.isDead()) continue;
 
             double dx = animal.getX() - worldX;
             double dy = animal.getY() - worldY;
-            double distance = Math.sqrt(dx * dx + dy * dy);
+            double distSq = dx * dx + dy * dy;
 
-            if (distance <= range) {
-                return animal;
+            if (distSq < nearestDistSq) {
+                nearest = animal;
+                nearestDistSq = distSq;
             }
         }
-        return null;
+        queryBuffer.clear(); // Không giữ tham chiếu tới động vật đã bị xóa
+        return nearest;
+    }
+
+    /**
+     * [MỚI] Lấy các động vật (còn sống) có tâm cách (worldX, worldY) không quá radius.
+     * [SỬA] Ghi vào danh sách của người gọi (bị xóa trước) để dùng lại được giữa các frame, trả về chính out.
+     */
+    public List<Animal> getAnimalsInRadius(double worldX, double worldY, double radius, List<Animal> out) {
+        out.clear();
+        spatialIndex.queryRadius(worldX, worldY, radius, out);
+        out.removeIf(Animal::isDead);
+        return out;
+    }
+
+    /**
+     * [MỚI] Lấy các động vật (còn sống) có HITBOX có thể giao với vùng chữ nhật cho trước.
+     * Vùng tìm được mở rộng thêm nửa hitbox lớn nhất, người gọi vẫn tự kiểm tra AABB chính xác.
+     * [SỬA] Ghi vào danh sách của người gọi (bị xóa trước) để dùng lại được giữa các frame, trả về chính out.
+     */
+    public List<Animal> getAnimalsInArea(double minX, double minY, double maxX, double maxY, List<Animal> out) {
+        out.clear();
+        spatialIndex.queryAABB(minX - MAX_HITBOX_HALF_SIZE, minY - MAX_HITBOX_HALF_SIZE,
+                maxX + MAX_HITBOX_HALF_SIZE, maxY + MAX_HITBOX_HALF_SIZE, out);
+        out.removeIf(Animal::isDead);
+        return out;
     }
 
     /**
@@ -111,6 +223,9 @@ public class AnimalManager {
             // Xóa động vật đã chết
             if (animal.isDead()) {
                 iterator.remove();
+                spatialIndex.remove(animal);
+                markMembershipChanged();
+                fireAnimalRemoved(animal);
                 needsRedraw = true;
                 continue;
             }
@@ -171,6 +286,11 @@ public class AnimalManager {
         // Thêm các động vật mới (trứng gà, con non) vào danh sách chính
         if (!newAnimals.isEmpty()) {
             animals.addAll(newAnimals);
+            for (Animal baby : newAnimals) {
+                spatialIndex.add(baby);
+                fireAnimalAdded(baby);
+            }
+            markMembershipChanged();
             needsRedraw = true;
         }
 
@@ -205,7 +325,7 @@ public class AnimalManager {
                 boolean foundSpot = false;
 
                 // 1. Kiểm tra ô lý tưởng trước
-                TileData idealTile = worldMap.getTileData(idealTileCol, idealTileRow);
+                TileData idealTile = worldMap.peekTileData(idealTileCol, idealTileRow);
                 if (idealTile.getGroundItem() == null) {
                     finalCol = idealTileCol;
                     finalRow = idealTileRow;
@@ -219,7 +339,7 @@ public class AnimalManager {
                     for (int r = idealTileRow - searchRadius; r <= idealTileRow + searchRadius; r++) {
                         for (int c = idealTileCol - searchRadius; c <= idealTileCol + searchRadius; c++) {
                             if (r == idealTileRow && c == idealTileCol) continue;
-                            TileData checkTile = worldMap.getTileData(c, r);
+                            TileData checkTile = worldMap.peekTileData(c, r);
                             if (checkTile.getGroundItem() == null) {
                                 finalCol = c;
                                 finalRow = r;
@@ -413,6 +533,7 @@ public class AnimalManager {
                 // Cập nhật vị trí (bỏ qua collision vì đang mating)
                 animal.setX(newX);
                 animal.setY(newY);
+                spatialIndex.update(animal);
                 animal.setDirection(newDir);
             }
 
@@ -467,6 +588,7 @@ public class AnimalManager {
                 if (canAnimalMoveTo(animal, nextX, nextY)) {
                     animal.setX(nextX);
                     animal.setY(nextY);
+                    spatialIndex.update(animal);
                     return true;
                 } else {
                     // Nếu bị kẹt đường -> Tạm hủy kèo để random walk thoát ra
@@ -521,6 +643,7 @@ public class AnimalManager {
                         if (canAnimalMoveTo(animal, nextX, nextY)) {
                             animal.setX(nextX);
                             animal.setY(nextY);
+                            spatialIndex.update(animal);
                             return true;
                         }
                     } else {
@@ -621,6 +744,7 @@ public class AnimalManager {
             if (canAnimalMoveTo(animal, newX, newY)) {
                 animal.setX(newX);
                 animal.setY(newY);
+                spatialIndex.update(animal);
                 return true;
             } else {
                 // Nếu bị chặn, dừng ngay lập tức và chuyển sang IDLE để chờ quyết định mới
@@ -737,7 +861,11 @@ public class AnimalManager {
         // --- TRƯỜNG HỢP 2: CHƯA CÓ ĐỐI TƯỢNG, ĐI TÌM ---
         if (animal.getBreedingPartner() == null) {
             // Tìm bạn đời xung quanh trong tầm nhìn xa (BREEDING_DETECTION_RANGE)
-            for (Animal partner : animals) {
+            // [SỬA] Chỉ xét các con trong lưới không gian lân cận thay vì toàn bộ danh sách
+            List<Animal> nearby = queryBuffer;
+            nearby.clear();
+            spatialIndex.queryRadius(animal.getX(), animal.getY(), AnimalConfig.BREEDING_DETECTION_RANGE, nearby);
+            for (Animal partner : nearby) {
                 if (partner == animal) continue; // Không tự breed
                 if (partner.isDead()) continue;
 
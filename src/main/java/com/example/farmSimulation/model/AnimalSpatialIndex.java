@@ -0,0 +1,137 @@
+package com.example.farmSimulation.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Lưới không gian đều (Uniform Grid) cho động vật.
+ * Mỗi ô lưới chứa danh sách động vật có TÂM (x, y) nằm trong ô đó,
+ * nên các truy vấn theo bán kính / vùng chữ nhật chỉ cần xét vài ô xung quanh thay vì toàn bộ danh sách.
+ *
+ * Ai thay đổi Animal.x/y thì phải gọi update(animal) để lưới luôn đúng.
+ */
+public class AnimalSpatialIndex {
+    private final double cellSize;
+    private final HashMap<Long, List<Animal>> cells = new HashMap<>(); // Key = tọa độ ô lưới (cellX, cellY)
+    private final IdentityHashMap<Animal, Long> cellOf = new IdentityHashMap<>(); // Ô lưới hiện tại của từng con
+
+    public AnimalSpatialIndex(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    // Cùng cách ghép key với WorldMap: (cellX << 32) | cellY
+    private static long toKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private int toCell(double worldCoord) {
+        return (int) Math.floor(worldCoord / cellSize);
+    }
+
+    /**
+     * Thêm động vật vào lưới (không làm gì nếu đã có).
+     */
+    public void add(Animal animal) {
+        if (cellOf.containsKey(animal)) return;
+        long key = toKey(toCell(animal.getX()), toCell(animal.getY()));
+        cells.computeIfAbsent(key, k -> new ArrayList<>()).add(animal);
+        cellOf.put(animal, key);
+    }
+
+    /**
+     * Xóa động vật khỏi lưới.
+     */
+    public void remove(Animal animal) {
+        Long key = cellOf.remove(animal);
+        if (key != null) removeFromCell(key, animal);
+    }
+
+    /**
+     * Cập nhật ô lưới sau khi động vật di chuyển. Chỉ tốn công khi con vật sang ô khác.
+     */
+    public void update(Animal animal) {
+        Long oldKey = cellOf.get(animal);
+        if (oldKey == null) return;
+        long newKey = toKey(toCell(animal.getX()), toCell(animal.getY()));
+        if (oldKey == newKey) return;
+
+        removeFromCell(oldKey, animal);
+        cells.computeIfAbsent(newKey, k -> new ArrayList<>()).add(animal);
+        cellOf.put(animal, newKey);
+    }
+
+    public void clear() {
+        cells.clear();
+        cellOf.clear();
+    }
+
+    public int size() {
+        return cellOf.size();
+    }
+
+    /**
+     * Thêm vào out các động vật có tâm cách (x, y) không quá radius.
+     */
+    public void queryRadius(double x, double y, double radius, List<Animal> out) {
+        double radiusSq = radius * radius;
+        int minCellX = toCell(x - radius);
+        int maxCellX = toCell(x + radius);
+        int minCellY = toCell(y - radius);
+        int maxCellY = toCell(y + radius);
+
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cy = minCellY; cy <= maxCellY; cy++) {
+                List<Animal> cell = cells.get(toKey(cx, cy));
+                if (cell == null) continue;
+                for (Animal animal : cell) {
+                    double dx = animal.getX() - x;
+                    double dy = animal.getY() - y;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        out.add(animal);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Thêm vào out các động vật có tâm nằm trong hình chữ nhật [minX, maxX] x [minY, maxY].
+     */
+    public void queryAABB(double minX, double minY, double maxX, double maxY, List<Animal> out) {
+        int minCellX = toCell(minX);
+        int maxCellX = toCell(maxX);
+        int minCellY = toCell(minY);
+        int maxCellY = toCell(maxY);
+
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cy = minCellY; cy <= maxCellY; cy++) {
+                List<Animal> cell = cells.get(toKey(cx, cy));
+                if (cell == null) continue;
+                for (Animal animal : cell) {
+                    double ax = animal.getX();
+                    double ay = animal.getY();
+                    if (ax >= minX && ax <= maxX && ay >= minY && ay <= maxY) {
+                        out.add(animal);
+                    }
+                }
+            }
+        }
+    }
+
+    // Xóa khỏi ô bằng swap-remove (thứ tự trong ô không quan trọng)
+    private void removeFromCell(long key, Animal animal) {
+        List<Animal> cell = cells.get(key);
+        if (cell == null) return;
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == animal) {
+                int last = cell.size() - 1;
+                cell.set(i, cell.get(last));
+                cell.remove(last);
+                break;
+            }
+        }
+        if (cell.isEmpty()) cells.remove(key);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.config.GameLogicConfig;
+import javafx.application.Platform;
+
+import com.example.farmSimulation.model.GameSaveState.SavedRegion;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * [MỚI] Lưu game ở luồng nền.
+ * GameManager dựng snapshot (GameSaveState) trên FX thread giữa 2 frame, service này
+ * ghi file (SaveManager.saveGame: file tạm + fsync + rename) trên 1 luồng riêng nên không làm khựng game.
+ *
+ * [SỬA] Có 2 kiểu lưu:
+ * - submit(): snapshot đầy đủ, ghi đè file save gốc. Nếu đã có snapshot mới hơn đang chờ thì bỏ qua bản cũ.
+ * - submitDelta(): chỉ các thay đổi, ghi thêm vào journal. Journal quá lớn thì luồng nền tự gộp vào file gốc.
+ *
+ * [SỬA] Autosave chỉ bắt đầu chạy sau khi người chơi tự Save hoặc Load trong phiên này (enable()).
+ * Game mới chưa lưu lần nào sẽ không tự ghi đè file save (và file vùng) của game cũ trên đĩa.
+ */
+public class AutosaveService {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Tăng mỗi lần gửi snapshot đầy đủ: task nào thấy số này đã đổi thì đã có bản mới hơn bao trùm
+    private final AtomicLong fullSaveGeneration = new AtomicLong();
+
+    private final double intervalSeconds;
+    private boolean enabled = false; // File save trên đĩa thuộc về game đang chơi chưa (FX thread)
+    private double secondsSinceLastSave = 0;
+    private int savesInFlight = 0; // Số snapshot đầy đủ chưa ghi xong (chỉ dùng trên FX thread)
+    private boolean allSavesSucceeded = true;
+    // Chưa có file gốc khớp với game hiện tại (game mới, hoặc ghi lỗi) -> lần lưu tới phải là snapshot đầy đủ
+    private volatile boolean fullSaveRequired = true;
+
+    private Consumer<Boolean> onSavingChanged; // Gọi trên FX thread khi bắt đầu / xong lưu
+    private Consumer<Boolean> onSaveFinished; // Gọi trên FX thread, tham số = lưu thành công hay không
+    // [MỚI] Gọi trên FX thread khi mọi thay đổi tới lần gửi số seq đã nằm trong file gốc / file vùng (kèm index vùng mới)
+    private BiConsumer<Long, List<SavedRegion>> onPersisted;
+
+    private long submitSeq = 0; // Số thứ tự lần gửi (FX thread)
+    private long lastAppendedSeq = 0; // Lần gửi delta cuối đã vào journal (luồng nền)
+    private long lastCompactionNanos = System.nanoTime(); // (luồng nền)
+
+    public AutosaveService(double intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public void setOnSavingChanged(Consumer<Boolean> onSavingChanged) {
+        this.onSavingChanged = onSavingChanged;
+    }
+
+    public void setOnSaveFinished(Consumer<Boolean> onSaveFinished) {
+        this.onSaveFinished = onSaveFinished;
+    }
+
+    public void setOnPersisted(BiConsumer<Long, List<SavedRegion>> onPersisted) {
+        this.onPersisted = onPersisted;
+    }
+
+    /**
+     * Đếm thời gian chơi, trả về true khi đến lúc autosave (caller dựng snapshot rồi gọi submit / submitDelta).
+     */
+    public boolean update(double deltaSeconds) {
+        if (!enabled || intervalSeconds <= 0) return false; // Chưa Save / Load lần nào, hoặc tắt autosave
+        secondsSinceLastSave += deltaSeconds;
+        return secondsSinceLastSave >= intervalSeconds;
+    }
+
+    /**
+     * [MỚI] Cho phép autosave. Gọi khi người chơi vừa tự Save hoặc Load (file save trên đĩa là của game này).
+     */
+    public void enable() {
+        if (!enabled) secondsSinceLastSave = 0;
+        enabled = true;
+    }
+
+    /**
+     * [MỚI] Bỏ qua lần autosave này (không có gì thay đổi), đếm lại từ đầu.
+     */
+    public void skipSave() {
+        secondsSinceLastSave = 0;
+    }
+
+    public boolean isSaving() {
+        return savesInFlight > 0;
+    }
+
+    /**
+     * [MỚI] true nếu lần lưu tới phải là snapshot đầy đủ (journal không dùng được).
+     */
+    public boolean isFullSaveRequired() {
+        return fullSaveRequired;
+    }
+
+    /**
+     * [MỚI] Báo rằng file save trên đĩa (gốc + journal) đã khớp với game hiện tại (vừa Load Game).
+     */
+    public void markSaveInSync() {
+        fullSaveRequired = false;
+    }
+
+    /**
+     * Gửi snapshot đầy đủ để ghi ở luồng nền. Gọi trên FX thread.
+     * [SỬA] Trả về số thứ tự lần gửi (0 nếu service đã dừng).
+     */
+    public long submit(GameSaveState snapshot) {
+        if (executor.isShutdown()) return 0;
+        long seq = ++submitSeq;
+        secondsSinceLastSave = 0;
+        fullSaveRequired = false;
+        long generation = fullSaveGeneration.incrementAndGet();
+        if (savesInFlight++ == 0 && onSavingChanged != null) {
+            onSavingChanged.accept(true);
+        }
+
+        executor.execute(() -> {
+            // Có snapshot mới hơn đang chờ -> bản này thừa
+            if (generation != fullSaveGeneration.get()) {
+                Platform.runLater(() -> finishSave(true));
+                return;
+            }
+            boolean success = SaveManager.saveGame(snapshot);
+            if (success) {
+                lastCompactionNanos = System.nanoTime();
+                notifyPersisted(seq, snapshot.regions);
+            } else {
+                fullSaveRequired = true;
+            }
+            Platform.runLater(() -> finishSave(success));
+        });
+        return seq;
+    }
+
+    /**
+     * [MỚI] Gửi các thay đổi để ghi thêm vào journal. Gọi trên FX thread.
+     */
+    public long submitDelta(GameSaveState delta) {
+        if (executor.isShutdown()) return 0;
+        long seq = ++submitSeq;
+        secondsSinceLastSave = 0;
+        long generation = fullSaveGeneration.get();
+
+        executor.execute(() -> {
+            if (generation != fullSaveGeneration.get()) return; // Snapshot đầy đủ gửi sau đã bao gồm các thay đổi này
+            if (!SaveManager.appendJournal(delta)) {
+                fullSaveRequired = true; // Mất bản ghi -> journal không còn đúng
+                return;
+            }
+            lastAppendedSeq = seq;
+            // Gộp journal khi quá lớn (hoặc đã lâu chưa gộp) để lần Load sau không phải áp quá nhiều bản ghi
+            boolean compactDue = SaveManager.getJournalSize() > GameLogicConfig.SAVE_JOURNAL_COMPACT_BYTES
+                    || System.nanoTime() - lastCompactionNanos > (long) (GameLogicConfig.SAVE_JOURNAL_COMPACT_INTERVAL_SECONDS * 1e9);
+            if (compactDue) {
+                compact();
+            }
+        });
+        return seq;
+    }
+
+    // Luồng nền
+    private void compact() {
+        GameSaveState merged = SaveManager.compactJournal();
+        lastCompactionNanos = System.nanoTime();
+        if (merged == null) {
+            fullSaveRequired = true;
+            return;
+        }
+        notifyPersisted(lastAppendedSeq, merged.regions);
+    }
+
+    // Luồng nền -> FX thread
+    private void notifyPersisted(long seq, List<SavedRegion> regions) {
+        if (onPersisted != null) {
+            Platform.runLater(() -> onPersisted.accept(seq, regions));
+        }
+    }
+
+    // Chạy trên FX thread
+    private void finishSave(boolean success) {
+        allSavesSucceeded &= success;
+        if (--savesInFlight > 0) return;
+
+        if (onSaveFinished != null) {
+            onSaveFinished.accept(allSavesSucceeded);
+        }
+        allSavesSucceeded = true;
+        if (onSavingChanged != null) {
+            onSavingChanged.accept(false);
+        }
+    }
+
+    /**
+     * Dừng nhận snapshot mới, lần ghi đang chờ (nếu có) vẫn được hoàn tất. Không chặn FX thread.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
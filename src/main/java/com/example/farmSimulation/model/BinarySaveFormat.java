@@ -0,0 +1,462 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.model.GameSaveState.SavedAnimal;
+import com.example.farmSimulation.model.GameSaveState.SavedItemStack;
+import com.example.farmSimulation.model.GameSaveState.SavedRegion;
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [MỚI] Định dạng file save nhị phân (thay cho Java Serialization).
+ *
+ * Cấu trúc: Header (MAGIC, VERSION) rồi các khối (section): [id: byte][độ dài: int][dữ liệu].
+ * Khối có id lạ sẽ được bỏ qua (bản cũ vẫn đọc được file của bản mới hơn). Kết thúc bằng SECTION_END.
+ * - Enum lưu theo chỉ số trong bảng tên (ghi ở đầu khối) -> thêm / đổi thứ tự enum không làm hỏng save.
+ * - Số nguyên lưu dạng varint (ZigZag), mỗi ô đất dồn các cờ boolean vào 1 byte.
+ */
+final class BinarySaveFormat {
+    static final int MAGIC = 0x46524D53; // "FRMS"
+    static final int VERSION = 1;
+
+    private static final int SECTION_END = 0;
+    private static final int SECTION_PLAYER = 1;
+    private static final int SECTION_INVENTORY = 2;
+    private static final int SECTION_TIME = 3;
+    private static final int SECTION_ANIMALS = 4;
+    private static final int SECTION_WORLD_GEN = 5;
+    private static final int SECTION_TILES = 6;
+    private static final int SECTION_REGIONS = 7; // [MỚI] Index vùng (thay cho SECTION_TILES khi lưu theo vùng)
+
+    // Cờ của một ô đất
+    private static final int TILE_WATERED = 1;
+    private static final int TILE_FERTILIZED = 1 << 1;
+    private static final int TILE_CROP = 1 << 2;
+    private static final int TILE_TREE = 1 << 3;
+    private static final int TILE_FENCE = 1 << 4;
+    private static final int TILE_FENCE_OPEN = 1 << 5;
+    private static final int TILE_GROUND_ITEM = 1 << 6;
+    private static final int TILE_TIMESTAMPS = 1 << 7; // Có lastWateredTime / fertilizerStartTime
+
+    private BinarySaveFormat() {
+    }
+
+    // ==============================================================
+    // GHI
+    // ==============================================================
+
+    static void write(GameSaveState state, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeBody(state, out, true);
+    }
+
+    /**
+     * [MỚI] Ghi các khối dữ liệu (không có header).
+     * inlineTables = false: không ghi bảng tên enum trong từng khối (journal đã ghi 1 lần ở đầu file).
+     */
+    static void writeBody(GameSaveState state, DataOutputStream out, boolean inlineTables) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream section = new DataOutputStream(buffer);
+
+        // 1. Player
+        section.writeDouble(state.playerMoney);
+        section.writeDouble(state.playerXP);
+        writeVarInt(section, state.playerLevel);
+        section.writeDouble(state.playerStamina);
+        section.writeDouble(state.playerX);
+        section.writeDouble(state.playerY);
+        flushSection(out, SECTION_PLAYER, buffer);
+
+        // 2. Inventory (giữ cả slot trống)
+        if (inlineTables) writeEnumTable(section, ItemType.values());
+        writeVarInt(section, state.inventory.size());
+        for (SavedItemStack stack : state.inventory) {
+            if (stack == null || stack.type == null) {
+                section.writeBoolean(false);
+                continue;
+            }
+            section.writeBoolean(true);
+            writeVarInt(section, stack.type.ordinal());
+            writeVarInt(section, stack.quantity);
+            writeVarInt(section, stack.durability);
+        }
+        flushSection(out, SECTION_INVENTORY, buffer);
+
+        // 3. Thời gian
+        section.writeDouble(state.currentDaySeconds);
+        writeVarInt(section, state.currentDay);
+        flushSection(out, SECTION_TIME, buffer);
+
+        // 4. Động vật ([SỬA] null = không có: bản ghi journal không đổi động vật)
+        if (state.animals != null) {
+            if (inlineTables) writeEnumTable(section, AnimalType.values());
+            writeVarInt(section, state.animals.size());
+            for (SavedAnimal animal : state.animals) {
+                writeVarInt(section, animal.type.ordinal());
+                section.writeDouble(animal.x);
+                section.writeDouble(animal.y);
+                writeVarInt(section, animal.age);
+                section.writeDouble(animal.hunger);
+            }
+            flushSection(out, SECTION_ANIMALS, buffer);
+        }
+
+        // 5. Seed + chunk đã sinh cây (null = không có: file save cũ, hoặc bản ghi journal không đổi chunk)
+        if (state.generatedChunks != null) {
+            section.writeLong(state.worldSeed);
+            writeVarInt(section, state.generatedChunks.size());
+            for (long chunk : state.generatedChunks) {
+                section.writeLong(chunk);
+            }
+            flushSection(out, SECTION_WORLD_GEN, buffer);
+        }
+
+        // 6. Ô đất: lưu theo vùng -> chỉ ghi index, ô nằm trong file của từng vùng (RegionStore)
+        if (state.regions != null) {
+            writeVarInt(section, state.regions.size());
+            for (SavedRegion region : state.regions) {
+                writeVarInt(section, region.chunkX);
+                writeVarInt(section, region.chunkY);
+                section.writeBoolean(region.active);
+            }
+            flushSection(out, SECTION_REGIONS, buffer);
+        } else {
+            writeTileList(section, state.worldTiles, inlineTables);
+            flushSection(out, SECTION_TILES, buffer);
+        }
+
+        out.writeByte(SECTION_END);
+    }
+
+    /**
+     * [MỚI] Ghi danh sách ô (dùng chung cho file save, journal và file vùng).
+     */
+    static void writeTileList(DataOutputStream out, List<SavedTileData> tiles, boolean inlineTables) throws IOException {
+        if (inlineTables) {
+            writeEnumTable(out, Tile.values());
+            writeEnumTable(out, CropType.values());
+            writeEnumTable(out, ItemType.values());
+        }
+        writeVarInt(out, tiles.size());
+        for (SavedTileData tile : tiles) {
+            writeTile(out, tile);
+        }
+    }
+
+    private static void writeTile(DataOutputStream out, SavedTileData tile) throws IOException {
+        int flags = 0;
+        if (tile.isWatered) flags |= TILE_WATERED;
+        if (tile.isFertilized) flags |= TILE_FERTILIZED;
+        boolean hasCrop = tile.hasCrop && tile.cropType != null;
+        boolean hasGroundItem = tile.hasGroundItem && tile.groundItemType != null;
+        if (hasCrop) flags |= TILE_CROP;
+        if (tile.hasTree) flags |= TILE_TREE;
+        if (tile.hasFence) flags |= TILE_FENCE;
+        if (tile.hasFence && tile.fenceIsOpen) flags |= TILE_FENCE_OPEN;
+        if (hasGroundItem) flags |= TILE_GROUND_ITEM;
+        if (tile.lastWateredTime != 0 || tile.fertilizerStartTime != 0) flags |= TILE_TIMESTAMPS;
+
+        writeVarInt(out, tile.col);
+        writeVarInt(out, tile.row);
+        out.writeByte(flags);
+        out.writeByte(tile.baseType == null ? Tile.GRASS.ordinal() : tile.baseType.ordinal());
+
+        if ((flags & TILE_TIMESTAMPS) != 0) {
+            out.writeLong(tile.lastWateredTime);
+            out.writeLong(tile.fertilizerStartTime);
+        }
+        if (hasCrop) {
+            out.writeByte(tile.cropType.ordinal());
+            writeVarInt(out, tile.cropStage);
+        }
+        if (tile.hasTree) {
+            writeVarInt(out, tile.treeStage);
+            writeVarInt(out, tile.treeChopCount);
+        }
+        if (hasGroundItem) {
+            writeVarInt(out, tile.groundItemType.ordinal());
+            writeVarInt(out, tile.groundItemAmount);
+            writeVarInt(out, tile.groundItemDurability);
+            out.writeFloat((float) tile.groundItemOffsetX);
+            out.writeFloat((float) tile.groundItemOffsetY);
+        }
+    }
+
+    // Ghi khối [id][độ dài][dữ liệu] rồi xóa buffer để dùng lại cho khối sau
+    private static void flushSection(DataOutputStream out, int id, ByteArrayOutputStream buffer) throws IOException {
+        out.writeByte(id);
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        buffer.reset();
+    }
+
+    // ==============================================================
+    // ĐỌC
+    // ==============================================================
+
+    static GameSaveState read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a farm save file");
+        }
+        int version = in.readUnsignedShort();
+        if (version > VERSION) {
+            System.err.println("Save file version " + version + " is newer than supported version " + VERSION + ", unknown data will be skipped.");
+        }
+        return readBody(in, null);
+    }
+
+    /**
+     * [MỚI] Đọc các khối dữ liệu (không có header).
+     * shared = null: bảng tên enum nằm trong từng khối; ngược lại dùng bảng chung (journal).
+     */
+    static GameSaveState readBody(DataInputStream in, EnumTables shared) throws IOException {
+        GameSaveState state = new GameSaveState();
+        state.generatedChunks = null; // File không có khối WORLD_GEN -> giống file save cũ
+        // [MỚI] Bản ghi journal không có khối ANIMALS -> animals = null (giữ nguyên động vật)
+        if (shared != null) state.animals = null;
+        int sectionId;
+        while ((sectionId = in.readUnsignedByte()) != SECTION_END) {
+            int length = in.readInt();
+            // [SỬA] File hỏng / bị cắt: báo lỗi đọc thay vì cấp phát mảng sai kích thước
+            if (length < 0 || length > in.available()) {
+                throw new IOException("Corrupted section " + sectionId + " (length " + length + ")");
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            DataInputStream section = new DataInputStream(new ByteArrayInputStream(payload));
+
+            switch (sectionId) {
+                case SECTION_PLAYER:
+                    state.playerMoney = section.readDouble();
+                    state.playerXP = section.readDouble();
+                    state.playerLevel = readVarInt(section);
+                    state.playerStamina = section.readDouble();
+                    state.playerX = section.readDouble();
+                    state.playerY = section.readDouble();
+                    break;
+                case SECTION_INVENTORY:
+                    readInventory(section, state, shared);
+                    break;
+                case SECTION_TIME:
+                    state.currentDaySeconds = section.readDouble();
+                    state.currentDay = readVarInt(section);
+                    break;
+                case SECTION_ANIMALS:
+                    readAnimals(section, state, shared);
+                    break;
+                case SECTION_WORLD_GEN:
+                    state.worldSeed = section.readLong();
+                    int chunkCount = readCount(section);
+                    state.generatedChunks = new ArrayList<>(chunkCount);
+                    for (int i = 0; i < chunkCount; i++) {
+                        state.generatedChunks.add(section.readLong());
+                    }
+                    break;
+                case SECTION_TILES:
+                    readTileList(section, state.worldTiles, shared);
+                    break;
+                case SECTION_REGIONS:
+                    int regionCount = readCount(section);
+                    state.regions = new ArrayList<>(regionCount);
+                    for (int i = 0; i < regionCount; i++) {
+                        int chunkX = readVarInt(section);
+                        int chunkY = readVarInt(section);
+                        state.regions.add(new SavedRegion(chunkX, chunkY, section.readBoolean()));
+                    }
+                    break;
+                default:
+                    // Khối không biết (từ bản mới hơn) -> bỏ qua
+                    break;
+            }
+        }
+        return state;
+    }
+
+    private static void readInventory(DataInputStream in, GameSaveState state, EnumTables shared) throws IOException {
+        ItemType[] items = shared != null ? shared.items : readEnumTable(in, ItemType.class);
+        int count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            if (!in.readBoolean()) {
+                state.inventory.add(null); // Slot trống
+                continue;
+            }
+            ItemType type = lookup(items, readVarInt(in));
+            int quantity = readVarInt(in);
+            int durability = readVarInt(in);
+            state.inventory.add(type != null ? new SavedItemStack(type, quantity, durability) : null);
+        }
+    }
+
+    private static void readAnimals(DataInputStream in, GameSaveState state, EnumTables shared) throws IOException {
+        AnimalType[] types = shared != null ? shared.animals : readEnumTable(in, AnimalType.class);
+        int count = readCount(in);
+        state.animals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AnimalType type = lookup(types, readVarInt(in));
+            double x = in.readDouble();
+            double y = in.readDouble();
+            int age = readVarInt(in);
+            double hunger = in.readDouble();
+            if (type != null) {
+                state.animals.add(new SavedAnimal(type, x, y, age, hunger));
+            }
+        }
+    }
+
+    /**
+     * [MỚI] Đọc danh sách ô vào out. shared = null: bảng tên enum nằm ngay trước danh sách.
+     */
+    static void readTileList(DataInputStream in, List<SavedTileData> out, EnumTables shared) throws IOException {
+        Tile[] tiles = shared != null ? shared.tiles : readEnumTable(in, Tile.class);
+        CropType[] crops = shared != null ? shared.crops : readEnumTable(in, CropType.class);
+        ItemType[] items = shared != null ? shared.items : readEnumTable(in, ItemType.class);
+        int count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            SavedTileData tile = new SavedTileData();
+            tile.col = readVarInt(in);
+            tile.row = readVarInt(in);
+            int flags = in.readUnsignedByte();
+            Tile baseType = lookup(tiles, in.readUnsignedByte());
+            tile.baseType = baseType != null ? baseType : Tile.GRASS;
+
+            tile.isWatered = (flags & TILE_WATERED) != 0;
+            tile.isFertilized = (flags & TILE_FERTILIZED) != 0;
+            if ((flags & TILE_TIMESTAMPS) != 0) {
+                tile.lastWateredTime = in.readLong();
+                tile.fertilizerStartTime = in.readLong();
+            }
+            if ((flags & TILE_CROP) != 0) {
+                tile.cropType = lookup(crops, in.readUnsignedByte());
+                tile.cropStage = readVarInt(in);
+                tile.hasCrop = tile.cropType != null;
+            }
+            if ((flags & TILE_TREE) != 0) {
+                tile.hasTree = true;
+                tile.treeStage = readVarInt(in);
+                tile.treeChopCount = readVarInt(in);
+            }
+            tile.hasFence = (flags & TILE_FENCE) != 0;
+            tile.fenceIsOpen = (flags & TILE_FENCE_OPEN) != 0;
+            if ((flags & TILE_GROUND_ITEM) != 0) {
+                tile.groundItemType = lookup(items, readVarInt(in));
+                tile.groundItemAmount = readVarInt(in);
+                tile.groundItemDurability = readVarInt(in);
+                tile.groundItemOffsetX = in.readFloat();
+                tile.groundItemOffsetY = in.readFloat();
+                tile.hasGroundItem = tile.groundItemType != null;
+            }
+            out.add(tile);
+        }
+    }
+
+    // ==============================================================
+    // TIỆN ÍCH
+    // ==============================================================
+
+    /**
+     * [MỚI] Bảng tên của tất cả enum, ghi 1 lần ở đầu file (dùng cho journal).
+     */
+    static final class EnumTables {
+        final ItemType[] items;
+        final AnimalType[] animals;
+        final Tile[] tiles;
+        final CropType[] crops;
+
+        private EnumTables(ItemType[] items, AnimalType[] animals, Tile[] tiles, CropType[] crops) {
+            this.items = items;
+            this.animals = animals;
+            this.tiles = tiles;
+            this.crops = crops;
+        }
+
+        static void write(DataOutputStream out) throws IOException {
+            writeEnumTable(out, ItemType.values());
+            writeEnumTable(out, AnimalType.values());
+            writeEnumTable(out, Tile.values());
+            writeEnumTable(out, CropType.values());
+        }
+
+        static EnumTables read(DataInputStream in) throws IOException {
+            return new EnumTables(readEnumTable(in, ItemType.class), readEnumTable(in, AnimalType.class),
+                    readEnumTable(in, Tile.class), readEnumTable(in, CropType.class));
+        }
+    }
+
+    /**
+     * [MỚI] Ô cỏ trống (giống ô mặc định của WorldMap) -> trong journal nghĩa là ô đã bị xóa về mặc định.
+     */
+    static boolean isDefaultTile(SavedTileData tile) {
+        return (tile.baseType == null || tile.baseType == Tile.GRASS)
+                && !tile.isWatered && !tile.isFertilized
+                && tile.lastWateredTime == 0 && tile.fertilizerStartTime == 0
+                && !tile.hasCrop && !tile.hasTree && !tile.hasFence && !tile.hasGroundItem;
+    }
+
+    // Bảng tên enum theo thứ tự ordinal lúc ghi
+    private static void writeEnumTable(DataOutputStream out, Enum<?>[] values) throws IOException {
+        writeVarInt(out, values.length);
+        for (Enum<?> value : values) {
+            out.writeUTF(value.name());
+        }
+    }
+
+    // Đọc bảng tên -> mảng enum hiện tại (null nếu enum đã bị xóa / đổi tên)
+    private static <E extends Enum<E>> E[] readEnumTable(DataInputStream in, Class<E> type) throws IOException {
+        int count = readCount(in);
+        @SuppressWarnings("unchecked")
+        E[] table = (E[]) Array.newInstance(type, count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            try {
+                table[i] = Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown " + type.getSimpleName() + " in save file: " + name);
+            }
+        }
+        return table;
+    }
+
+    private static <E> E lookup(E[] table, int index) {
+        return index >= 0 && index < table.length ? table[index] : null;
+    }
+
+    // ZigZag varint: số nhỏ (kể cả âm) chỉ tốn 1-2 byte
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte(zigzag);
+    }
+
+    // [MỚI] Số phần tử của 1 danh sách: mỗi phần tử chiếm ít nhất 1 byte -> không được âm hay lớn hơn số byte còn lại
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Corrupted list length " + count);
+        }
+        return count;
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) throw new IOException("Malformed varint");
+            b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (result >>> 1) ^ -(result & 1);
+    }
+}
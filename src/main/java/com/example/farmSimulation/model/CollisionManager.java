@@ -27,7 +27,7 @@ public class CollisionManager {
         int col = (int) Math.floor(tileX / WorldConfig.TILE_SIZE);
         int row = (int) Math.floor(tileY / WorldConfig.TILE_SIZE);
 
-        TileData data = worldMap.getTileData(col, row);
+        TileData data = worldMap.peekTileData(col, row);
         
         // Kiểm tra hàng rào
         if (data.getFenceData() != null && data.getFenceData().isSolid()) {
@@ -15,6 +15,7 @@ public class CropData {
     private CropType type; // Loại cây (Dâu, Cà rốt, ...)
     private int growthStage; // Giai đoạn hiện tại (0 là hạt giống)
     private long plantTime; // Thời điểm gieo hạt (dùng System.nanoTime())
+    private long frozenSinceTime = 0; // [MỚI] Thời điểm cây ngừng lớn do thiếu nước (0 = đang lớn bình thường)
 
     /**
      * Constructor để tạo một cây mới.
@@ -3,23 +3,57 @@ package com.example.farmSimulation.model;
 import com.example.farmSimulation.config.CropConfig;
 import com.example.farmSimulation.config.GameLogicConfig;
 
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
 // Class quản lý hệ thống ngầm của cây
+// [SỬA] Hướng sự kiện: mỗi ô đất đăng ký thời điểm (deadline) cần xử lý tiếp theo vào TimingWheel
+// (khô đất, mọc cỏ, cây chết, hết phân, lên stage, đổi icon...). Mỗi lần update chỉ xử lý các ô đã đến hạn.
 public class CropManager {
     private final WorldMap worldMap;
     private WeatherManager weatherManager; // Quản lý thời tiết
     private TimeManager timeManager; // Quản lý thời gian (để kiểm tra ban đêm)
 
-    // Biến để theo dõi thời gian frame trước
-    private long lastUpdateTime = 0;
-    
     // Thời gian update lần cuối (để sử dụng interval)
     private long lastCropUpdateTimeMs = 0;
-    
-    // Index để track tiles đã update (để phân bổ update qua nhiều frame)
-    private int lastProcessedIndex = 0;
+
+    // [MỚI] Bộ hẹn giờ cho các ô đất (độ phân giải = CROP_UPDATE_INTERVAL_MS)
+    private final TimingWheel<TileData> scheduler;
+    private final IdentityHashMap<TileData, TimingWheel.Timer<TileData>> tileTimers = new IdentityHashMap<>();
+    // Các ô đã đến hạn nhưng chưa xử lý (giới hạn MAX_CROPS_UPDATE_PER_FRAME mỗi lần)
+    private final ArrayDeque<TileData> dueTiles = new ArrayDeque<>();
+    // [MỚI] Tọa độ (col << 32 | row) của các ô đang hẹn giờ, để đánh dấu vẽ lại đúng ô khi thay đổi
+    private final IdentityHashMap<TileData, Long> tilePositions = new IdentityHashMap<>();
+
+    // Trạng thái hệ số tốc độ lần trước (đổi ngày/đêm hoặc mưa -> hẹn lại toàn bộ)
+    private boolean lastNight = false;
+    private boolean lastRaining = false;
 
     public CropManager(WorldMap worldMap) {
         this.worldMap = worldMap;
+        this.scheduler = new TimingWheel<>(GameLogicConfig.CROP_UPDATE_INTERVAL_MS, System.nanoTime() / 1_000_000);
+
+        // Ô đất mới / bị thay thế -> Hẹn xử lý ngay ở tick tới
+        worldMap.addTileChangeListener(new WorldMap.TileChangeListener() {
+            @Override
+            public void onTileChanged(int col, int row, TileData oldData, TileData newData) {
+                if (oldData != null && oldData != newData) {
+                    unscheduleTile(oldData);
+                }
+                if (newData != null && SoilRegistry.isActive(newData)) {
+                    tilePositions.put(newData, ((long) col << 32) | (row & 0xffffffffL));
+                    scheduleTile(newData, 0);
+                }
+            }
+
+            @Override
+            public void onMapCleared() {
+                scheduler.clear();
+                tileTimers.clear();
+                dueTiles.clear();
+                tilePositions.clear();
+            }
+        });
     }
     
     /**
@@ -50,18 +84,67 @@ public class CropManager {
         data.setStatusIndicator(CropStatusIndicator.NONE);
     }
 
+    // Hẹn xử lý ô tại deadlineMs (0 = càng sớm càng tốt)
+    private void scheduleTile(TileData data, long deadlineMs) {
+        TimingWheel.Timer<TileData> timer = tileTimers.computeIfAbsent(data, TimingWheel.Timer::new);
+        scheduler.schedule(timer, deadlineMs);
+    }
+
+    private void unscheduleTile(TileData data) {
+        TimingWheel.Timer<TileData> timer = tileTimers.remove(data);
+        if (timer != null) scheduler.cancel(timer);
+        tilePositions.remove(data);
+    }
+
+    private boolean isNight() {
+        return timeManager != null && timeManager.isNight();
+    }
+
+    private boolean isRaining() {
+        return weatherManager != null && weatherManager.isRaining();
+    }
+
+    /**
+     * Thời gian (ms) cho mỗi stage với buff phân bón và hệ số ngày/đêm, mưa hiện tại.
+     */
+    private double getTimePerStage(boolean hasBuff) {
+        double timePerStage = hasBuff ? (CropConfig.TIME_PER_GROWTH_STAGE_MS / CropConfig.FERTILIZER_BUFF) : CropConfig.TIME_PER_GROWTH_STAGE_MS;
+
+        double growthSpeedMultiplier = CropConfig.BASE_GROWTH_SPEED;
+        // Áp dụng multiplier cho ban đêm
+        if (isNight()) {
+            growthSpeedMultiplier *= CropConfig.NIGHT_GROWTH_SPEED_MULTIPLIER;
+        }
+        // Áp dụng multiplier cho mưa
+        if (isRaining()) {
+            growthSpeedMultiplier *= CropConfig.RAIN_GROWTH_SPEED_MULTIPLIER;
+        }
+        return timePerStage / growthSpeedMultiplier;
+    }
+
+    // Buff phân bón còn tác dụng: Đang bón HOẶC đã hết phân nhưng chưa hết warning time
+    private boolean hasFertilizerBuff(TileData data, long currentTime) {
+        if (data.getFertilizerStartTime() <= 0) return false;
+        long timeSinceFertilizer = (currentTime - data.getFertilizerStartTime()) / 1_000_000;
+        return timeSinceFertilizer <= (CropConfig.FERTILIZER_EFFECT_DURATION_MS + CropConfig.FERTILIZER_WARNING_DELAY_MS);
+    }
+
+    // Bù lại khoảng thời gian cây bị đóng băng (thiếu nước) vào plantTime
+    private void resumeGrowth(CropData crop, long currentTime) {
+        if (crop.getFrozenSinceTime() > 0) {
+            crop.setPlantTime(crop.getPlantTime() + (currentTime - crop.getFrozenSinceTime()));
+            crop.setFrozenSinceTime(0);
+        }
+    }
+
     public boolean updateCrops(long currentTime) {
         boolean mapNeedsRedraw = false;
         long currentTimeMs = currentTime / 1_000_000;
 
-        // Tính delta time (thời gian trôi qua giữa 2 frame)
-        if (lastUpdateTime == 0) {
-            lastUpdateTime = currentTime;
+        if (lastCropUpdateTimeMs == 0) {
             lastCropUpdateTimeMs = currentTimeMs;
             return false; // Frame đầu chưa làm gì
         }
-        long deltaTime = currentTime - lastUpdateTime;
-        lastUpdateTime = currentTime;
 
         // Chỉ update crops theo interval, không phải mỗi frame
         if (currentTimeMs - lastCropUpdateTimeMs < GameLogicConfig.CROP_UPDATE_INTERVAL_MS) {
@@ -69,185 +152,241 @@ public class CropManager {
         }
         lastCropUpdateTimeMs = currentTimeMs;
 
-        // Lấy tất cả tiles và chỉ xử lý những tiles cần thiết
-        // Tối ưu: Chỉ update tiles có cây trồng, đất ướt, hoặc đất khô cần kiểm tra
-        java.util.Collection<TileData> allTiles = worldMap.getAllTileData();
-        java.util.ArrayList<TileData> tilesToUpdate = new java.util.ArrayList<>();
-        
-        // Lọc ra các tiles cần update (có cây, đất ướt, hoặc đất khô)
-        for (TileData data : allTiles) {
-            if (data.getCropData() != null || 
-                data.isWatered() || 
-                data.isFertilized() || 
-                data.getBaseTileType() == Tile.SOIL) { // Bao gồm tất cả đất SOIL (có hoặc không có dryStartTime)
-                tilesToUpdate.add(data);
-            }
+        // Ngày/đêm hoặc mưa thay đổi -> Tốc độ lớn, tự tưới, khô đất đều đổi -> Hẹn lại toàn bộ ô
+        boolean night = isNight();
+        boolean raining = isRaining();
+        if (night != lastNight || raining != lastRaining) {
+            lastNight = night;
+            lastRaining = raining;
+            rescheduleAll();
         }
 
+        // Lấy ra các ô đã đến hạn
+        scheduler.advance(currentTimeMs, dueTiles::add);
+
         // Giới hạn số lượng tiles update mỗi lần để tránh lag spike
         int processedCount = 0;
-        int startIndex = lastProcessedIndex;
-        
-        for (int i = 0; i < tilesToUpdate.size() && processedCount < GameLogicConfig.MAX_CROPS_UPDATE_PER_FRAME; i++) {
-            int index = (startIndex + i) % tilesToUpdate.size();
-            TileData data = tilesToUpdate.get(index);
-            boolean changed = false;
+        while (!dueTiles.isEmpty() && processedCount < GameLogicConfig.MAX_CROPS_UPDATE_PER_FRAME) {
+            TileData data = dueTiles.poll();
+            if (!tileTimers.containsKey(data)) continue; // Ô đã bị thay thế / xóa
             processedCount++;
 
-            // --- LOGIC TƯỚI NƯỚC & ĐẤT ---
-            // [MỚI] Nếu đang mưa, tự động tưới ướt tất cả đất có cây
-            if (weatherManager != null && weatherManager.isRaining() && 
-                data.getBaseTileType() == Tile.SOIL && data.getCropData() != null && !data.isWatered()) {
-                // Mưa tự động tưới ướt đất có cây
-                data.setWatered(true);
-                data.setBaseTileType(Tile.SOIL_WET);
-                data.setLastWateredTime(currentTime);
-                data.setDryStartTime(0); // Xóa thời gian khô
-                changed = true;
+            if (processTile(data, currentTime)) {
+                mapNeedsRedraw = true;
+                // Sửa trực tiếp TileData -> Báo renderer vẽ lại đúng ô này
+                Long position = tilePositions.get(data);
+                if (position != null) {
+                    worldMap.markTileDirty((int) (position >> 32), (int) position.longValue());
+                }
             }
-            
-            if (data.isWatered()) {
-                // Đất ướt -> Tự khô (trừ khi đang mưa)
-                if (weatherManager == null || !weatherManager.isRaining()) {
-                    // Chỉ khô khi không mưa
-                    if (currentTimeMs - data.getLastWateredTime() / 1_000_000 > CropConfig.SOIL_DRY_TIME_MS) {
-                        data.setWatered(false);
-                        data.setBaseTileType(Tile.SOIL);
-                        data.setDryStartTime(currentTime); // Bắt đầu đếm giờ khô
-                        changed = true;
-                    }
+
+            if (SoilRegistry.isActive(data)) {
+                long nextDeadlineMs = computeNextDeadlineMs(data, currentTime);
+                if (nextDeadlineMs > 0) {
+                    scheduleTile(data, nextDeadlineMs);
                 }
-            } else if (data.getBaseTileType() == Tile.SOIL) { // Đất khô
-                if (data.getCropData() == null) { // Đất hoang -> Mọc cỏ
-                    // Kiểm tra nếu dryStartTime chưa có (bằng 0) thì set ngay
-                    if (data.getDryStartTime() == 0) {
-                        data.setDryStartTime(currentTime);
-                    } else {
-                        // Nếu đã khô đủ lâu -> Mọc cỏ
-                        if ((currentTime - data.getDryStartTime()) / 1_000_000 > CropConfig.SOIL_REVERT_TIME_MS) {
-                            data.setBaseTileType(Tile.GRASS);
-                            data.setDryStartTime(0);
-                            changed = true;
-                        }
-                    }
-                } else { // Có cây trên đất khô -> Kiểm tra chết
-                    // Nếu đất khô mà DryTime = 0, reset ngay lập tức để tránh cây chết oan
-                    if (data.getDryStartTime() == 0) {
-                        data.setDryStartTime(currentTime);
-                    }
-                    long dryDuration = (currentTime - data.getDryStartTime()) / 1_000_000;
-                    long deathTime = CropConfig.WATER_WARNING_DELAY_MS + CropConfig.CROP_DEATH_TIME_MS;
+                // Không còn mốc nào -> Ngủ cho đến khi ô bị thay đổi hoặc hẹn lại toàn bộ
+            } else {
+                // Ô không còn là đất canh tác (VD: đã mọc cỏ lại) -> Bỏ khỏi index
+                worldMap.getSoilRegistry().remove(data);
+                unscheduleTile(data);
+            }
+        }
 
-                    if (data.getCropData().getGrowthStage() != -1 && dryDuration > deathTime) {
-                        // Cây chết -> Reset hoàn toàn tile
-                        resetTileToSoil(data, currentTime);
+        return mapNeedsRedraw;
+    }
+
+    /**
+     * Hẹn xử lý lại ngay toàn bộ ô đất (khi hệ số tốc độ thay đổi).
+     */
+    private void rescheduleAll() {
+        SoilRegistry soilTiles = worldMap.getSoilRegistry();
+        for (int i = 0; i < soilTiles.size(); i++) {
+            TileData data = soilTiles.get(i);
+            TimingWheel.Timer<TileData> timer = tileTimers.get(data);
+            // Timer chưa hẹn nhưng vẫn còn trong map = đang chờ trong dueTiles -> bỏ qua
+            if (timer == null || timer.isScheduled()) {
+                scheduleTile(data, 0);
+            }
+        }
+    }
+
+    /**
+     * Xử lý một ô đất tại thời điểm currentTime.
+     * @return true nếu ô thay đổi hình ảnh
+     */
+    private boolean processTile(TileData data, long currentTime) {
+        long currentTimeMs = currentTime / 1_000_000;
+        boolean changed = false;
+
+        // --- LOGIC TƯỚI NƯỚC & ĐẤT ---
+        // [MỚI] Nếu đang mưa, tự động tưới ướt tất cả đất có cây
+        if (weatherManager != null && weatherManager.isRaining() && 
+            data.getBaseTileType() == Tile.SOIL && data.getCropData() != null && !data.isWatered()) {
+            // Mưa tự động tưới ướt đất có cây
+            data.setWatered(true);
+            data.setBaseTileType(Tile.SOIL_WET);
+            data.setLastWateredTime(currentTime);
+            data.setDryStartTime(0); // Xóa thời gian khô
+            changed = true;
+        }
+        
+        if (data.isWatered()) {
+            // Đất ướt -> Tự khô (trừ khi đang mưa)
+            if (weatherManager == null || !weatherManager.isRaining()) {
+                // Chỉ khô khi không mưa
+                if (currentTimeMs - data.getLastWateredTime() / 1_000_000 > CropConfig.SOIL_DRY_TIME_MS) {
+                    data.setWatered(false);
+                    data.setBaseTileType(Tile.SOIL);
+                    data.setDryStartTime(currentTime); // Bắt đầu đếm giờ khô
+                    changed = true;
+                }
+            }
+        } else if (data.getBaseTileType() == Tile.SOIL) { // Đất khô
+            if (data.getCropData() == null) { // Đất hoang -> Mọc cỏ
+                // Kiểm tra nếu dryStartTime chưa có (bằng 0) thì set ngay
+                if (data.getDryStartTime() == 0) {
+                    data.setDryStartTime(currentTime);
+                } else {
+                    // Nếu đã khô đủ lâu -> Mọc cỏ
+                    if ((currentTime - data.getDryStartTime()) / 1_000_000 > CropConfig.SOIL_REVERT_TIME_MS) {
+                        data.setBaseTileType(Tile.GRASS);
+                        data.setDryStartTime(0);
                         changed = true;
                     }
                 }
-            }
+            } else { // Có cây trên đất khô -> Kiểm tra chết
+                // Nếu đất khô mà DryTime = 0, reset ngay lập tức để tránh cây chết oan
+                if (data.getDryStartTime() == 0) {
+                    data.setDryStartTime(currentTime);
+                }
+                long dryDuration = (currentTime - data.getDryStartTime()) / 1_000_000;
+                long deathTime = CropConfig.WATER_WARNING_DELAY_MS + CropConfig.CROP_DEATH_TIME_MS;
 
-            // --- LOGIC PHÂN BÓN ---
-            if (data.isFertilized()) {
-                // Phân bón tự hết lớp hiển thị (nhưng buff có thể vẫn còn hoặc hết tùy logic)
-                if ((currentTime - data.getFertilizerStartTime()) / 1_000_000 > CropConfig.FERTILIZER_EFFECT_DURATION_MS) {
-                    data.setFertilized(false); // Mất lớp hiển thị
+                if (data.getCropData().getGrowthStage() != -1 && dryDuration > deathTime) {
+                    // Cây chết -> Reset hoàn toàn tile
+                    resetTileToSoil(data, currentTime);
                     changed = true;
                 }
             }
+        }
 
-            // --- LOGIC CÂY LỚN ---
-            // Điều kiện lớn: Có cây, chưa chết, chưa lớn hết
-            CropData crop = data.getCropData();
-            if (crop != null && crop.getGrowthStage() != -1 && crop.getGrowthStage() < crop.getType().getMaxStages() - 1) {
-
-                // Kiểm tra điều kiện nước để lớn:
-                // Cây lớn bình thường khi đất ướt HOẶC đất khô nhưng chưa đến warning time
-                boolean canGrowWater = data.isWatered();
-                if (!data.isWatered() && data.getDryStartTime() > 0) {
-                    long dryDuration = (currentTime - data.getDryStartTime()) / 1_000_000;
-                    if (dryDuration <= CropConfig.WATER_WARNING_DELAY_MS) {
-                        canGrowWater = true;
-                    }
+        // --- LOGIC PHÂN BÓN ---
+        if (data.isFertilized()) {
+            // Phân bón tự hết lớp hiển thị (nhưng buff có thể vẫn còn hoặc hết tùy logic)
+            if ((currentTime - data.getFertilizerStartTime()) / 1_000_000 > CropConfig.FERTILIZER_EFFECT_DURATION_MS) {
+                data.setFertilized(false); // Mất lớp hiển thị
+                changed = true;
+            }
+        }
+
+        // --- LOGIC CÂY LỚN ---
+        // Điều kiện lớn: Có cây, chưa chết, chưa lớn hết
+        CropData crop = data.getCropData();
+        if (crop != null && crop.getGrowthStage() != -1 && crop.getGrowthStage() < crop.getType().getMaxStages() - 1) {
+
+            // Kiểm tra điều kiện nước để lớn:
+            // Cây lớn bình thường khi đất ướt HOẶC đất khô nhưng chưa đến warning time
+            boolean canGrowWater = data.isWatered();
+            if (!data.isWatered() && data.getDryStartTime() > 0) {
+                long dryDuration = (currentTime - data.getDryStartTime()) / 1_000_000;
+                if (dryDuration <= CropConfig.WATER_WARNING_DELAY_MS) {
+                    canGrowWater = true;
                 }
+            }
 
-                if (canGrowWater) {
-                    // Kiểm tra buff phân bón
-                    // Buff còn tác dụng nếu: Đang bón HOẶC đã hết phân nhưng chưa hết warning time
-                    boolean hasBuff = false;
-                    if (data.getFertilizerStartTime() > 0) {
-                        long timeSinceFertilizer = (currentTime - data.getFertilizerStartTime()) / 1_000_000;
-                        // Chỉ BUFF khi còn trong thời gian hiệu lực
-                        if (timeSinceFertilizer <= (CropConfig.FERTILIZER_EFFECT_DURATION_MS + CropConfig.FERTILIZER_WARNING_DELAY_MS)) {
-                            hasBuff = true;
-                        }
-                    }
+            if (canGrowWater) {
+                // Kiểm tra buff phân bón
+                boolean hasBuff = hasFertilizerBuff(data, currentTime);
 
-                    double timePerStage = hasBuff ? (CropConfig.TIME_PER_GROWTH_STAGE_MS / CropConfig.FERTILIZER_BUFF) : CropConfig.TIME_PER_GROWTH_STAGE_MS;
-                    
-                    // Áp dụng weather/time multipliers
-                    double growthSpeedMultiplier = CropConfig.BASE_GROWTH_SPEED;
-                    
-                    // Kiểm tra ban đêm (light intensity thấp)
-                    boolean isNight = false;
-                    if (timeManager != null) {
-                        double lightIntensity = timeManager.getCurrentLightIntensity();
-                        isNight = (lightIntensity < CropConfig.NIGHT_LIGHT_THRESHOLD);
-                    }
-                    
-                    // Áp dụng multiplier cho ban đêm
-                    if (isNight) {
-                        growthSpeedMultiplier *= CropConfig.NIGHT_GROWTH_SPEED_MULTIPLIER;
-                    }
-                    
-                    // Áp dụng multiplier cho mưa
-                    if (weatherManager != null && weatherManager.isRaining()) {
-                        growthSpeedMultiplier *= CropConfig.RAIN_GROWTH_SPEED_MULTIPLIER;
-                    }
-                    
-                    // Điều chỉnh timePerStage dựa trên growth speed multiplier
-                    timePerStage = timePerStage / growthSpeedMultiplier;
-
-                    long timeElapsedMs = (currentTime - crop.getPlantTime()) / 1_000_000;
-                    int targetStage = (int) (timeElapsedMs / timePerStage);
-                    targetStage = Math.min(targetStage, crop.getType().getMaxStages() - 1);
-
-                    if (targetStage > crop.getGrowthStage()) {
-                        crop.setGrowthStage(targetStage);
-                        // Nếu cây đã lớn tối đa (Chín) -> Mất lớp phân bón ngay lập tức
-                        if (targetStage >= crop.getType().getMaxStages() - 1) {
-                            data.setFertilized(false);
-                        }
-                        changed = true;
+                // Áp dụng buff phân bón + weather/time multipliers
+                double timePerStage = getTimePerStage(hasBuff);
+
+                // Cây vừa hết bị đóng băng (được tưới lại) -> Bù thời gian đã đứng yên
+                resumeGrowth(crop, currentTime);
+
+                long timeElapsedMs = (currentTime - crop.getPlantTime()) / 1_000_000;
+                int targetStage = (int) (timeElapsedMs / timePerStage);
+                targetStage = Math.min(targetStage, crop.getType().getMaxStages() - 1);
+
+                if (targetStage > crop.getGrowthStage()) {
+                    crop.setGrowthStage(targetStage);
+                    // Nếu cây đã lớn tối đa (Chín) -> Mất lớp phân bón ngay lập tức
+                    if (targetStage >= crop.getType().getMaxStages() - 1) {
+                        data.setFertilized(false);
                     }
-                } else {
-                    // ĐÓNG BĂNG THỜI GIAN
-                    // Nếu thiếu nước và đã qua Warning Time -> Cây ngừng lớn
-                    // Cách làm: Đẩy plantTime về phía trước 1 khoảng bằng deltaTime
-                    // Điều này khiến (currentTime - plantTime) không thay đổi
-                    long newPlantTime = crop.getPlantTime() + deltaTime;
-                    crop.setPlantTime(newPlantTime);
-                    // Không set changed = true vì stage không đổi
+                    changed = true;
+                }
+            } else {
+                // ĐÓNG BĂNG THỜI GIAN
+                // Nếu thiếu nước và đã qua Warning Time -> Cây ngừng lớn
+                // [SỬA] Ghi lại thời điểm bắt đầu đóng băng; khi được tưới lại,
+                // plantTime sẽ được đẩy lên đúng bằng khoảng thời gian đã đứng yên
+                // (thay vì cộng deltaTime mỗi tick -> không cần xử lý ô này liên tục)
+                if (crop.getFrozenSinceTime() == 0) {
+                    crop.setFrozenSinceTime(currentTime);
                 }
+                // Không set changed = true vì stage không đổi
             }
+        }
 
-            // --- CẬP NHẬT ICON ---
-            CropStatusIndicator newStatus = calculateStatus(data, crop, currentTime);
-            if (data.getStatusIndicator() != newStatus) {
-                data.setStatusIndicator(newStatus);
-                changed = true;
+        // --- CẬP NHẬT ICON ---
+        CropStatusIndicator newStatus = calculateStatus(data, crop, currentTime);
+        if (data.getStatusIndicator() != newStatus) {
+            data.setStatusIndicator(newStatus);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Tính thời điểm (ms) gần nhất mà trạng thái ô có thể thay đổi.
+     * Các điều kiện trong processTile dùng so sánh '>' nên cộng thêm 1ms.
+     * @return deadline (ms), hoặc 0 nếu ô không còn gì cần chờ
+     */
+    private long computeNextDeadlineMs(TileData data, long currentTime) {
+        long nowMs = currentTime / 1_000_000;
+        long next = Long.MAX_VALUE;
+        CropData crop = data.getCropData();
+
+        // Đất ướt -> Khô (khi không mưa)
+        if (data.isWatered() && !isRaining()) {
+            next = Math.min(next, data.getLastWateredTime() / 1_000_000 + CropConfig.SOIL_DRY_TIME_MS + 1);
+        }
+
+        // Đất khô
+        if (!data.isWatered() && data.getBaseTileType() == Tile.SOIL && data.getDryStartTime() > 0) {
+            long dryStartMs = data.getDryStartTime() / 1_000_000;
+            if (crop == null) {
+                next = Math.min(next, dryStartMs + CropConfig.SOIL_REVERT_TIME_MS + 1); // Mọc cỏ
+            } else if (crop.getGrowthStage() != -1) {
+                long warningMs = dryStartMs + CropConfig.WATER_WARNING_DELAY_MS + 1; // Icon thiếu nước + đóng băng
+                if (warningMs > nowMs) next = Math.min(next, warningMs);
+                next = Math.min(next, dryStartMs + CropConfig.WATER_WARNING_DELAY_MS + CropConfig.CROP_DEATH_TIME_MS + 1); // Cây chết
             }
+        }
 
-            if (changed) {
-                mapNeedsRedraw = true;
+        // Phân bón hết lớp hiển thị / hết buff
+        if (data.getFertilizerStartTime() > 0) {
+            long fertStartMs = data.getFertilizerStartTime() / 1_000_000;
+            if (data.isFertilized()) {
+                next = Math.min(next, fertStartMs + CropConfig.FERTILIZER_EFFECT_DURATION_MS + 1);
             }
+            long buffEndMs = fertStartMs + CropConfig.FERTILIZER_EFFECT_DURATION_MS + CropConfig.FERTILIZER_WARNING_DELAY_MS + 1;
+            if (buffEndMs > nowMs) next = Math.min(next, buffEndMs);
         }
-        
-        // Cập nhật index để lần sau tiếp tục từ vị trí này
-        if (tilesToUpdate.size() > 0) {
-            lastProcessedIndex = (startIndex + processedCount) % tilesToUpdate.size();
+
+        // Lên stage tiếp theo (chỉ khi đang lớn, không bị đóng băng)
+        if (crop != null && crop.getGrowthStage() != -1 && crop.getGrowthStage() < crop.getType().getMaxStages() - 1
+                && crop.getFrozenSinceTime() == 0) {
+            double timePerStage = getTimePerStage(hasFertilizerBuff(data, currentTime));
+            long stageMs = crop.getPlantTime() / 1_000_000 + (long) Math.ceil((crop.getGrowthStage() + 1) * timePerStage);
+            next = Math.min(next, stageMs);
         }
-        
-        return mapNeedsRedraw;
+
+        if (next == Long.MAX_VALUE) return 0;
+        return Math.max(next, nowMs + 1);
     }
 
     private CropStatusIndicator calculateStatus(TileData data, CropData crop, long currentTime) {
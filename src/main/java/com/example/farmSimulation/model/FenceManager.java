@@ -40,7 +40,7 @@ public class FenceManager {
      * [SỬA] Rào đang MỞ (Cổng) sẽ được coi như KHÔNG PHẢI LÀ RÀO để các rào bên cạnh ngắt kết nối.
      */
     private boolean isFence(int col, int row) {
-        TileData data = worldMap.getTileData(col, row);
+        TileData data = worldMap.peekTileData(col, row);
         // Chỉ kết nối nếu là FENCE và đang ĐÓNG (Solid)
         return data.getBaseTileType() == Tile.FENCE
                 && data.getFenceData() != null
@@ -70,7 +70,7 @@ public class FenceManager {
      * Helper method để cập nhật pattern tại một vị trí cụ thể
      */
     private void updateFencePatternAt(int col, int row) {
-        TileData data = worldMap.getTileData(col, row);
+        TileData data = worldMap.peekTileData(col, row);
         // Chỉ update nếu ô hàng xóm cũng là rào
         if (data.getBaseTileType() == Tile.FENCE && data.getFenceData() != null) {
             int pattern = calculateFencePattern(col, row);
@@ -101,16 +101,12 @@ public class FenceManager {
      * Được gọi sau khi load game để đảm bảo hình ảnh kết nối đúng.
      */
     public void updateAllFencePatterns() {
-        for (java.util.Map.Entry<Long, TileData> entry : worldMap.getTileDataMap().entrySet()) {
-            TileData data = entry.getValue();
+        worldMap.forEachTile((col, row, data) -> {
             if (data.getBaseTileType() == Tile.FENCE && data.getFenceData() != null) {
-                long key = entry.getKey();
-                int col = (int) (key >> 32);
-                int row = (int) key;
-
                 int pattern = calculateFencePattern(col, row);
                 data.getFenceData().setTilePattern(pattern);
+                worldMap.markTileDirty(col, row);
             }
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.farmSimulation.model;
+
+/**
+ * [MỚI] Đồng hồ khung hình dùng chung: GameManager gọi tick() đúng 1 lần mỗi frame,
+ * mọi animation (Player, động vật, hiệu ứng) đọc thời gian từ đây thay vì tự gọi System.nanoTime().
+ * - Đứng yên khi game pause (không tick) -> animation dừng đúng chỗ và chạy tiếp mượt khi resume.
+ * - advance() cho phép chạy game từng bước với delta cố định (test / benchmark).
+ */
+public class FrameClock {
+    // Giới hạn delta mỗi frame (giống giới hạn deltaTime 0.1s của GameManager) để tránh nhảy khi lag / resume
+    private static final long MAX_DELTA_NANOS = 100_000_000L;
+
+    private long timeNanos = 0;     // Tổng thời gian đã chạy (không tính lúc pause)
+    private long deltaNanos = 0;    // Delta của frame gần nhất
+    private long lastTickNanos = 0; // Thời điểm tick gần nhất (nanoTime của AnimationTimer), 0 = chưa có
+    private long frameNumber = 0;
+
+    /**
+     * Tiến đồng hồ tới thời điểm now (nanoTime của AnimationTimer). Frame đầu tiên có delta = 0.
+     */
+    public void tick(long now) {
+        long delta = lastTickNanos > 0 ? now - lastTickNanos : 0;
+        lastTickNanos = now;
+        advance(Math.min(delta, MAX_DELTA_NANOS));
+    }
+
+    /**
+     * Tiến đồng hồ thêm một khoảng cố định (không phụ thuộc thời gian thực).
+     */
+    public void advance(long deltaNanos) {
+        this.deltaNanos = Math.max(0, deltaNanos);
+        this.timeNanos += this.deltaNanos;
+        this.frameNumber++;
+    }
+
+    /**
+     * Bỏ qua khoảng thời gian từ tick trước (gọi khi resume sau pause).
+     */
+    public void resync() {
+        lastTickNanos = 0;
+    }
+
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public long getTimeMs() {
+        return timeNanos / 1_000_000;
+    }
+
+    public double getDeltaSeconds() {
+        return deltaNanos / 1_000_000_000.0;
+    }
+
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    /**
+     * Frame hiện tại của một animation lặp: (thời gian / thời lượng mỗi frame) % số frame.
+     */
+    public int frameIndex(long frameDurationMs, int frameCount) {
+        if (frameDurationMs <= 0 || frameCount <= 0) return 0;
+        return (int) ((getTimeMs() / frameDurationMs) % frameCount);
+    }
+}
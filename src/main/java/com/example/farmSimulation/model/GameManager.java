@@ -9,6 +9,10 @@ import com.example.farmSimulation.model.GameSaveState.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 @Getter
 @Setter
 public class GameManager {
@@ -38,9 +42,21 @@ public class GameManager {
     // --- Trạng thái Game ---
     private AnimationTimer gameLoop; // Khởi tạo gameLoop
     private boolean isPaused = false;
-    private long lastUpdateTime = 0; // Thời gian update lần cuối (nanoTime) - để tính deltaTime
+    private final FrameClock frameClock; // [MỚI] Đồng hồ chung cho deltaTime và mọi animation (dùng chung với PlayerView)
     private boolean isGameOverSequenceTriggered = false; // Flag to ensure Game Over sequence runs only once
 
+    // [MỚI] Lưu game ở luồng nền (autosave định kỳ + nút Save)
+    private final AutosaveService autosaveService = new AutosaveService(GameLogicConfig.SAVE_JOURNAL_ENABLED
+            ? GameLogicConfig.SAVE_JOURNAL_FLUSH_INTERVAL_SECONDS : GameLogicConfig.AUTOSAVE_INTERVAL_SECONDS);
+    private boolean manualSaveRequested = false; // Nút Save -> hiện thông báo khi ghi xong
+    private int journaledChunkCount = -1; // Số chunk đã sinh cây ở lần ghi journal trước (-1 = chưa ghi)
+    // [MỚI] Trạng thái đã nằm trong file save / journal -> không ghi lại bản ghi giống hệt
+    private GameSaveState journaledPlayerState; // Player / hotbar ở lần ghi trước (null = chưa có, phải ghi)
+    private List<Animal> journaledAnimals; // Bản chụp getAnimals() ở lần ghi động vật trước (đổi khi thêm / bớt con)
+    private long animalsJournaledAtNanos; // Thời điểm (frameClock) ghi động vật lần trước
+    private final RegionStreamer regionStreamer;
+    private final List<Animal> visibleAnimals = new ArrayList<>(); // [MỚI] Động vật trong màn hình, dùng lại mỗi frame // [MỚI] Load / unload vùng bản đồ khi lưu theo vùng
+
     // Tọa độ ô chuột đang trỏ tới
     private int currentMouseTileX = 0;
     private int currentMouseTileY = 0;
@@ -54,9 +70,14 @@ public class GameManager {
 
     // Constructor nhận tất cả các thành phần cốt lõi
     public GameManager(Player player, WorldMap worldMap, MainGameView mainGameView,
-                       PlayerView playerView, GameController gameController) {
+                       PlayerView playerView, GameController gameController, FrameClock frameClock) {
         this.mainPlayer = player;
+        this.frameClock = frameClock;
         this.worldMap = worldMap;
+        this.regionStreamer = new RegionStreamer(worldMap);
+        if (GameLogicConfig.SAVE_REGION_STORAGE_ENABLED && GameLogicConfig.REGION_OFF_HEAP_ENABLED) {
+            worldMap.setOffHeapStore(new MappedTileStore(SaveManager.resolveSaveFile(GameLogicConfig.REGION_OFF_HEAP_FILE_NAME)));
+        }
         this.mainGameView = mainGameView;
         this.playerView = playerView;
         this.gameController = gameController;
@@ -94,6 +115,14 @@ public class GameManager {
         this.cropManager.setWeatherManager(this.weatherManager); // Liên kết WeatherManager với CropManager
         this.cropManager.setTimeManager(this.timeManager); // Liên kết TimeManager với CropManager
         this.shopManager.setQuestManager(this.questManager); // Liên kết QuestManager với ShopManager
+        if (mainGameView.getWorldRenderer() != null) {
+            this.animalManager.addAnimalListener(mainGameView.getWorldRenderer()); // [MỚI] Renderer nhận sự kiện thêm/xóa động vật
+        }
+
+        // [MỚI] Chỉ báo "Saving..." và thông báo khi lưu xong
+        this.autosaveService.setOnSavingChanged(mainGameView::setSaving);
+        this.autosaveService.setOnSaveFinished(this::onSaveFinished);
+        this.autosaveService.setOnPersisted(regionStreamer::onPersisted); // [MỚI] Vùng đã lưu xong mới được unload
     }
 
     public void startGame() {
@@ -107,7 +136,9 @@ public class GameManager {
         this.gameLoop = new AnimationTimer() {
             @Override
             public void handle(long now) {
+                mainGameView.beginFrameTiming(); // [SỬA] Thống kê thời gian xử lý frame (nếu bật DEBUG_FRAME_TIME)
                 updateGameLogic(now);
+                mainGameView.endFrameTiming();
             }
         };
         gameLoop.start();
@@ -128,6 +159,9 @@ public class GameManager {
             return;
         }
 
+        // [MỚI] Tiến đồng hồ chung đúng 1 lần mỗi frame
+        frameClock.tick(now);
+
         // Check if player is DEAD - stop all game logic processing
         if (mainPlayer.getState() == PlayerView.PlayerState.DEAD) {
             // Sync PlayerView state to DEAD
@@ -140,22 +174,12 @@ public class GameManager {
             }
             // Only update death animation, stop everything else
             playerView.updateAnimation();
-            // Still update lastUpdateTime to avoid deltaTime spike when restarting
-            lastUpdateTime = now;
             return;
         }
 
         // Tính deltaTime (thời gian trôi qua giữa 2 frame) - tính bằng giây
-        double deltaTime = 0.0;
-        if (lastUpdateTime > 0) {
-            long deltaNanos = now - lastUpdateTime;
-            deltaTime = deltaNanos / 1_000_000_000.0; // Chuyển từ nano giây sang giây
-            // Giới hạn deltaTime tối đa để tránh lag spike (ví dụ: 0.1 giây = 100ms)
-            if (deltaTime > 0.1) {
-                deltaTime = 0.1;
-            }
-        }
-        lastUpdateTime = now;
+        // [SỬA] Lấy từ đồng hồ chung (đã giới hạn tối đa 0.1 giây để tránh lag spike)
+        double deltaTime = frameClock.getDeltaSeconds();
 
         // Cập nhật thời gian & chu kỳ ngày đêm
         timeManager.update();
@@ -200,7 +224,16 @@ public class GameManager {
         }
 
         // Cập nhật vẽ động vật
-        mainGameView.updateAnimals(animalManager.getAnimals(), camera.getWorldOffsetX(), camera.getWorldOffsetY());
+        // [SỬA] Chỉ gửi các con trong vùng màn hình (tìm qua lưới không gian) cho renderer
+        double viewMinX = -camera.getWorldOffsetX() - AnimalConfig.ANIMAL_CULL_MARGIN;
+        double viewMinY = -camera.getWorldOffsetY() - AnimalConfig.ANIMAL_CULL_MARGIN;
+        double viewMaxX = viewMinX + WorldConfig.NUM_COLS_ON_SCREEN * WorldConfig.TILE_SIZE + 2 * AnimalConfig.ANIMAL_CULL_MARGIN;
+        double viewMaxY = viewMinY + WorldConfig.NUM_ROWS_ON_SCREEN * WorldConfig.TILE_SIZE + 2 * AnimalConfig.ANIMAL_CULL_MARGIN;
+        mainGameView.updateAnimals(animalManager.getAnimalsInArea(viewMinX, viewMinY, viewMaxX, viewMaxY, visibleAnimals),
+                camera.getWorldOffsetX(), camera.getWorldOffsetY(), frameClock.getTimeMs());
+
+        // [MỚI] Cập nhật hiệu ứng (item bay về túi) theo đồng hồ chung
+        mainGameView.updateVisualEffects(frameClock.getTimeMs());
 
         // Cập nhật thời tiết
         weatherManager.updateWeather(now);
@@ -223,6 +256,26 @@ public class GameManager {
 
         // Cập nhật hiển thị tiền
         mainGameView.updateMoneyDisplay(mainPlayer.getMoney());
+
+        // [MỚI] Load vùng quanh người chơi / bỏ vùng ở xa (khi lưu theo vùng)
+        if (GameLogicConfig.SAVE_REGION_STORAGE_ENABLED
+                && regionStreamer.update(deltaTime, mainPlayer.getTileX(), mainPlayer.getTileY())) {
+            actionManager.setMapNeedsUpdate(true); // Báo map cần vẽ lại
+        }
+
+        // [MỚI] Autosave: snapshot ở cuối frame (trạng thái nhất quán), ghi file ở luồng nền
+        if (autosaveService.update(deltaTime)) {
+            if (GameLogicConfig.SAVE_JOURNAL_ENABLED && !autosaveService.isFullSaveRequired()) {
+                GameSaveState delta = createJournalDelta(); // Chỉ ghi các thay đổi
+                if (delta != null) {
+                    submitSave(delta, true);
+                } else {
+                    autosaveService.skipSave(); // [SỬA] Không có gì thay đổi -> không ghi bản ghi thừa
+                }
+            } else {
+                submitSave(createSaveSnapshot(), false);
+            }
+        }
     }
 
     /**
@@ -485,7 +538,7 @@ public class GameManager {
      * Kiểm tra xem có fence tại vị trí chỉ định không
      */
     public boolean hasFenceAt(int col, int row) {
-        TileData data = worldMap.getTileData(col, row);
+        TileData data = worldMap.peekTileData(col, row);
         return data != null && data.getFenceData() != null;
     }
 
@@ -500,8 +553,8 @@ public class GameManager {
             return;
         }
 
-        TileData data = worldMap.getTileData(col, row);
-        if (data.getFenceData() != null) {
+        // [SỬA] Chỉ đọc để kiểm tra (không tạo ô mới khi click vào ô trống), FenceManager tự lấy ô để sửa
+        if (worldMap.peekTileData(col, row).getFenceData() != null) {
             fenceManager.toggleFence(col, row);
             actionManager.setMapNeedsUpdate(true);
             mainGameView.updateMap(camera.getWorldOffsetX(), camera.getWorldOffsetY(), true);
@@ -572,6 +625,7 @@ public class GameManager {
             mainGameView.showSettingsMenu(mainPlayer.getName(), mainPlayer.getLevel());
         } else {
             if (gameLoop != null) {
+                frameClock.resync(); // [MỚI] Không tính khoảng thời gian pause vào frame kế tiếp
                 gameLoop.start(); // ⬅️ Tiếp tục game loop
                 //System.out.println("Game Loop đã tiếp tục.");
             }
@@ -689,7 +743,7 @@ public class GameManager {
         boolean foundSpot = false;
 
         // 1. Kiểm tra ô lý tưởng trước
-        TileData idealTile = worldMap.getTileData(targetTileCol, targetTileRow);
+        TileData idealTile = worldMap.peekTileData(targetTileCol, targetTileRow);
         if (idealTile.getGroundItem() == null) {
             finalCol = targetTileCol;
             finalRow = targetTileRow;
@@ -705,7 +759,7 @@ public class GameManager {
                 for (int c = targetTileCol - searchRadius; c <= targetTileCol + searchRadius; c++) {
                     if (r == targetTileRow && c == targetTileCol) continue; // Đã check rồi
 
-                    TileData checkTile = worldMap.getTileData(c, r);
+                    TileData checkTile = worldMap.peekTileData(c, r);
                     if (checkTile.getGroundItem() == null) {
                         finalCol = c;
                         finalRow = r;
@@ -802,6 +856,11 @@ public class GameManager {
             audioManager.pauseMusic();
         }
 
+        // [MỚI] Dừng luồng autosave (lần ghi đang dở vẫn hoàn tất)
+        autosaveService.shutdown();
+        regionStreamer.shutdown();
+        worldMap.closeOffHeapStore();
+
         // Gọi callback nếu đã được set (Main Class sẽ xử lý chuyển cảnh)
         if (onReturnToMainMenuHandler != null) {
             onReturnToMainMenuHandler.run();
@@ -820,9 +879,123 @@ public class GameManager {
     }
 
     // --- THÊM MỚI: Logic Lưu Game (HOÀN CHỈNH) ---
+    // [SỬA] Chỉ dựng snapshot trên FX thread, việc ghi file do AutosaveService làm ở luồng nền
     public void saveGameData() {
+        manualSaveRequested = true;
+        submitSave(createSaveSnapshot(), false);
+        autosaveService.enable(); // [SỬA] Người chơi đã chọn ghi đè file save -> từ giờ autosave được ghi tiếp
+    }
+
+    // [MỚI] Gửi bản lưu cho luồng nền, ghi nhận các chunk trong đó chưa được lưu xong (không được unload)
+    private void submitSave(GameSaveState state, boolean delta) {
+        Set<Long> chunks = RegionStreamer.chunksOf(state); // Đọc trước: luồng nền sẽ sửa state
+        long seq = delta ? autosaveService.submitDelta(state) : autosaveService.submit(state);
+        regionStreamer.markSubmitted(seq, chunks);
+    }
+
+    // [MỚI] Gọi trên FX thread khi luồng nền ghi xong
+    private void onSaveFinished(boolean success) {
+        if (!manualSaveRequested) return; // Autosave chỉ hiện chỉ báo, không hiện thông báo
+        manualSaveRequested = false;
+        Player p = mainPlayer;
+        mainGameView.showTemporaryText(success ? "Game Saved!" : "Save Failed!", p.getTileX(), p.getTileY());
+    }
+
+    // [MỚI] Chụp toàn bộ trạng thái game thành GameSaveState (chỉ chứa dữ liệu copy, an toàn khi ghi ở luồng khác)
+    private GameSaveState createSaveSnapshot() {
         GameSaveState state = new GameSaveState();
+        fillPlayerState(state);
+        fillAnimals(state);
+        markJournaled(state);
+
+        // 4. Lưu Toàn bộ dữ liệu Map (Cây trồng, Cây tự nhiên, Hàng rào, Đất, Item dưới đất...)
+        if (GameLogicConfig.SAVE_REGION_STORAGE_ENABLED) {
+            // [MỚI] Lưu theo vùng: các chunk trong bộ nhớ ghi đè file vùng, vùng đã unload giữ nguyên file
+            regionStreamer.fillRegionSnapshot(state);
+        } else {
+            // [SỬA] Duyệt qua WorldMap kèm tọa độ (không còn dùng reflection)
+            worldMap.forEachTile((col, row, td) -> {
+                // [SỬA] Bỏ qua ô cỏ mặc định (không có gì trên đó) -> load lại vẫn là cỏ, file nhẹ hơn
+                if (isDefaultTile(td)) return;
+                state.worldTiles.add(toSavedTile(col, row, td));
+            });
+        }
+        worldMap.clearChangedTiles(); // Snapshot đã chứa mọi thay đổi, journal bắt đầu lại từ đây
+
+        // 5. Lưu seed + các chunk đã sinh cây
+        state.worldSeed = treeManager.getWorldSeed();
+        state.generatedChunks = treeManager.getGeneratedChunks();
+        journaledChunkCount = state.generatedChunks.size();
+
+        return state;
+    }
+
+    // [MỚI] Bản ghi journal: player / inventory / thời gian (nhỏ), ô đất thì chỉ các ô đã đổi
+    // [SỬA] Động vật chỉ ghi khi có con được thêm / bớt hoặc đã quá SAVE_JOURNAL_ANIMAL_INTERVAL_SECONDS
+    // (delta.animals = null: giữ nguyên). Trả về null nếu không có gì cần ghi (chỉ thời gian trôi).
+    private GameSaveState createJournalDelta() {
+        GameSaveState delta = new GameSaveState();
+        fillPlayerState(delta);
+
+        // Ô đã trở về cỏ mặc định vẫn được ghi -> khi replay sẽ xóa ô đó
+        worldMap.drainChangedTiles((col, row, td) -> delta.worldTiles.add(toSavedTile(col, row, td)));
+
+        // Chỉ ghi danh sách chunk khi có chunk mới sinh cây
+        List<Long> chunks = treeManager.getGeneratedChunks();
+        if (chunks.size() != journaledChunkCount) {
+            delta.worldSeed = treeManager.getWorldSeed();
+            delta.generatedChunks = chunks;
+            journaledChunkCount = chunks.size();
+        } else {
+            delta.generatedChunks = null;
+        }
+
+        boolean animalsDue = animalManager.getAnimals() != journaledAnimals
+                || frameClock.getTimeNanos() - animalsJournaledAtNanos
+                        >= (long) (GameLogicConfig.SAVE_JOURNAL_ANIMAL_INTERVAL_SECONDS * 1e9);
+        if (animalsDue) {
+            fillAnimals(delta);
+        } else {
+            delta.animals = null;
+            if (delta.worldTiles.isEmpty() && delta.generatedChunks == null && samePlayerState(delta, journaledPlayerState)) {
+                return null;
+            }
+        }
+        markJournaled(delta);
+        return delta;
+    }
+
+    // [MỚI] Ghi nhận trạng thái vừa đưa vào bản lưu (để lần sau biết có gì thay đổi)
+    private void markJournaled(GameSaveState state) {
+        journaledPlayerState = state;
+        if (state.animals != null) {
+            journaledAnimals = animalManager.getAnimals();
+            animalsJournaledAtNanos = frameClock.getTimeNanos();
+        }
+    }
 
+    // [MỚI] Player và hotbar có giống lần ghi trước không (không so thời gian trong ngày)
+    private static boolean samePlayerState(GameSaveState a, GameSaveState b) {
+        if (b == null) return false;
+        if (a.playerMoney != b.playerMoney || a.playerXP != b.playerXP || a.playerLevel != b.playerLevel
+                || a.playerStamina != b.playerStamina || a.playerX != b.playerX || a.playerY != b.playerY
+                || a.inventory.size() != b.inventory.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.inventory.size(); i++) {
+            SavedItemStack x = a.inventory.get(i);
+            SavedItemStack y = b.inventory.get(i);
+            if (x == null || y == null) {
+                if (x != y) return false;
+            } else if (x.type != y.type || x.quantity != y.quantity || x.durability != y.durability) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Player, Hotbar, Thời gian
+    private void fillPlayerState(GameSaveState state) {
         // 1. Lưu Player
         Player p = mainPlayer;
         state.playerMoney = p.getMoney();
@@ -841,109 +1014,114 @@ public class GameManager {
             }
         }
 
-        // 2. Lưu Động vật
+        // 2. Lưu Thời gian
+        state.currentDaySeconds = timeManager.getGameTimeSeconds();
+        state.currentDay = timeManager.getCurrentDay();
+    }
+
+    // Động vật
+    private void fillAnimals(GameSaveState state) {
         for (Animal a : animalManager.getAnimals()) {
             state.animals.add(new SavedAnimal(a.getType(), a.getX(), a.getY(), a.getAge(), a.getHunger()));
         }
+    }
 
-        // 3. Lưu Thời gian
-        state.currentDaySeconds = timeManager.getGameTimeSeconds();
-        state.currentDay = timeManager.getCurrentDay();
+    // [MỚI] Chép dữ liệu 1 ô sang SavedTileData
+    static SavedTileData toSavedTile(int col, int row, TileData td) {
+        SavedTileData std = new SavedTileData();
+        std.col = col;
+        std.row = row;
+        std.baseType = td.getBaseTileType();
+
+        // Tile state
+        std.isWatered = td.isWatered();
+        std.isFertilized = td.isFertilized();
+        std.lastWateredTime = td.getLastWateredTime();
+        std.fertilizerStartTime = td.getFertilizerStartTime();
+
+        // Crop
+        if (td.getCropData() != null) {
+            std.hasCrop = true;
+            std.cropType = td.getCropData().getType();
+            std.cropStage = td.getCropData().getGrowthStage();
+        }
 
-        // 4. Lưu Toàn bộ dữ liệu Map (Cây trồng, Cây tự nhiên, Hàng rào, Đất, Item dưới đất...)
-        // Duyệt qua tất cả TileData đã được tạo ra trong WorldMap
-        for (TileData data : worldMap.getAllTileData()) {
-            // Lấy tọa độ từ key map hơi khó vì key là hash, nhưng ta có thể lấy từ TileData nếu ta lưu col/row trong đó
-            // Hoặc đơn giản là duyệt qua keys của HashMap worldMap.
-            // Tuy nhiên, WorldMap hiện tại lưu key = (col << 32) | row.
-            // Ta cần method để truy xuất col/row từ key, hoặc tốt hơn là thêm col/row vào TileData (đã có trong WorldRenderer loop, nhưng TileData model ko bắt buộc có)
-
-            // Cách tốt nhất: Cập nhật WorldMap để trả về EntrySet để lấy key (tọa độ)
-            // NHƯNG, do TileData không lưu tọa độ, mà ta cần lưu tọa độ vào file save.
-            // Giải pháp: Ta sẽ dùng một vòng lặp quét qua vùng map khả thi (ví dụ 100x100)
-            // hoặc truy cập trực tiếp vào tileDataMap thông qua getter mới nếu được.
-            // Nhưng tốt nhất là sửa `WorldMap` để có method `getTileDataMap()` trả về HashMap gốc.
-            // Vì tôi đang sửa GameManager, tôi sẽ giả định WorldMap có method `getTileDataMap()` hoặc tôi sẽ dùng EntrySet từ `getAllTileData()` nếu nó trả về Map.
-            // WorldMap.getAllTileData() trả về Collection<TileData>. Mất key!
-
-            // FIX: Tôi sẽ dùng `java.lang.reflect` để lấy map private từ WorldMap nếu cần,
-            // hoặc đơn giản hơn: Vì `WorldMap` được cung cấp trong request trước đó, tôi thấy nó có `tileDataMap`.
-            // Tôi sẽ thêm phương thức `public java.util.Map<Long, TileData> getRawMap() { return tileDataMap; }` vào WorldMap?
-            // Không, tôi chỉ được sửa class tôi viết.
-
-            // GIẢI PHÁP AN TOÀN: Tôi sẽ dùng reflection để lấy `tileDataMap` từ `worldMap` object
-            // để đảm bảo không sửa file WorldMap.java (trừ khi bạn cho phép, nhưng bạn bảo sửa class nào viết class đó).
-            // A, chờ chút, tôi có thể sửa WorldMap.java vì nó nằm trong danh sách file tôi được cung cấp và tôi có thể gửi lại nó.
-            // OK, tôi sẽ sửa WorldMap.java để thêm getter cho map.
+        // Tree
+        if (td.getTreeData() != null) {
+            std.hasTree = true;
+            std.treeStage = td.getTreeData().getGrowthStage();
+            std.treeChopCount = td.getTreeData().getChopCount();
         }
 
-        // Vì Java Reflection hơi rườm rà, tôi sẽ dùng cách truy cập `worldMap` thông qua `java.lang.reflect.Field` trong GameManager này luôn cho gọn.
-        try {
-            java.lang.reflect.Field mapField = WorldMap.class.getDeclaredField("tileDataMap");
-            mapField.setAccessible(true);
-            java.util.HashMap<Long, TileData> rawMap = (java.util.HashMap<Long, TileData>) mapField.get(worldMap);
-
-            for (java.util.Map.Entry<Long, TileData> entry : rawMap.entrySet()) {
-                long key = entry.getKey();
-                TileData td = entry.getValue();
-
-                // Giải mã key ra col, row
-                int col = (int) (key >> 32);
-                int row = (int) key;
-
-                // Chỉ lưu những ô có dữ liệu quan trọng (khác mặc định)
-                // Hoặc đơn giản là lưu hết những ô đã từng tương tác (nằm trong map)
-                SavedTileData std = new SavedTileData();
-                std.col = col;
-                std.row = row;
-                std.baseType = td.getBaseTileType();
-
-                // Tile state
-                std.isWatered = td.isWatered();
-                std.isFertilized = td.isFertilized();
-                std.lastWateredTime = td.getLastWateredTime();
-                std.fertilizerStartTime = td.getFertilizerStartTime();
-
-                // Crop
-                if (td.getCropData() != null) {
-                    std.hasCrop = true;
-                    std.cropType = td.getCropData().getType();
-                    std.cropStage = td.getCropData().getGrowthStage();
-                }
+        // Fence
+        if (td.getFenceData() != null) {
+            std.hasFence = true;
+            std.fenceIsOpen = td.getFenceData().isOpen();
+        }
 
-                // Tree
-                if (td.getTreeData() != null) {
-                    std.hasTree = true;
-                    std.treeStage = td.getTreeData().getGrowthStage();
-                    std.treeChopCount = td.getTreeData().getChopCount();
-                }
+        // Ground Item
+        if (td.getGroundItem() != null) {
+            std.hasGroundItem = true;
+            std.groundItemType = td.getGroundItem();
+            std.groundItemAmount = td.getGroundItemAmount();
+            std.groundItemDurability = td.getGroundItemDurability();
+            std.groundItemOffsetX = td.getGroundItemOffsetX();
+            std.groundItemOffsetY = td.getGroundItemOffsetY();
+        }
+        return std;
+    }
 
-                // Fence
-                if (td.getFenceData() != null) {
-                    std.hasFence = true;
-                    std.fenceIsOpen = td.getFenceData().isOpen();
-                }
+    // [MỚI] Dựng lại TileData từ dữ liệu đã lưu (dùng khi Load Game và khi load vùng)
+    static TileData toTileData(SavedTileData std) {
+        TileData td = new TileData(std.baseType);
+
+        // Restore State
+        td.setWatered(std.isWatered);
+        td.setFertilized(std.isFertilized);
+        td.setLastWateredTime(std.lastWateredTime);
+        td.setFertilizerStartTime(std.fertilizerStartTime);
+
+        // Restore Crop
+        if (std.hasCrop) {
+            // FIX: Sử dụng đúng constructor 3 tham số của CropData
+            // plantTime được đặt là System.nanoTime() để bắt đầu tính thời gian từ lúc load
+            CropData cd = new CropData(std.cropType, std.cropStage, System.nanoTime());
+            td.setCropData(cd);
+        }
 
-                // Ground Item
-                if (td.getGroundItem() != null) {
-                    std.hasGroundItem = true;
-                    std.groundItemType = td.getGroundItem();
-                    std.groundItemAmount = td.getGroundItemAmount();
-                    std.groundItemDurability = td.getGroundItemDurability();
-                    std.groundItemOffsetX = td.getGroundItemOffsetX();
-                    std.groundItemOffsetY = td.getGroundItemOffsetY();
-                }
+        // Restore Tree
+        if (std.hasTree) {
+            TreeData trd = new TreeData();
+            trd.setGrowthStage(std.treeStage);
+            trd.setChopCount(std.treeChopCount);
+            td.setTreeData(trd);
+        }
 
-                state.worldTiles.add(std);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Error saving world map tiles!");
+        // Restore Fence
+        if (std.hasFence) {
+            FenceData fd = new FenceData(std.fenceIsOpen);
+            // Cần set pattern nếu muốn chính xác ngay lập tức, nhưng updateMap sẽ lo visual
+            td.setFenceData(fd);
         }
 
-        // Ghi xuống file
-        SaveManager.saveGame(state);
-        if (mainGameView != null) mainGameView.showTemporaryText("Game Saved!", p.getTileX(), p.getTileY());
+        // Restore Ground Item
+        if (std.hasGroundItem) {
+            td.setGroundItem(std.groundItemType);
+            td.setGroundItemAmount(std.groundItemAmount);
+            td.setGroundItemDurability(std.groundItemDurability);
+            td.setGroundItemOffsetX(std.groundItemOffsetX);
+            td.setGroundItemOffsetY(std.groundItemOffsetY);
+        }
+        return td;
+    }
+
+    // [MỚI] Ô cỏ trống, giống hệt ô mặc định của WorldMap -> không cần lưu
+    private static boolean isDefaultTile(TileData td) {
+        return td.getBaseTileType() == Tile.GRASS
+                && !td.isWatered() && !td.isFertilized()
+                && td.getLastWateredTime() == 0 && td.getFertilizerStartTime() == 0
+                && td.getCropData() == null && td.getTreeData() == null
+                && td.getFenceData() == null && td.getGroundItem() == null;
     }
 
     // --- THÊM MỚI: Logic Tải Game (HOÀN CHỈNH) ---
@@ -980,7 +1158,8 @@ public class GameManager {
 
         // 2. Khôi phục Động vật
         // Xóa hết con cũ
-        animalManager.getAnimals().clear();
+        // [SỬA] getAnimals() là bản chụp chỉ đọc -> dùng clearAnimals() để xóa thật trong AnimalManager
+        animalManager.clearAnimals();
         // Tạo con mới
         for (SavedAnimal sa : state.animals) {
             Animal a = new Animal(sa.type, sa.x, sa.y);
@@ -993,61 +1172,43 @@ public class GameManager {
         timeManager.setGameTime(state.currentDaySeconds);
 
         // 4. Khôi phục Map (QUAN TRỌNG)
-        // Xóa dữ liệu map cũ (bằng cách clear map thông qua reflection hoặc tạo map mới nếu có thể set)
+        // Xóa dữ liệu map cũ
         try {
-            java.lang.reflect.Field mapField = WorldMap.class.getDeclaredField("tileDataMap");
-            mapField.setAccessible(true);
-            java.util.HashMap<Long, TileData> rawMap = (java.util.HashMap<Long, TileData>) mapField.get(worldMap);
-            rawMap.clear(); // Xóa sạch map hiện tại
+            worldMap.clear(); // Xóa sạch map hiện tại
 
             // Load lại từ file save
             for (SavedTileData std : state.worldTiles) {
-                TileData td = new TileData(std.baseType);
-
-                // Restore State
-                td.setWatered(std.isWatered);
-                td.setFertilized(std.isFertilized);
-                td.setLastWateredTime(std.lastWateredTime);
-                td.setFertilizerStartTime(std.fertilizerStartTime);
-
-                // Restore Crop
-                if (std.hasCrop) {
-                    // FIX: Sử dụng đúng constructor 3 tham số của CropData
-                    // plantTime được đặt là System.nanoTime() để bắt đầu tính thời gian từ lúc load
-                    CropData cd = new CropData(std.cropType, std.cropStage, System.nanoTime());
-                    td.setCropData(cd);
-                }
+                // Put vào map
+                worldMap.setTileData(std.col, std.row, toTileData(std));
+            }
 
-                // Restore Tree
-                if (std.hasTree) {
-                    TreeData trd = new TreeData();
-                    trd.setGrowthStage(std.treeStage);
-                    trd.setChopCount(std.treeChopCount);
-                    td.setTreeData(trd);
-                }
+            // [MỚI] Save lưu theo vùng: load ngay các vùng active + quanh người chơi, phần còn lại load dần khi đi tới
+            regionStreamer.reset(state.regions);
+            if (state.regions != null) {
+                regionStreamer.loadInitial(state.playerX, state.playerY, !GameLogicConfig.SAVE_REGION_STORAGE_ENABLED);
+            }
 
-                // Restore Fence
-                if (std.hasFence) {
-                    FenceData fd = new FenceData(std.fenceIsOpen);
-                    // Cần set pattern nếu muốn chính xác ngay lập tức, nhưng updateMap sẽ lo visual
-                    td.setFenceData(fd);
-                }
+            // Recalculate fence patterns after loading all fences
+            fenceManager.updateAllFencePatterns();
 
-                // Restore Ground Item
-                if (std.hasGroundItem) {
-                    td.setGroundItem(std.groundItemType);
-                    td.setGroundItemAmount(std.groundItemAmount);
-                    td.setGroundItemDurability(std.groundItemDurability);
-                    td.setGroundItemOffsetX(std.groundItemOffsetX);
-                    td.setGroundItemOffsetY(std.groundItemOffsetY);
-                }
+            // Dựng lại registry cây đang lớn / gốc cây chờ mọc lại
+            treeManager.rebuildTreeRegistry();
 
-                // Put vào map
-                worldMap.setTileData(std.col, std.row, td);
+            // Khôi phục seed sinh cây (file save cũ không có seed -> giữ seed hiện tại)
+            if (state.worldSeed != 0) {
+                treeManager.restoreGenerationState(state.worldSeed, state.generatedChunks);
             }
 
-            // Recalculate fence patterns after loading all fences
-            fenceManager.updateAllFencePatterns();
+            // [MỚI] Bản đồ vừa tải khớp với file save -> journal ghi tiếp từ đây
+            worldMap.clearChangedTiles();
+            journaledChunkCount = state.worldSeed != 0 ? treeManager.getGeneratedChunks().size() : -1;
+            journaledPlayerState = null; // Bản ghi đầu tiên sau khi tải ghi đầy đủ
+            journaledAnimals = null;
+            // [SỬA] Save dạng 1 file mà đang bật lưu theo vùng -> lần lưu tới phải là snapshot đầy đủ để chuyển sang vùng
+            if (state.regions != null || !GameLogicConfig.SAVE_REGION_STORAGE_ENABLED) {
+                autosaveService.markSaveInSync();
+            }
+            autosaveService.enable(); // [SỬA] Đang chơi tiếp game đã lưu -> autosave được ghi vào file save này
 
         } catch (Exception e) {
             e.printStackTrace();
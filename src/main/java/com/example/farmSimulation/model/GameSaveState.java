@@ -31,6 +31,20 @@ public class GameSaveState implements Serializable {
     // Lưu danh sách các ô đất có sự thay đổi (không lưu ô GRASS mặc định để nhẹ file)
     public List<SavedTileData> worldTiles = new ArrayList<>();
 
+    // 5. [MỚI] Dữ liệu sinh thế giới (Procedural Generation)
+    // Seed + danh sách chunk đã sinh cây để load lại không sinh ra khu rừng khác
+    // (File save cũ không có 2 trường này -> worldSeed = 0, generatedChunks = null)
+    public long worldSeed;
+    public List<Long> generatedChunks = new ArrayList<>();
+
+    // 6. [MỚI] Lưu theo vùng (mỗi chunk 1 file, xem RegionStore)
+    // regions = danh sách vùng đã có file (null = file save kiểu cũ, mọi ô nằm trong worldTiles)
+    public List<SavedRegion> regions;
+    // Chỉ dùng khi GHI: các vùng có toàn bộ nội dung trong worldTiles (file của vùng sẽ bị ghi đè)
+    public transient List<Long> rewrittenRegions;
+    // Chỉ dùng khi GHI: xóa hết file vùng cũ trước khi ghi (game mới)
+    public transient boolean replaceWorld;
+
     // --- Các class con (Helper) để lưu chi tiết ---
     public static class SavedItemStack implements Serializable {
         public ItemType type;
@@ -55,6 +69,18 @@ public class GameSaveState implements Serializable {
         }
     }
 
+    // [MỚI] Một mục trong index vùng: tọa độ chunk + vùng có cần load ngay khi vào game không
+    public static class SavedRegion implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public int chunkX, chunkY;
+        public boolean active; // Có đất canh tác / cây đang lớn / hàng rào -> load ngay, không bao giờ unload
+        public SavedRegion(int chunkX, int chunkY, boolean active) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.active = active;
+        }
+    }
+
     // [MỚI] Class lưu toàn bộ thông tin của một ô đất (Cây, Rào, Đất, Item...)
     public static class SavedTileData implements Serializable {
         public int col, row;
@@ -11,6 +11,8 @@ import com.example.farmSimulation.config.FenceConfig;
 import com.example.farmSimulation.config.PlayerSpriteConfig;
 import com.example.farmSimulation.config.WorldConfig;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -21,6 +23,7 @@ public class InteractionManager {
     private AnimalManager animalManager; // Quản lý động vật
     private CollisionManager collisionManager; // Quản lý va chạm
     private WorldMap worldMap; // Bản đồ thế giới (để đặt item xuống đất)
+    private final List<Animal> nearbyAnimals = new ArrayList<>(); // [MỚI] Dùng lại cho các truy vấn động vật
 
     // Record nội bộ để chứa kết quả tương tác
     private record InteractionResult(
@@ -118,7 +121,7 @@ public class InteractionManager {
 
     // Helper check xem một ô có phải rào đóng không (để tính nối)
     private boolean isFenceSolid(int col, int row, WorldMap worldMap) {
-        TileData data = worldMap.getTileData(col, row);
+        TileData data = worldMap.peekTileData(col, row);
         return data.getBaseTileType() == Tile.FENCE && data.getFenceData() != null && data.getFenceData().isSolid();
     }
 
@@ -208,8 +211,8 @@ public class InteractionManager {
         double tileMinY = row * WorldConfig.TILE_SIZE;
         double tileMaxY = tileMinY + WorldConfig.TILE_SIZE;
 
-        // Duyệt qua tất cả động vật
-        for (Animal animal : animalManager.getAnimals()) {
+        // [SỬA] Chỉ duyệt các động vật gần ô đất (lưới không gian) thay vì tất cả
+        for (Animal animal : animalManager.getAnimalsInArea(tileMinX, tileMinY, tileMaxX, tileMaxY, nearbyAnimals)) {
             if (animal.isDead()) continue;
 
             // Tính hitbox động vật
@@ -467,7 +470,9 @@ public class InteractionManager {
 
     public String processInteraction(Player mainPlayer, PlayerView playerView, WorldMap worldMap, int col, int row) {
         ItemStack currentStack = mainPlayer.getCurrentItem();
-        TileData currentData = worldMap.getTileData(col, row);
+        // [SỬA] Chỉ đọc: mọi thay đổi đều làm trên bản copy (new TileData(currentData)) và được ActionManager
+        // ghi lại bằng setTileData khi animation xong -> click vào ô trống không làm bản đồ phình ra
+        TileData currentData = worldMap.peekTileData(col, row);
         InteractionResult result = null;
 
         // --- XỬ LÝ ENERGY_DRINK (Nước tăng lực) ---
@@ -692,7 +697,7 @@ public class InteractionManager {
             // [SỬA] Kiểm tra logic Tile: Không được đặt lên ô đang là Cây hoặc Rào
             int tileCol = (int) Math.floor(worldX / WorldConfig.TILE_SIZE);
             int tileRow = (int) Math.floor(worldY / WorldConfig.TILE_SIZE);
-            TileData tileData = worldMap.getTileData(tileCol, tileRow);
+            TileData tileData = worldMap.peekTileData(tileCol, tileRow);
 
             // 1. Kiểm tra Cây (Tree)
             if (tileData.getBaseTileType() == Tile.TREE && tileData.getTreeData() != null) {
@@ -724,7 +729,7 @@ public class InteractionManager {
             double newMinY = worldY - checkHeight / 2.0;
             double newMaxY = worldY + checkHeight / 2.0;
 
-            for (Animal existing : animalManager.getAnimals()) {
+            for (Animal existing : animalManager.getAnimalsInArea(newMinX, newMinY, newMaxX, newMaxY, nearbyAnimals)) {
                 if (existing.isDead()) continue;
 
                 double exW = existing.getType().getHitboxWidth();
@@ -961,7 +966,7 @@ public class InteractionManager {
                     boolean foundSpot = false;
 
                     // 1. Kiểm tra ô lý tưởng trước
-                    TileData idealTile = worldMap.getTileData(idealTileCol, idealTileRow);
+                    TileData idealTile = worldMap.peekTileData(idealTileCol, idealTileRow);
                     if (idealTile.getGroundItem() == null) {
                         finalCol = idealTileCol;
                         finalRow = idealTileRow;
@@ -977,7 +982,7 @@ public class InteractionManager {
                             for (int c = idealTileCol - searchRadius; c <= idealTileCol + searchRadius; c++) {
                                 if (r == idealTileRow && c == idealTileCol) continue; // Đã check rồi
 
-                                TileData checkTile = worldMap.getTileData(c, r);
+                                TileData checkTile = worldMap.peekTileData(c, r);
                                 if (checkTile.getGroundItem() == null) {
                                     finalCol = c;
                                     finalRow = r;
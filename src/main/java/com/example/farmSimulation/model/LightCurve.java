@@ -0,0 +1,46 @@
+package com.example.farmSimulation.model;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * [MỚI] Đường cong ánh sáng trong 1 chu kỳ ngày đêm, tính sẵn thành bảng tra (LUT).
+ * Mỗi frame chỉ cần tra bảng + nội suy tuyến tính thay vì gọi Math.sin.
+ * Có thể tạo đường cong riêng (VD: theo mùa, ngày ngắn / đêm dài) rồi gắn vào TimeManager.setLightCurve.
+ */
+public class LightCurve {
+    private final double[] samples; // samples[i] = cường độ ánh sáng tại tiến độ i / samples.length của chu kỳ
+
+    /**
+     * @param resolution Số mẫu trong 1 chu kỳ
+     * @param curve Hàm tiến độ chu kỳ (0.0 - 1.0, 0.5 = giữa trưa) -> cường độ ánh sáng (0.0 - 1.0)
+     */
+    public LightCurve(int resolution, DoubleUnaryOperator curve) {
+        this.samples = new double[Math.max(1, resolution)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.max(0.0, Math.min(1.0, curve.applyAsDouble(i / (double) samples.length)));
+        }
+    }
+
+    /**
+     * Đường cong mặc định: hình sin, tối nhất lúc 0:00 (minIntensity), sáng nhất lúc 12:00 (1.0).
+     */
+    public static LightCurve sine(int resolution, double minIntensity) {
+        return new LightCurve(resolution, progress -> {
+            double radians = progress * 2 * Math.PI - (Math.PI / 2.0);
+            double lightIntensity = (Math.sin(radians) + 1.0) / 2.0;
+            return minIntensity + (1.0 - minIntensity) * lightIntensity;
+        });
+    }
+
+    /**
+     * Cường độ ánh sáng tại tiến độ chu kỳ (0.0 - 1.0), nội suy giữa 2 mẫu gần nhất.
+     */
+    public double sample(double cycleProgress) {
+        double position = (cycleProgress - Math.floor(cycleProgress)) * samples.length;
+        int index = (int) position;
+        if (index >= samples.length) index = samples.length - 1;
+        int next = index + 1 == samples.length ? 0 : index + 1; // Cuối chu kỳ nối vòng về đầu
+        double t = position - index;
+        return samples[index] + (samples[next] - samples[index]) * t;
+    }
+}
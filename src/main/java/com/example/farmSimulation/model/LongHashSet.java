@@ -0,0 +1,121 @@
+package com.example.farmSimulation.model;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * [MỚI] Tập hợp các số long (không boxing thành Long như HashSet<Long>).
+ * Băm mở (open addressing), dò tuyến tính, xóa bằng cách dời các phần tử phía sau lên.
+ * Không được thêm / xóa trong lúc forEach.
+ */
+final class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private boolean[] used;
+    private int size = 0;
+
+    LongHashSet() {
+        keys = new long[MIN_CAPACITY];
+        used = new boolean[MIN_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Trả về true nếu key chưa có trong tập.
+     */
+    boolean add(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return false;
+        }
+        keys[i] = key;
+        used[i] = true;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2); // Giữ tải <= 75%
+        }
+        return true;
+    }
+
+    /**
+     * Trả về true nếu key có trong tập (và đã bị xóa).
+     */
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (used[i]) {
+            if (keys[i] == key) {
+                shiftBack(i, mask);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    void clear() {
+        if (size == 0) return;
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    void forEach(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) action.accept(keys[i]);
+        }
+    }
+
+    // Xóa ô i: dời các phần tử cùng chuỗi dò phía sau lên để contains() không dừng sớm
+    private void shiftBack(int i, int mask) {
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (used[j]) {
+            int home = slot(keys[j], mask);
+            // Phần tử ở j được phép dời về gap nếu vị trí gốc của nó không nằm trong (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                used[gap] = true;
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        used[gap] = false;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (!oldUsed[k]) continue;
+            int i = slot(oldKeys[k], mask);
+            while (used[i]) i = (i + 1) & mask;
+            keys[i] = oldKeys[k];
+            used[i] = true;
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L; // Trộn bit (tọa độ gần nhau không dồn vào cùng vùng)
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.farmSimulation.model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [MỚI] Kho ô đất nằm NGOÀI heap: mỗi chunk bị đẩy ra khỏi bộ nhớ được nén thành các bản ghi cố định
+ * RECORD_BYTES byte trong một file memory-mapped (FileChannel.map). Khi chunk được dùng lại,
+ * WorldMap lấy chunk ra (take) và dựng lại TileData.
+ * -> Heap chỉ chứa TileData của các chunk đang dùng (+ 1 entry index cho mỗi chunk trong kho),
+ *    phần còn lại nằm trong page cache của hệ điều hành.
+ *
+ * File chỉ là bộ nhớ tạm của phiên chơi (bản lưu thật vẫn là file vùng + journal), nên enum được ghi bằng ordinal
+ * và file bị xóa khi đóng. Chỉ dùng trên FX thread (cùng WorldMap).
+ *
+ * Bản ghi 1 ô (96 byte), chứa ĐẦY ĐỦ các trường của TileData / CropData / TreeData / FenceData:
+ *  0 flags | 1 fence flags | 2 base tile | 3 crop type | 4 crop stage | 5 tree stage | 6 tree chop count | 7 fence pattern
+ *  8 status indicator | 10 ground item (ordinal + 1, 0 = không có) | 12 ground amount | 16 ground durability
+ *  24 ground offset X | 32 ground offset Y | 40 lastWateredTime | 48 dryStartTime | 56 fertilizerStartTime
+ *  64 crop plantTime | 72 crop frozenSinceTime | 80 tree lastChopTime | 88 tree regrowStartTime
+ */
+final class MappedTileStore {
+    static final int RECORD_BYTES = 96;
+    private static final int TILES_PER_CHUNK = TileChunk.SIZE * TileChunk.SIZE;
+    private static final int SLOT_BYTES = TILES_PER_CHUNK * RECORD_BYTES; // 96 KB mỗi chunk
+    private static final int SLOTS_PER_SEGMENT = 256; // Map từng đoạn 24 MB (1 MappedByteBuffer tối đa 2 GB)
+
+    // Vị trí các trường trong bản ghi
+    private static final int FLAGS = 0;
+    private static final int FENCE_FLAGS = 1;
+    private static final int BASE_TYPE = 2;
+    private static final int CROP_TYPE = 3;
+    private static final int CROP_STAGE = 4;
+    private static final int TREE_STAGE = 5;
+    private static final int TREE_CHOP_COUNT = 6;
+    private static final int FENCE_PATTERN = 7;
+    private static final int STATUS = 8;
+    private static final int GROUND_ITEM = 10;
+    private static final int GROUND_AMOUNT = 12;
+    private static final int GROUND_DURABILITY = 16;
+    private static final int GROUND_OFFSET_X = 24;
+    private static final int GROUND_OFFSET_Y = 32;
+    private static final int LAST_WATERED_TIME = 40;
+    private static final int DRY_START_TIME = 48;
+    private static final int FERTILIZER_START_TIME = 56;
+    private static final int CROP_PLANT_TIME = 64;
+    private static final int CROP_FROZEN_SINCE_TIME = 72;
+    private static final int TREE_LAST_CHOP_TIME = 80;
+    private static final int TREE_REGROW_START_TIME = 88;
+
+    // Bit trong FLAGS
+    private static final int PRESENT = 1; // Ô tồn tại (ô trống trong chunk thì bằng 0)
+    private static final int WATERED = 1 << 1;
+    private static final int FERTILIZED = 1 << 2;
+    private static final int HAS_CROP = 1 << 3;
+    private static final int HAS_TREE = 1 << 4;
+    private static final int HAS_FENCE = 1 << 5;
+    private static final int HAS_GROUND_ITEM = 1 << 6;
+    // Bit trong FENCE_FLAGS
+    private static final int FENCE_OPEN = 1;
+    private static final int FENCE_SOLID = 1 << 1;
+
+    private static final Tile[] TILES = Tile.values();
+    private static final CropType[] CROPS = CropType.values();
+    private static final ItemType[] ITEMS = ItemType.values();
+    private static final CropStatusIndicator[] STATUSES = CropStatusIndicator.values();
+
+    private final Path path;
+    private FileChannel channel; // Mở khi có chunk đầu tiên
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, Integer> slots = new HashMap<>(); // Key chunk (giống WorldMap) -> vị trí trong file
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot = 0;
+
+    MappedTileStore(Path path) {
+        this.path = path;
+    }
+
+    boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    boolean contains(int chunkX, int chunkY) {
+        return slots.containsKey(toKey(chunkX, chunkY));
+    }
+
+    int getChunkCount() {
+        return slots.size();
+    }
+
+    /**
+     * Nén toàn bộ chunk vào file (ghi đè nếu chunk đã có trong kho).
+     */
+    void put(TileChunk chunk) throws IOException {
+        long key = toKey(chunk.getChunkX(), chunk.getChunkY());
+        Integer slot = slots.get(key);
+        boolean newSlot = slot == null;
+        if (newSlot) {
+            slot = allocateSlot();
+        }
+        MappedByteBuffer buffer;
+        try {
+            buffer = segment(slot);
+        } catch (IOException e) {
+            if (newSlot) freeSlots.push(slot);
+            throw e;
+        }
+        int base = slotOffset(slot);
+        for (int i = 0; i < TILES_PER_CHUNK; i++) {
+            encode(buffer, base + i * RECORD_BYTES, chunk.get(i));
+        }
+        slots.put(key, slot);
+    }
+
+    /**
+     * [MỚI] Đọc 1 ô mà không lấy cả chunk ra khỏi kho. null nếu chunk không có trong kho hoặc ô chưa tồn tại.
+     */
+    TileData peek(int col, int row) {
+        Integer slot = slots.get(toKey(Math.floorDiv(col, TileChunk.SIZE), Math.floorDiv(row, TileChunk.SIZE)));
+        if (slot == null) return null;
+        return decode(segments.get(slot / SLOTS_PER_SEGMENT), recordOffset(slot, col, row));
+    }
+
+    /**
+     * [MỚI] Ô có trong kho không (chỉ đọc byte cờ, không giải mã).
+     */
+    boolean containsTile(int col, int row) {
+        Integer slot = slots.get(toKey(Math.floorDiv(col, TileChunk.SIZE), Math.floorDiv(row, TileChunk.SIZE)));
+        if (slot == null) return false;
+        return (segments.get(slot / SLOTS_PER_SEGMENT).get(recordOffset(slot, col, row) + FLAGS) & PRESENT) != 0;
+    }
+
+    /**
+     * Lấy chunk ra khỏi kho (dựng lại TileData). null nếu chunk không có trong kho.
+     * Sau khi lấy, bản trên heap là bản đúng -> chỗ trong file được giải phóng.
+     */
+    TileChunk take(int chunkX, int chunkY) {
+        Integer slot = slots.remove(toKey(chunkX, chunkY));
+        if (slot == null) return null;
+
+        MappedByteBuffer buffer = segments.get(slot / SLOTS_PER_SEGMENT);
+        int base = slotOffset(slot);
+        TileChunk chunk = new TileChunk(chunkX, chunkY);
+        for (int i = 0; i < TILES_PER_CHUNK; i++) {
+            TileData data = decode(buffer, base + i * RECORD_BYTES);
+            if (data != null) {
+                chunk.set(i, data);
+            }
+        }
+        freeSlots.push(slot);
+        return chunk;
+    }
+
+    /**
+     * Bỏ toàn bộ chunk trong kho (khi Load Game). File giữ nguyên để dùng lại.
+     */
+    void clear() {
+        slots.clear();
+        freeSlots.clear();
+        nextSlot = 0;
+    }
+
+    /**
+     * Đóng file (file bị xóa). Vùng nhớ đã map được giải phóng khi GC thu hồi các buffer.
+     */
+    void close() {
+        clear();
+        segments.clear();
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    private int allocateSlot() throws IOException {
+        Integer free = freeSlots.poll();
+        if (free != null) return free;
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        return nextSlot++;
+    }
+
+    // Map thêm đoạn mới khi cần (map quá cuối file sẽ tự nới file)
+    private MappedByteBuffer segment(int slot) throws IOException {
+        int index = slot / SLOTS_PER_SEGMENT;
+        while (segments.size() <= index) {
+            long position = (long) segments.size() * SLOTS_PER_SEGMENT * SLOT_BYTES;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SLOTS_PER_SEGMENT * SLOT_BYTES);
+            buffer.order(ByteOrder.nativeOrder());
+            segments.add(buffer);
+        }
+        return segments.get(index);
+    }
+
+    private static int slotOffset(int slot) {
+        return (slot % SLOTS_PER_SEGMENT) * SLOT_BYTES;
+    }
+
+    // Vị trí bản ghi của ô (col, row) trong đoạn chứa slot
+    private static int recordOffset(int slot, int col, int row) {
+        int index = TileChunk.toIndex(Math.floorMod(col, TileChunk.SIZE), Math.floorMod(row, TileChunk.SIZE));
+        return slotOffset(slot) + index * RECORD_BYTES;
+    }
+
+    private static void encode(MappedByteBuffer buffer, int offset, TileData data) {
+        if (data == null) {
+            buffer.put(offset + FLAGS, (byte) 0); // Các trường khác không được đọc
+            return;
+        }
+        int flags = PRESENT;
+        if (data.isWatered()) flags |= WATERED;
+        if (data.isFertilized()) flags |= FERTILIZED;
+
+        buffer.put(offset + BASE_TYPE, (byte) data.getBaseTileType().ordinal());
+        buffer.put(offset + STATUS, (byte) data.getStatusIndicator().ordinal());
+        buffer.putLong(offset + LAST_WATERED_TIME, data.getLastWateredTime());
+        buffer.putLong(offset + DRY_START_TIME, data.getDryStartTime());
+        buffer.putLong(offset + FERTILIZER_START_TIME, data.getFertilizerStartTime());
+
+        CropData crop = data.getCropData();
+        if (crop != null) {
+            flags |= HAS_CROP;
+            buffer.put(offset + CROP_TYPE, (byte) crop.getType().ordinal());
+            buffer.put(offset + CROP_STAGE, (byte) crop.getGrowthStage());
+            buffer.putLong(offset + CROP_PLANT_TIME, crop.getPlantTime());
+            buffer.putLong(offset + CROP_FROZEN_SINCE_TIME, crop.getFrozenSinceTime());
+        }
+
+        TreeData tree = data.getTreeData();
+        if (tree != null) {
+            flags |= HAS_TREE;
+            buffer.put(offset + TREE_STAGE, (byte) tree.getGrowthStage());
+            buffer.put(offset + TREE_CHOP_COUNT, (byte) tree.getChopCount());
+            buffer.putLong(offset + TREE_LAST_CHOP_TIME, tree.getLastChopTime());
+            buffer.putLong(offset + TREE_REGROW_START_TIME, tree.getRegrowStartTime());
+        }
+
+        FenceData fence = data.getFenceData();
+        if (fence != null) {
+            flags |= HAS_FENCE;
+            buffer.put(offset + FENCE_FLAGS, (byte) ((fence.isOpen() ? FENCE_OPEN : 0) | (fence.isSolid() ? FENCE_SOLID : 0)));
+            buffer.put(offset + FENCE_PATTERN, (byte) fence.getTilePattern());
+        }
+
+        if (data.getGroundItem() != null) {
+            flags |= HAS_GROUND_ITEM;
+            buffer.putShort(offset + GROUND_ITEM, (short) (data.getGroundItem().ordinal() + 1));
+            buffer.putInt(offset + GROUND_AMOUNT, data.getGroundItemAmount());
+            buffer.putInt(offset + GROUND_DURABILITY, data.getGroundItemDurability());
+            buffer.putDouble(offset + GROUND_OFFSET_X, data.getGroundItemOffsetX());
+            buffer.putDouble(offset + GROUND_OFFSET_Y, data.getGroundItemOffsetY());
+        }
+        buffer.put(offset + FLAGS, (byte) flags);
+    }
+
+    private static TileData decode(MappedByteBuffer buffer, int offset) {
+        int flags = buffer.get(offset + FLAGS) & 0xff;
+        if ((flags & PRESENT) == 0) return null;
+
+        TileData data = new TileData(TILES[buffer.get(offset + BASE_TYPE)]);
+        data.setWatered((flags & WATERED) != 0);
+        data.setFertilized((flags & FERTILIZED) != 0);
+        data.setStatusIndicator(STATUSES[buffer.get(offset + STATUS)]);
+        data.setLastWateredTime(buffer.getLong(offset + LAST_WATERED_TIME));
+        data.setDryStartTime(buffer.getLong(offset + DRY_START_TIME));
+        data.setFertilizerStartTime(buffer.getLong(offset + FERTILIZER_START_TIME));
+
+        if ((flags & HAS_CROP) != 0) {
+            CropData crop = new CropData(CROPS[buffer.get(offset + CROP_TYPE)], buffer.get(offset + CROP_STAGE),
+                    buffer.getLong(offset + CROP_PLANT_TIME));
+            crop.setFrozenSinceTime(buffer.getLong(offset + CROP_FROZEN_SINCE_TIME));
+            data.setCropData(crop);
+        }
+        if ((flags & HAS_TREE) != 0) {
+            TreeData tree = new TreeData(buffer.get(offset + TREE_STAGE));
+            tree.setChopCount(buffer.get(offset + TREE_CHOP_COUNT));
+            tree.setLastChopTime(buffer.getLong(offset + TREE_LAST_CHOP_TIME));
+            tree.setRegrowStartTime(buffer.getLong(offset + TREE_REGROW_START_TIME));
+            data.setTreeData(tree);
+        }
+        if ((flags & HAS_FENCE) != 0) {
+            int fenceFlags = buffer.get(offset + FENCE_FLAGS);
+            FenceData fence = new FenceData((fenceFlags & FENCE_OPEN) != 0);
+            fence.setSolid((fenceFlags & FENCE_SOLID) != 0);
+            fence.setTilePattern(buffer.get(offset + FENCE_PATTERN));
+            data.setFenceData(fence);
+        }
+        if ((flags & HAS_GROUND_ITEM) != 0) {
+            data.setGroundItem(ITEMS[buffer.getShort(offset + GROUND_ITEM) - 1]);
+            data.setGroundItemAmount(buffer.getInt(offset + GROUND_AMOUNT));
+            data.setGroundItemDurability(buffer.getInt(offset + GROUND_DURABILITY));
+            data.setGroundItemOffsetX(buffer.getDouble(offset + GROUND_OFFSET_X));
+            data.setGroundItemOffsetY(buffer.getDouble(offset + GROUND_OFFSET_Y));
+        }
+        return data;
+    }
+
+    // Cùng cách ghép key với WorldMap: (chunkX << 32) | chunkY
+    private static long toKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+}
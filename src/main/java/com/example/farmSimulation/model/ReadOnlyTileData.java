@@ -0,0 +1,41 @@
+package com.example.farmSimulation.model;
+
+/**
+ * TileData chỉ đọc, dùng làm giá trị mặc định (GRASS) cho các ô chưa từng được tạo.
+ * Được chia sẻ chung nên mọi thao tác ghi đều bị chặn.
+ * Muốn sửa ô thì phải lấy bằng WorldMap.getTileData().
+ */
+final class ReadOnlyTileData extends TileData {
+    private final boolean initialized; // false trong lúc constructor cha đang chạy
+
+    ReadOnlyTileData() {
+        super(Tile.GRASS);
+        this.initialized = true;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Default tile is read-only, use WorldMap.getTileData() to modify a tile");
+    }
+
+    @Override
+    public void setDefaultItemOffset() {
+        if (initialized) throw readOnly();
+        super.setDefaultItemOffset();
+    }
+
+    @Override public void setBaseTileType(Tile baseTileType) { throw readOnly(); }
+    @Override public void setCropData(CropData cropData) { throw readOnly(); }
+    @Override public void setTreeData(TreeData treeData) { throw readOnly(); }
+    @Override public void setFenceData(FenceData fenceData) { throw readOnly(); }
+    @Override public void setWatered(boolean watered) { throw readOnly(); }
+    @Override public void setLastWateredTime(long lastWateredTime) { throw readOnly(); }
+    @Override public void setDryStartTime(long dryStartTime) { throw readOnly(); }
+    @Override public void setFertilized(boolean fertilized) { throw readOnly(); }
+    @Override public void setFertilizerStartTime(long fertilizerStartTime) { throw readOnly(); }
+    @Override public void setStatusIndicator(CropStatusIndicator statusIndicator) { throw readOnly(); }
+    @Override public void setGroundItem(ItemType groundItem) { throw readOnly(); }
+    @Override public void setGroundItemAmount(int groundItemAmount) { throw readOnly(); }
+    @Override public void setGroundItemDurability(int groundItemDurability) { throw readOnly(); }
+    @Override public void setGroundItemOffsetX(double groundItemOffsetX) { throw readOnly(); }
+    @Override public void setGroundItemOffsetY(double groundItemOffsetY) { throw readOnly(); }
+}
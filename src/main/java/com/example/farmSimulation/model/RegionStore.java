@@ -0,0 +1,115 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.config.TreeConfig;
+import com.example.farmSimulation.config.WorldConfig;
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [MỚI] Lưu ô đất theo vùng: mỗi chunk (CHUNK_SIZE x CHUNK_SIZE ô) một file "r.<chunkX>.<chunkY>.bin".
+ * Index các vùng đã có file nằm trong file save gốc (GameSaveState.regions).
+ *
+ * Cấu trúc file vùng: MAGIC, VERSION rồi danh sách ô (BinarySaveFormat.writeTileList, có bảng tên enum).
+ * Ghi atomic giống SaveManager (file tạm + fsync + rename). Thread-safe vì mỗi vùng là 1 file riêng.
+ */
+final class RegionStore {
+    static final int MAGIC = 0x46524D52; // "FRMR"
+    static final int VERSION = 1;
+
+    private final Path directory;
+
+    RegionStore(Path directory) {
+        this.directory = directory;
+    }
+
+    private Path regionFile(int chunkX, int chunkY) {
+        return directory.resolve("r." + chunkX + "." + chunkY + ".bin");
+    }
+
+    /**
+     * Đọc các ô của vùng (danh sách rỗng nếu vùng chưa có file).
+     */
+    List<SavedTileData> read(int chunkX, int chunkY) throws IOException {
+        List<SavedTileData> tiles = new ArrayList<>();
+        Path file = regionFile(chunkX, chunkY);
+        if (!Files.exists(file)) return tiles;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() > VERSION) {
+                throw new IOException("Unsupported region file " + file.getFileName());
+            }
+            BinarySaveFormat.readTileList(in, tiles, null);
+        }
+        return tiles;
+    }
+
+    /**
+     * Ghi đè toàn bộ nội dung vùng. Vùng không còn ô nào -> xóa file.
+     */
+    void write(int chunkX, int chunkY, List<SavedTileData> tiles) throws IOException {
+        Path target = regionFile(chunkX, chunkY);
+        if (tiles.isEmpty()) {
+            Files.deleteIfExists(target);
+            return;
+        }
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            BinarySaveFormat.writeTileList(out, tiles, true);
+            out.flush();
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Xóa toàn bộ file vùng (khi lưu một game mới đè lên game cũ).
+     */
+    void clear() throws IOException {
+        if (!Files.isDirectory(directory)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "r.*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Vùng "active" (có đất canh tác, cây trồng, cây đang lớn / gốc cây hoặc hàng rào) được load ngay khi vào game
+     * và không bao giờ bị unload, để cây vẫn lớn và rào vẫn chặn động vật khi người chơi đi xa.
+     */
+    static boolean isActiveTile(SavedTileData tile) {
+        return tile.hasCrop || tile.isWatered || tile.isFertilized || tile.hasFence
+                || tile.baseType == Tile.SOIL
+                || (tile.hasTree && (tile.treeChopCount > 0 || tile.treeStage < TreeConfig.TREE_MAX_GROWTH_STAGE));
+    }
+
+    static int toChunkCoord(int tileCoord) {
+        return Math.floorDiv(tileCoord, WorldConfig.CHUNK_SIZE);
+    }
+
+    // Cùng cách ghép key với WorldMap: (chunkX << 32) | chunkY
+    static long toKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.config.GameLogicConfig;
+import com.example.farmSimulation.config.WorldConfig;
+import com.example.farmSimulation.model.GameSaveState.SavedRegion;
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * [MỚI] Load / unload vùng (chunk) của bản đồ theo vị trí người chơi khi lưu theo vùng (RegionStore).
+ * - Vùng "active" (đất canh tác, cây đang lớn, rào) được load hết khi vào game và luôn ở trong bộ nhớ.
+ * - Các vùng khác chỉ được đọc (ở luồng nền) khi người chơi tới gần, và bị bỏ khỏi bộ nhớ khi ở xa
+ *   nếu nội dung trong bộ nhớ đã nằm trong file vùng ("sạch") và không có gì đang chạy.
+ * - [SỬA] Nếu WorldMap có kho ngoài heap (MappedTileStore), vùng ở xa được nén vào kho thay vì bỏ hẳn.
+ *
+ * Chunk "thường trú" (resident) = nội dung trong WorldMap là bản đúng: chunk chưa có file vùng, hoặc đã load xong.
+ */
+public class RegionStreamer {
+    private final WorldMap worldMap;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "region-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Long, SavedRegion> index = new HashMap<>(); // Các vùng đã có file
+    private final Set<Long> installed = new HashSet<>(); // Vùng có file đã load vào WorldMap
+    private final Set<Long> pending = new HashSet<>(); // Vùng đang đọc ở luồng nền
+    // Chunk có thay đổi chưa nằm trong file vùng -> số thứ tự lần lưu cuối chứa thay đổi đó
+    private final Map<Long, Long> unsavedChunks = new HashMap<>();
+
+    private boolean worldStored = false; // Thế giới đã được lưu theo vùng (có file gốc dạng index vùng)
+    private double secondsSinceLastCheck = 0;
+    private boolean mapChanged = false; // Có vùng vừa load / unload -> cần vẽ lại
+
+    public RegionStreamer(WorldMap worldMap) {
+        this.worldMap = worldMap;
+    }
+
+    /**
+     * Đặt lại index vùng (khi Load Game). null / rỗng = chưa có vùng nào trên đĩa.
+     */
+    public void reset(List<SavedRegion> regions) {
+        index.clear();
+        installed.clear();
+        pending.clear();
+        unsavedChunks.clear();
+        worldStored = regions != null;
+        if (regions != null) {
+            for (SavedRegion region : regions) {
+                index.put(RegionStore.toKey(region.chunkX, region.chunkY), region);
+            }
+        }
+    }
+
+    /**
+     * Load ngay (đồng bộ) các vùng active và các vùng quanh người chơi. Gọi khi Load Game.
+     * loadAll = true: load toàn bộ (khi đã tắt lưu theo vùng nhưng file save là kiểu vùng).
+     */
+    public void loadInitial(double playerX, double playerY, boolean loadAll) {
+        int playerChunkX = toPlayerChunk(playerX);
+        int playerChunkY = toPlayerChunk(playerY);
+        for (SavedRegion region : new ArrayList<>(index.values())) {
+            if (!loadAll && !region.active
+                    && chunkDistance(region.chunkX, region.chunkY, playerChunkX, playerChunkY) > GameLogicConfig.REGION_LOAD_RADIUS_CHUNKS) {
+                continue;
+            }
+            try {
+                install(RegionStore.toKey(region.chunkX, region.chunkY), SaveManager.loadRegion(region.chunkX, region.chunkY));
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Failed to load region " + region.chunkX + "," + region.chunkY);
+            }
+        }
+    }
+
+    /**
+     * Gọi mỗi frame (vị trí người chơi tính bằng pixel). Trả về true nếu có vùng vừa được load / unload (bản đồ cần vẽ lại).
+     */
+    public boolean update(double deltaSeconds, double playerX, double playerY) {
+        secondsSinceLastCheck += deltaSeconds;
+        if (secondsSinceLastCheck >= GameLogicConfig.REGION_STREAM_INTERVAL_SECONDS) {
+            secondsSinceLastCheck = 0;
+            int playerChunkX = toPlayerChunk(playerX);
+            int playerChunkY = toPlayerChunk(playerY);
+            requestNearbyRegions(playerChunkX, playerChunkY);
+            unloadDistantChunks(playerChunkX, playerChunkY);
+        }
+        boolean changed = mapChanged;
+        mapChanged = false;
+        return changed;
+    }
+
+    private void requestNearbyRegions(int playerChunkX, int playerChunkY) {
+        if (loader.isShutdown()) return;
+        int radius = GameLogicConfig.REGION_LOAD_RADIUS_CHUNKS;
+        for (int chunkY = playerChunkY - radius; chunkY <= playerChunkY + radius; chunkY++) {
+            for (int chunkX = playerChunkX - radius; chunkX <= playerChunkX + radius; chunkX++) {
+                long key = RegionStore.toKey(chunkX, chunkY);
+                if (!index.containsKey(key) || installed.contains(key) || !pending.add(key)) continue;
+
+                int x = chunkX;
+                int y = chunkY;
+                loader.execute(() -> {
+                    try {
+                        List<SavedTileData> tiles = SaveManager.loadRegion(x, y);
+                        Platform.runLater(() -> install(key, tiles));
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        System.err.println("Failed to load region " + x + "," + y);
+                        Platform.runLater(() -> pending.remove(key));
+                    }
+                });
+            }
+        }
+    }
+
+    // FX thread: đưa các ô đọc được vào WorldMap. Ô đã tồn tại trong bộ nhớ (mới hơn) được giữ nguyên.
+    private void install(long key, List<SavedTileData> tiles) {
+        pending.remove(key);
+        if (installed.contains(key) || !index.containsKey(key)) return;
+        for (SavedTileData tile : tiles) {
+            if (!worldMap.hasTileData(tile.col, tile.row)) {
+                worldMap.loadTileData(tile.col, tile.row, GameManager.toTileData(tile));
+            }
+        }
+        installed.add(key);
+        mapChanged = true;
+    }
+
+    private void unloadDistantChunks(int playerChunkX, int playerChunkY) {
+        List<long[]> toUnload = new ArrayList<>();
+        worldMap.forEachChunk((chunkX, chunkY) -> {
+            if (chunkDistance(chunkX, chunkY, playerChunkX, playerChunkY) <= GameLogicConfig.REGION_UNLOAD_RADIUS_CHUNKS) return;
+            if (canUnload(chunkX, chunkY)) {
+                toUnload.add(new long[]{chunkX, chunkY});
+            }
+        });
+        for (long[] chunk : toUnload) {
+            int chunkX = (int) chunk[0];
+            int chunkY = (int) chunk[1];
+            // [SỬA] Chunk được giữ trong kho ngoài heap -> vẫn tính là đã load, WorldMap tự lấy lại khi cần
+            if (!worldMap.unloadChunk(chunkX, chunkY)) {
+                installed.remove(RegionStore.toKey(chunkX, chunkY));
+            }
+            mapChanged = true;
+        }
+    }
+
+    // Chunk chỉ được unload khi file vùng đã chứa đúng nội dung của nó và không có gì đang chạy trong chunk
+    private boolean canUnload(int chunkX, int chunkY) {
+        long key = RegionStore.toKey(chunkX, chunkY);
+        if (!isResident(key) || unsavedChunks.containsKey(key) || worldMap.hasChangedTilesInChunk(chunkX, chunkY)) {
+            return false;
+        }
+        SavedRegion region = index.get(key);
+        if (region != null && region.active) return false;
+
+        boolean[] keep = {false};
+        worldMap.forEachTileInChunk(chunkX, chunkY, (col, row, data) -> {
+            if (keep[0]) return;
+            SavedTileData tile = GameManager.toSavedTile(col, row, data);
+            // Chunk chưa có file mà còn ô khác mặc định -> chưa lưu, không được bỏ
+            keep[0] = RegionStore.isActiveTile(tile) || (region == null && !BinarySaveFormat.isDefaultTile(tile));
+        });
+        return !keep[0];
+    }
+
+    private boolean isResident(long key) {
+        return !index.containsKey(key) || installed.contains(key);
+    }
+
+    /**
+     * Snapshot đầy đủ khi lưu theo vùng: toàn bộ nội dung các chunk trong bộ nhớ (mỗi chunk ghi đè file vùng của nó).
+     */
+    public void fillRegionSnapshot(GameSaveState state) {
+        List<Long> rewritten = new ArrayList<>();
+        worldMap.forEachChunk((chunkX, chunkY) -> {
+            long key = RegionStore.toKey(chunkX, chunkY);
+            if (!isResident(key)) {
+                // Vùng đang đọc dở mà đã có ô mới tạo -> đọc nốt ngay, nếu không sẽ ghi đè mất nội dung file
+                try {
+                    install(key, SaveManager.loadRegion(chunkX, chunkY));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    System.err.println("Failed to load region " + chunkX + "," + chunkY);
+                    return; // Giữ nguyên file vùng
+                }
+            }
+            rewritten.add(key);
+            worldMap.forEachTileInChunk(chunkX, chunkY, (col, row, data) -> {
+                SavedTileData tile = GameManager.toSavedTile(col, row, data);
+                if (!BinarySaveFormat.isDefaultTile(tile)) {
+                    state.worldTiles.add(tile);
+                }
+            });
+        });
+        state.rewrittenRegions = rewritten;
+        state.replaceWorld = !worldStored; // Game mới / save cũ dạng 1 file -> bỏ file vùng cũ trên đĩa
+        state.regions = new ArrayList<>();
+        for (SavedRegion region : index.values()) {
+            state.regions.add(new SavedRegion(region.chunkX, region.chunkY, region.active));
+        }
+    }
+
+    /**
+     * Các chunk có nội dung trong bản lưu này. Gọi TRƯỚC khi gửi (sau đó luồng nền sẽ sửa state).
+     */
+    public static Set<Long> chunksOf(GameSaveState state) {
+        Set<Long> keys = new HashSet<>();
+        if (state.rewrittenRegions != null) {
+            keys.addAll(state.rewrittenRegions);
+        }
+        for (SavedTileData tile : state.worldTiles) {
+            keys.add(RegionStore.toKey(RegionStore.toChunkCoord(tile.col), RegionStore.toChunkCoord(tile.row)));
+        }
+        return keys;
+    }
+
+    /**
+     * Ghi nhận: lần gửi số seq chứa thay đổi của các chunk này (chưa nằm trong file vùng cho tới khi onPersisted).
+     * Chunk chưa được lưu xong thì không được unload.
+     */
+    public void markSubmitted(long seq, Set<Long> chunkKeys) {
+        if (seq == 0) return;
+        for (long key : chunkKeys) {
+            unsavedChunks.put(key, seq);
+        }
+    }
+
+    /**
+     * Ghi nhận: mọi thay đổi tới lần lưu số seq đã nằm trong file vùng. regions = index vùng mới trên đĩa.
+     */
+    public void onPersisted(long seq, List<SavedRegion> regions) {
+        unsavedChunks.values().removeIf(chunkSeq -> chunkSeq <= seq);
+        if (regions == null) return;
+
+        worldStored = true;
+        Map<Long, SavedRegion> newIndex = new HashMap<>();
+        for (SavedRegion region : regions) {
+            newIndex.put(RegionStore.toKey(region.chunkX, region.chunkY), region);
+        }
+        // Vùng mới có file mà đang nằm trong bộ nhớ -> nội dung trong bộ nhớ chính là nội dung file
+        for (long key : newIndex.keySet()) {
+            if (!index.containsKey(key) && worldMap.hasChunk((int) (key >> 32), (int) key)) {
+                installed.add(key);
+            }
+        }
+        index.clear();
+        index.putAll(newIndex);
+        installed.retainAll(index.keySet());
+    }
+
+    public int getInstalledRegionCount() {
+        return installed.size();
+    }
+
+    public void shutdown() {
+        loader.shutdown();
+    }
+
+    private static int toPlayerChunk(double pixel) {
+        return RegionStore.toChunkCoord((int) Math.floor(pixel / WorldConfig.TILE_SIZE));
+    }
+
+    private static int chunkDistance(int chunkX, int chunkY, int otherX, int otherY) {
+        return Math.max(Math.abs(chunkX - otherX), Math.abs(chunkY - otherY));
+    }
+}
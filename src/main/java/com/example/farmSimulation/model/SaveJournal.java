@@ -0,0 +1,180 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * [MỚI] Write-ahead journal cho file save.
+ * Mỗi lần autosave chỉ ghi thêm (append) 1 bản ghi nhỏ: player, inventory, thời gian, động vật
+ * và CHỈ các ô đất đã thay đổi. Khi tải game: đọc file save gốc rồi áp lần lượt các bản ghi.
+ *
+ * Cấu trúc: Header (MAGIC, VERSION, bảng tên enum) rồi các bản ghi [độ dài: int][dữ liệu][CRC32: int].
+ * Bản ghi cuối bị ghi dở (crash giữa chừng) sai độ dài / CRC -> dừng đọc tại đó và cắt bỏ.
+ */
+final class SaveJournal {
+    static final int MAGIC = 0x46524D4A; // "FRMJ"
+    static final int VERSION = 1;
+
+    private final Path path;
+
+    SaveJournal(Path path) {
+        this.path = path;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+    long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Ghi thêm 1 bản ghi rồi fsync. Tạo header nếu journal chưa có.
+     */
+    void append(GameSaveState delta) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        BinarySaveFormat.writeBody(delta, new DataOutputStream(payload), false);
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 64);
+        DataOutputStream out = new DataOutputStream(record);
+        if (size() == 0) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            BinarySaveFormat.EnumTables.write(out);
+        }
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+        out.writeInt((int) crc.getValue());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(record.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Áp toàn bộ bản ghi hợp lệ lên state (state được sửa trực tiếp).
+     * Phần đuôi hỏng (nếu có) bị cắt khỏi file để các bản ghi sau nối tiếp đúng chỗ.
+     * [SỬA] File gốc lưu theo vùng (state.regions != null): worldTiles sau khi áp là các ô cần ghi đè vào file vùng,
+     * ô trở về mặc định được giữ lại làm dấu "xóa ô".
+     * Trả về số bản ghi đã áp.
+     */
+    int replay(GameSaveState state) throws IOException {
+        if (!Files.exists(path)) return 0;
+        byte[] data = Files.readAllBytes(path);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        BinarySaveFormat.EnumTables tables;
+        try {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() > VERSION) {
+                throw new IOException("Unsupported journal header");
+            }
+            tables = BinarySaveFormat.EnumTables.read(in);
+        } catch (IOException e) {
+            System.err.println("Save journal is corrupted, ignoring it: " + e.getMessage());
+            delete();
+            return 0;
+        }
+
+        // Index ô theo tọa độ để bản ghi sau đè bản ghi trước
+        Map<Long, SavedTileData> tiles = new LinkedHashMap<>();
+        for (SavedTileData tile : state.worldTiles) {
+            tiles.put(toKey(tile.col, tile.row), tile);
+        }
+
+        int applied = 0;
+        long validLength = data.length - in.available();
+        while (in.available() > 0) {
+            try {
+                int length = in.readInt();
+                if (length < 0 || length > in.available() - 4) throw new EOFException("Truncated record");
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                int expectedCrc = in.readInt();
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) throw new IOException("Checksum mismatch");
+
+                GameSaveState delta = BinarySaveFormat.readBody(new DataInputStream(new ByteArrayInputStream(payload)), tables);
+                apply(state, delta, tiles);
+                applied++;
+                validLength = data.length - in.available();
+            } catch (IOException e) {
+                System.err.println("Save journal has a damaged tail, dropping it: " + e.getMessage());
+                break;
+            }
+        }
+
+        state.worldTiles = new ArrayList<>(tiles.values());
+        if (validLength < data.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return applied;
+    }
+
+    // Bản ghi chứa trạng thái ĐẦY ĐỦ của player/inventory/động vật, và trạng thái mới của các ô đã đổi
+    private static void apply(GameSaveState state, GameSaveState delta, Map<Long, SavedTileData> tiles) {
+        state.playerMoney = delta.playerMoney;
+        state.playerXP = delta.playerXP;
+        state.playerLevel = delta.playerLevel;
+        state.playerStamina = delta.playerStamina;
+        state.playerX = delta.playerX;
+        state.playerY = delta.playerY;
+        state.inventory = delta.inventory;
+        state.currentDaySeconds = delta.currentDaySeconds;
+        state.currentDay = delta.currentDay;
+        if (delta.animals != null) {
+            state.animals = delta.animals; // null = bản ghi không đổi động vật
+        }
+        if (delta.generatedChunks != null) {
+            state.worldSeed = delta.worldSeed;
+            state.generatedChunks = delta.generatedChunks;
+        }
+
+        for (SavedTileData tile : delta.worldTiles) {
+            long key = toKey(tile.col, tile.row);
+            if (BinarySaveFormat.isDefaultTile(tile) && state.regions == null) {
+                tiles.remove(key); // Ô trở về mặc định
+            } else {
+                tiles.put(key, tile);
+            }
+        }
+    }
+
+    // Cùng cách ghép key với WorldMap: (col << 32) | row
+    private static long toKey(int col, int row) {
+        return ((long) col << 32) | (row & 0xffffffffL);
+    }
+}
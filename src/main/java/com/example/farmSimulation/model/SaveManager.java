@@ -1,36 +1,230 @@
 package com.example.farmSimulation.model;
 
+import com.example.farmSimulation.model.GameSaveState.SavedRegion;
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SaveManager {
-    private static final String SAVE_FILE_NAME = "farm_save.dat";
+    // [SỬA] File save dạng nhị phân (xem BinarySaveFormat)
+    private static final String SAVE_FILE_NAME = "farm_save.bin";
+    // [MỚI] File save cũ (Java Serialization), chỉ đọc 1 lần để chuyển sang định dạng mới
+    private static final String LEGACY_SAVE_FILE_NAME = "farm_save.dat";
+    // [MỚI] Journal ghi thêm các thay đổi kể từ file save gốc (xem SaveJournal)
+    private static final SaveJournal JOURNAL = new SaveJournal(Paths.get("farm_save.journal"));
+    // [MỚI] Thư mục chứa file của từng vùng (khi lưu theo vùng)
+    private static final RegionStore REGIONS = new RegionStore(Paths.get("farm_save_regions"));
 
     // Hàm Lưu: Nhận vào GameSaveState và ghi ra file
-    public static void saveGame(GameSaveState state) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SAVE_FILE_NAME))) {
-            oos.writeObject(state);
+    // [SỬA] Ghi atomic: ghi ra file tạm, fsync, rồi rename đè file cũ -> crash giữa chừng không làm hỏng save.
+    // Có thể gọi từ luồng nền (AutosaveService), chỉ đụng tới state đã được snapshot.
+    // File save mới đã chứa mọi thay đổi -> xóa journal.
+    // [SỬA] Lưu theo vùng (state.rewrittenRegions != null): ghi file các vùng trước, rồi file gốc chỉ chứa index vùng.
+    public static synchronized boolean saveGame(GameSaveState state) {
+        Path target = Paths.get(SAVE_FILE_NAME);
+        Path temp = Paths.get(SAVE_FILE_NAME + ".tmp");
+        try {
+            if (state.rewrittenRegions != null) {
+                writeRegions(state);
+            }
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+                BinarySaveFormat.write(state, out);
+                out.flush();
+                fos.getFD().sync(); // fsync: dữ liệu phải nằm trên đĩa trước khi rename
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            JOURNAL.delete();
             System.out.println("Game Saved Successfully!");
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
             System.err.println("Failed to save game.");
+            return false;
+        }
+    }
+
+    // [MỚI] Ghi thêm 1 bản ghi thay đổi vào journal (nhanh, chỉ vài KB). Gọi từ luồng nền.
+    public static synchronized boolean appendJournal(GameSaveState delta) {
+        try {
+            JOURNAL.append(delta);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Failed to append save journal.");
+            return false;
         }
     }
 
+    // [MỚI] Kích thước journal hiện tại (byte), dùng để quyết định khi nào gộp
+    public static long getJournalSize() {
+        return JOURNAL.size();
+    }
+
+    // [MỚI] Gộp journal vào file save gốc (đọc gốc + journal, ghi lại gốc, xóa journal). Gọi từ luồng nền.
+    // [SỬA] Trả về trạng thái sau khi gộp (null nếu lỗi) để báo index vùng mới cho game.
+    public static synchronized GameSaveState compactJournal() {
+        GameSaveState merged = loadGame();
+        if (merged == null) return null;
+        if (merged.regions != null) return merged; // loadGame đã gộp journal vào file vùng
+        return !JOURNAL.exists() || saveGame(merged) ? merged : null;
+    }
+
     // Hàm Tải: Đọc file và trả về GameSaveState
-    public static GameSaveState loadGame() {
+    // [SỬA] Đọc file save gốc rồi áp các bản ghi trong journal (nếu có)
+    public static synchronized GameSaveState loadGame() {
         File file = new File(SAVE_FILE_NAME);
-        if (!file.exists()) return null; // Chưa có file save
+        if (!file.exists()) return importLegacySave(); // Chưa có file mới -> thử file cũ
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            return (GameSaveState) ois.readObject();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            GameSaveState state = BinarySaveFormat.read(in);
+            int applied = JOURNAL.replay(state);
+            if (applied > 0) {
+                System.out.println("Replayed " + applied + " save journal records.");
+            }
+            // [MỚI] Lưu theo vùng: các ô trong journal được gộp luôn vào file vùng,
+            // nên game chỉ cần index vùng và load từng vùng khi cần
+            if (state.regions != null && JOURNAL.exists()) {
+                mergeIntoRegions(state);
+                if (!saveGame(state)) return null;
+            }
+            return state;
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Failed to load game.");
+            return null;
+        }
+    }
+
+    /**
+     * [MỚI] Đọc 1 vùng (dùng bởi RegionStreamer, có thể gọi từ luồng nền).
+     */
+    public static List<SavedTileData> loadRegion(int chunkX, int chunkY) throws IOException {
+        return REGIONS.read(chunkX, chunkY);
+    }
+
+    // [MỚI] Ghi đè các vùng có toàn bộ nội dung trong state.worldTiles, cập nhật index
+    private static void writeRegions(GameSaveState state) throws IOException {
+        if (state.replaceWorld) {
+            REGIONS.clear(); // Game mới -> bỏ hết vùng của game cũ
+        }
+        Map<Long, SavedRegion> index = indexRegions(state.replaceWorld ? null : state.regions);
+        Map<Long, List<SavedTileData>> byRegion = groupByRegion(state.worldTiles);
+        for (long key : state.rewrittenRegions) {
+            int chunkX = (int) (key >> 32);
+            int chunkY = (int) key;
+            List<SavedTileData> tiles = byRegion.getOrDefault(key, new ArrayList<>());
+            REGIONS.write(chunkX, chunkY, tiles);
+            updateIndex(index, chunkX, chunkY, tiles);
+        }
+        state.regions = new ArrayList<>(index.values());
+        state.worldTiles = new ArrayList<>();
+    }
+
+    // [MỚI] Áp các ô trong state.worldTiles (ô mặc định = xóa ô) lên file vùng tương ứng, cập nhật index
+    private static void mergeIntoRegions(GameSaveState state) throws IOException {
+        Map<Long, SavedRegion> index = indexRegions(state.regions);
+        for (Map.Entry<Long, List<SavedTileData>> entry : groupByRegion(state.worldTiles).entrySet()) {
+            int chunkX = (int) (entry.getKey() >> 32);
+            int chunkY = (int) (long) entry.getKey();
+
+            Map<Long, SavedTileData> merged = new LinkedHashMap<>();
+            for (SavedTileData tile : REGIONS.read(chunkX, chunkY)) {
+                merged.put(toTileKey(tile), tile);
+            }
+            for (SavedTileData tile : entry.getValue()) {
+                if (BinarySaveFormat.isDefaultTile(tile)) {
+                    merged.remove(toTileKey(tile));
+                } else {
+                    merged.put(toTileKey(tile), tile);
+                }
+            }
+            List<SavedTileData> tiles = new ArrayList<>(merged.values());
+            REGIONS.write(chunkX, chunkY, tiles);
+            updateIndex(index, chunkX, chunkY, tiles);
+        }
+        state.regions = new ArrayList<>(index.values());
+        state.worldTiles = new ArrayList<>();
+    }
+
+    private static Map<Long, SavedRegion> indexRegions(List<SavedRegion> regions) {
+        Map<Long, SavedRegion> index = new LinkedHashMap<>();
+        if (regions != null) {
+            for (SavedRegion region : regions) {
+                index.put(RegionStore.toKey(region.chunkX, region.chunkY), region);
+            }
+        }
+        return index;
+    }
+
+    private static void updateIndex(Map<Long, SavedRegion> index, int chunkX, int chunkY, List<SavedTileData> tiles) {
+        long key = RegionStore.toKey(chunkX, chunkY);
+        if (tiles.isEmpty()) {
+            index.remove(key);
+            return;
+        }
+        boolean active = false;
+        for (SavedTileData tile : tiles) {
+            if (RegionStore.isActiveTile(tile)) {
+                active = true;
+                break;
+            }
+        }
+        index.put(key, new SavedRegion(chunkX, chunkY, active));
+    }
+
+    private static Map<Long, List<SavedTileData>> groupByRegion(List<SavedTileData> tiles) {
+        Map<Long, List<SavedTileData>> byRegion = new HashMap<>();
+        for (SavedTileData tile : tiles) {
+            long key = RegionStore.toKey(RegionStore.toChunkCoord(tile.col), RegionStore.toChunkCoord(tile.row));
+            byRegion.computeIfAbsent(key, k -> new ArrayList<>()).add(tile);
+        }
+        return byRegion;
+    }
+
+    private static long toTileKey(SavedTileData tile) {
+        return ((long) tile.col << 32) | (tile.row & 0xffffffffL);
+    }
+
+    // [MỚI] Đọc file .dat cũ rồi ghi lại ngay dưới dạng nhị phân (file cũ giữ nguyên để phòng hờ)
+    private static GameSaveState importLegacySave() {
+        File legacyFile = new File(LEGACY_SAVE_FILE_NAME);
+        if (!legacyFile.exists()) return null; // Chưa có file save
+
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacyFile))) {
+            GameSaveState state = (GameSaveState) ois.readObject();
+            saveGame(state);
+            System.out.println("Legacy save imported into " + SAVE_FILE_NAME);
+            return state;
         } catch (IOException | ClassNotFoundException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * [MỚI] Đường dẫn (tuyệt đối) của 1 file nằm cùng thư mục với file save.
+     */
+    public static Path resolveSaveFile(String fileName) {
+        return Paths.get(SAVE_FILE_NAME).toAbsolutePath().resolveSibling(fileName);
+    }
+
     // Kiểm tra xem có file save không (để hiện nút Continue)
     public static boolean hasSaveFile() {
-        return new File(SAVE_FILE_NAME).exists();
+        return new File(SAVE_FILE_NAME).exists() || new File(LEGACY_SAVE_FILE_NAME).exists();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.example.farmSimulation.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Danh sách các ô đất "đang sống" (đất cuốc, đất ướt, có phân hoặc có cây).
+ * Được WorldMap cập nhật dần mỗi khi ô thay đổi, để CropManager chỉ duyệt vùng đất đang canh tác
+ * thay vì quét toàn bộ bản đồ.
+ * Lưu dạng mảng liền + vị trí của từng ô để thêm/xóa O(1) (xóa bằng cách đổi chỗ với phần tử cuối).
+ */
+public class SoilRegistry {
+    private final ArrayList<TileData> tiles = new ArrayList<>();
+    private final IdentityHashMap<TileData, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * Ô có cần CropManager xử lý không.
+     */
+    public static boolean isActive(TileData data) {
+        return data.getCropData() != null
+                || data.isWatered()
+                || data.isFertilized()
+                || data.getBaseTileType() == Tile.SOIL;
+    }
+
+    /**
+     * Thêm hoặc bỏ ô khỏi danh sách tùy theo trạng thái hiện tại của nó.
+     */
+    public void update(TileData data) {
+        if (data == null) return;
+        if (isActive(data)) {
+            add(data);
+        } else {
+            remove(data);
+        }
+    }
+
+    public void add(TileData data) {
+        if (positions.containsKey(data)) return;
+        positions.put(data, tiles.size());
+        tiles.add(data);
+    }
+
+    public void remove(TileData data) {
+        Integer index = positions.remove(data);
+        if (index == null) return;
+        int lastIndex = tiles.size() - 1;
+        TileData last = tiles.remove(lastIndex);
+        if (index != lastIndex) {
+            // Đưa phần tử cuối vào chỗ trống
+            tiles.set(index, last);
+            positions.put(last, index);
+        }
+    }
+
+    public TileData get(int index) {
+        return tiles.get(index);
+    }
+
+    public int size() {
+        return tiles.size();
+    }
+
+    public void clear() {
+        tiles.clear();
+        positions.clear();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.config.WorldConfig;
+
+/**
+ * Một khối (chunk) CHUNK_SIZE x CHUNK_SIZE ô của bản đồ.
+ * Dữ liệu được lưu trong mảng phẳng (index = localRow * CHUNK_SIZE + localCol)
+ * để các ô gần nhau nằm gần nhau trong bộ nhớ.
+ */
+public class TileChunk {
+    public static final int SIZE = WorldConfig.CHUNK_SIZE;
+
+    private final int chunkX; // Tọa độ chunk theo cột
+    private final int chunkY; // Tọa độ chunk theo hàng
+    private final TileData[] tiles = new TileData[SIZE * SIZE];
+    private int tileCount = 0; // Số ô đã được tạo trong chunk
+
+    public TileChunk(int chunkX, int chunkY) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+    }
+
+    // Chuyển tọa độ cục bộ (0..SIZE-1) thành index trong mảng
+    public static int toIndex(int localCol, int localRow) {
+        return localRow * SIZE + localCol;
+    }
+
+    public TileData get(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * Gán dữ liệu cho một ô. Trả về dữ liệu cũ (null nếu ô chưa tồn tại).
+     */
+    public TileData set(int index, TileData data) {
+        TileData old = tiles[index];
+        tiles[index] = data;
+        if (old == null && data != null) tileCount++;
+        else if (old != null && data == null) tileCount--;
+        return old;
+    }
+
+    // Tọa độ cột (thế giới) của ô tại index
+    public int colAt(int index) {
+        return chunkX * SIZE + (index % SIZE);
+    }
+
+    // Tọa độ hàng (thế giới) của ô tại index
+    public int rowAt(int index) {
+        return chunkY * SIZE + (index / SIZE);
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    public boolean isEmpty() {
+        return tileCount == 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.farmSimulation.model;
 
+import com.example.farmSimulation.config.CropConfig;
 import com.example.farmSimulation.config.GameLogicConfig; // [MỚI] Import config mới
 import com.example.farmSimulation.view.MainGameView;
 
@@ -10,6 +11,8 @@ public class TimeManager {
     private final double DAY_CYCLE_DURATION_SECONDS;
     private final double MIN_LIGHT_INTENSITY;
     private double currentLightIntensity; // Cường độ ánh sáng hiện tại (0.0 - 1.0)
+    private boolean night = false; // [MỚI] Tính 1 lần mỗi frame cùng với ánh sáng
+    private LightCurve lightCurve; // [MỚI] Bảng tra ánh sáng theo tiến độ chu kỳ
     private int currentDay; // Ngày hiện tại (bắt đầu từ 1)
     private int lastCheckedDay; // Ngày đã kiểm tra lần cuối (để tránh trigger nhiều lần)
 
@@ -31,6 +34,7 @@ public class TimeManager {
         this.DAY_CYCLE_DURATION_SECONDS = GameLogicConfig.DAY_CYCLE_DURATION_SECONDS;
         this.MIN_LIGHT_INTENSITY = GameLogicConfig.MIN_LIGHT_INTENSITY;
         this.currentLightIntensity = 1.0; // Khởi tạo ban đầu (sáng)
+        this.lightCurve = LightCurve.sine(GameLogicConfig.LIGHT_CURVE_RESOLUTION, this.MIN_LIGHT_INTENSITY);
         this.currentDay = 1; // Bắt đầu từ ngày 1
         this.lastCheckedDay = 1; // Khởi tạo last checked day
     }
@@ -63,18 +67,14 @@ public class TimeManager {
         // [SỬA] Đọc từ trường (field) của class
         double cycleProgress = (this.gameTimeSeconds % this.DAY_CYCLE_DURATION_SECONDS) / this.DAY_CYCLE_DURATION_SECONDS;
 
-        // Chuyển đổi tỷ lệ thành Cường độ Ánh sáng (0.0 đến 1.0)
-        // (Phép toán sin giữ nguyên)
-        double radians = cycleProgress * 2 * Math.PI - (Math.PI / 2.0);
-        double lightIntensity = (Math.sin(radians) + 1.0) / 2.0;
-
-        // [SỬA] Đọc từ trường (field) của class
-        lightIntensity = this.MIN_LIGHT_INTENSITY + (1.0 - this.MIN_LIGHT_INTENSITY) * lightIntensity;
+        // [SỬA] Tra bảng đường cong ánh sáng (đã tính sẵn) thay vì Math.sin mỗi frame
+        double lightIntensity = lightCurve.sample(cycleProgress);
 
         // Lưu light intensity hiện tại
         this.currentLightIntensity = lightIntensity;
+        this.night = lightIntensity < CropConfig.NIGHT_LIGHT_THRESHOLD;
 
-        // Gửi cường độ ánh sáng tới View
+        // Gửi cường độ ánh sáng tới View (View chỉ đổi lớp phủ khi độ tối qua bậc mới)
         mainGameView.updateLighting(lightIntensity);
     }
 
@@ -96,7 +96,7 @@ public class TimeManager {
         // Update current day based on elapsed time
         updateCurrentDay();
 
-        // Định dạng thời gian thành chuỗi HH:MM (thời gian trong ngày hiện tại) - định dạng 12 giờ
+        // Thời gian trong ngày hiện tại
         double timeInCurrentDay = this.gameTimeSeconds % this.DAY_CYCLE_DURATION_SECONDS;
         // Map thời gian game sang thời gian hiển thị (24h)
         // Tỷ lệ: timeInCurrentDay / Duration = realHour / 24h
@@ -105,16 +105,8 @@ public class TimeManager {
         int hours24 = (int) gameHours;
         int minutes = (int) ((gameHours - hours24) * 60);
 
-        // Chuyển đổi từ 24 giờ sang 12 giờ (đơn giản, không có AM/PM)
-        int hours12 = hours24 % 12;
-        if (hours12 == 0) {
-            hours12 = 12; // 0 giờ và 12 giờ đều hiển thị là 12
-        }
-
-        String timeString = String.format("%d:%02d", hours12, minutes); // Định dạng 12 giờ: "12:10" hoặc "1:05"
-
-        // Gửi day và time riêng biệt tới View
-        mainGameView.updateTimer(this.currentDay, timeString);
+        // [SỬA] Gửi day và phút trong ngày tới View (View tự lấy chuỗi "h:mm" dựng sẵn, không String.format mỗi frame)
+        mainGameView.updateTimer(this.currentDay, hours24 * 60 + minutes);
     }
 
     /**
@@ -156,10 +148,20 @@ public class TimeManager {
 
     /**
      * Check if it's night time
+     * [SỬA] Trả về cờ đã tính sẵn trong updateDayCycle (ngưỡng CropConfig.NIGHT_LIGHT_THRESHOLD)
      * @return true if light intensity is low (night)
      */
     public boolean isNight() {
-        return currentLightIntensity < 0.5; // Consider night when intensity < 50%
+        return night;
+    }
+
+    /**
+     * [MỚI] Đổi đường cong ánh sáng (VD: theo mùa). Có hiệu lực từ frame tiếp theo.
+     */
+    public void setLightCurve(LightCurve lightCurve) {
+        if (lightCurve != null) {
+            this.lightCurve = lightCurve;
+        }
     }
 
     /**
@@ -0,0 +1,192 @@
+package com.example.farmSimulation.model;
+
+import java.util.function.Consumer;
+
+/**
+ * Bộ hẹn giờ dạng "bánh xe thời gian" phân tầng (Hierarchical Timing Wheel).
+ * Dùng để đăng ký thời điểm (deadline) tiếp theo mà một đối tượng cần được xử lý,
+ * thay vì kiểm tra tất cả đối tượng mỗi lần update.
+ *
+ * - Mỗi tầng có 64 ô (slot). Tầng 0: mỗi ô = 1 tick, tầng 1: mỗi ô = 64 tick, ...
+ * - Thêm / hủy hẹn giờ: O(1). Mỗi tick chỉ xử lý các hẹn giờ đã đến hạn.
+ * - Hẹn giờ ở tầng cao sẽ được "đổ" (cascade) xuống tầng thấp khi gần đến hạn.
+ */
+public class TimingWheel<T> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS; // 64 ô mỗi tầng
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4; // 64^4 tick (~19 ngày nếu tick = 100ms)
+    private static final long MAX_DELTA_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    /**
+     * Một hẹn giờ. Giữ lại để hủy / hẹn lại mà không cần tạo object mới.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private long deadlineTick; // Deadline thật, không bao giờ bị sửa khi đặt vào bánh xe
+        private long slotTick;     // [MỚI] Tick của ô đang chứa timer (<= deadlineTick khi deadline quá xa)
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level; // Tầng đang chứa timer
+        private int slot;  // Ô đang chứa timer
+        private boolean scheduled = false;
+
+        public Timer(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    private final long tickMs; // Độ phân giải (ms) của một tick
+    private long currentTick;  // Tick đã xử lý gần nhất
+    private final Timer<T>[][] slots; // Đầu danh sách liên kết của từng ô
+    private int size = 0;
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Không tạo được mảng generic trực tiếp
+    public TimingWheel(long tickMs, long startTimeMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startTimeMs / tickMs;
+        this.slots = (Timer<T>[][]) new Timer[LEVELS][WHEEL_SIZE];
+    }
+
+    /**
+     * Hẹn giờ (hoặc hẹn lại) cho timer tại thời điểm deadlineMs.
+     * Deadline trong quá khứ sẽ được xử lý ở tick kế tiếp.
+     */
+    public void schedule(Timer<T> timer, long deadlineMs) {
+        if (timer.scheduled) unlink(timer);
+        // Làm tròn lên để không bao giờ xử lý SỚM hơn deadline
+        timer.deadlineTick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick + 1);
+        insert(timer);
+        size++;
+    }
+
+    /**
+     * Hủy hẹn giờ (không làm gì nếu timer chưa được hẹn).
+     */
+    public void cancel(Timer<T> timer) {
+        if (!timer.scheduled) return;
+        unlink(timer);
+        size--;
+    }
+
+    /**
+     * Chạy bánh xe tới thời điểm nowMs, gọi onExpired cho mọi timer đã đến hạn.
+     * Callback được phép hẹn lại chính timer đó.
+     */
+    public void advance(long nowMs, Consumer<T> onExpired) {
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Đổ các timer ở tầng cao xuống khi tầng dưới quay hết một vòng
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) break;
+                cascade(level, (int) ((currentTick >> (WHEEL_BITS * level)) & WHEEL_MASK));
+            }
+
+            // Xử lý các timer đến hạn ở tick hiện tại
+            // (Lấy từng timer ở đầu ô để callback có thể hủy an toàn các timer khác cùng ô)
+            int slot = (int) (currentTick & WHEEL_MASK);
+            Timer<T> timer;
+            while ((timer = slots[0][slot]) != null) {
+                unlink(timer);
+                if (timer.deadlineTick > currentTick) {
+                    // [SỬA] Deadline quá xa nên bị đặt tạm ở ô gần hơn -> chưa đến hạn, đặt lại
+                    insert(timer);
+                    continue;
+                }
+                size--;
+                onExpired.accept(timer.payload);
+            }
+        }
+    }
+
+    /**
+     * Xóa toàn bộ hẹn giờ.
+     */
+    public void clear() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Timer<T> timer = slots[level][slot];
+                while (timer != null) {
+                    Timer<T> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer.scheduled = false;
+                    timer = next;
+                }
+                slots[level][slot] = null;
+            }
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timer<T> timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    // Đặt timer vào đúng tầng / ô dựa trên khoảng cách tới deadline
+    private void insert(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta > MAX_DELTA_TICKS) {
+            // Quá xa -> Đặt ở xa nhất có thể, sẽ được đặt lại khi tới lượt (deadline thật giữ nguyên)
+            delta = MAX_DELTA_TICKS;
+        }
+        timer.slotTick = currentTick + delta;
+
+        int level = 0;
+        if (delta > 0) {
+            while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+                level++;
+            }
+        }
+        // delta <= 0 (chỉ xảy ra khi cascade): vào ô của tick hiện tại, sẽ được xử lý ngay sau đó
+        long tick = delta > 0 ? timer.slotTick : currentTick;
+        int slot = (int) ((tick >> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+        Timer<T> head = slots[level][slot];
+        timer.next = head;
+        timer.prev = null;
+        if (head != null) head.prev = timer;
+        slots[level][slot] = timer;
+        timer.level = level;
+        timer.slot = slot;
+        timer.scheduled = true;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+        timer.scheduled = false;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
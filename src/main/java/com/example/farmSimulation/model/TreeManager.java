@@ -4,7 +4,10 @@ import com.example.farmSimulation.config.TreeConfig;
 import com.example.farmSimulation.config.GameLogicConfig;
 import com.example.farmSimulation.config.WorldConfig;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
@@ -16,18 +19,136 @@ public class TreeManager {
     private final WorldMap worldMap;
     private final Random random;
     
-    private final long worldSeed;
+    private long worldSeed; // [SỬA] Được lưu vào file save để thế giới tái tạo giống hệt khi load
     private long lastUpdateTimeMs = 0;
     private double lastPlayerX = -9999; // Set giá trị ảo để lần đầu luôn update
     private double lastPlayerY = -9999;
     
-    private final Set<Long> generatedTiles;
+    // [SỬA] Đánh dấu theo CHUNK (1 cờ / chunk CHUNK_SIZE x CHUNK_SIZE ô) thay vì từng ô
+    private final Set<Long> generatedChunks;
+
+    /**
+     * [MỚI] Một cây đang lớn / gốc cây đang mọc lại trong registry (kèm tọa độ).
+     */
+    private static final class TreeEntry {
+        final int col;
+        final int row;
+        final TileData data;
+        final TimingWheel.Timer<TreeEntry> timer;
+
+        TreeEntry(int col, int row, TileData data) {
+            this.col = col;
+            this.row = row;
+            this.data = data;
+            this.timer = new TimingWheel.Timer<>(this);
+        }
+    }
+
+    // [MỚI] Registry các cây CẦN cập nhật, key = tọa độ ô.
+    // Cây trưởng thành (stage tối đa, không chờ mọc lại) bị loại khỏi registry cho đến khi bị chặt.
+    private final HashMap<Long, TreeEntry> growingTrees = new HashMap<>();
+    private final TimingWheel<TreeEntry> scheduler; // Hẹn mốc lớn tiếp theo cho từng cây
+    private final ArrayList<TreeEntry> dueTrees = new ArrayList<>(); // Dùng lại mỗi lần update
 
     public TreeManager(WorldMap worldMap) {
         this.worldMap = worldMap;
         this.random = new Random();
         this.worldSeed = random.nextLong(); 
-        this.generatedTiles = new HashSet<>();
+        this.generatedChunks = new HashSet<>();
+        this.scheduler = new TimingWheel<>(GameLogicConfig.CROP_UPDATE_INTERVAL_MS, System.nanoTime() / 1_000_000);
+
+        // Trồng cây, chặt cây, sinh cây... đều đi qua setTileData -> Cập nhật registry tại ô đó
+        worldMap.addTileChangeListener(new WorldMap.TileChangeListener() {
+            @Override
+            public void onTileChanged(int col, int row, TileData oldData, TileData newData) {
+                trackTree(col, row, newData, System.nanoTime());
+            }
+
+            @Override
+            public void onMapCleared() {
+                clearTreeRegistry();
+            }
+        });
+    }
+
+    /**
+     * Đưa ô vào registry (và hẹn mốc tiếp theo) nếu là cây còn đang lớn, ngược lại loại ra.
+     */
+    private void trackTree(int col, int row, TileData data, long currentTime) {
+        long key = toTileKey(col, row);
+        long deadlineMs = (data != null && data.getTreeData() != null && data.getBaseTileType() == Tile.TREE)
+                ? computeNextDeadlineMs(data.getTreeData(), currentTime) : 0;
+
+        TreeEntry entry = growingTrees.get(key);
+        if (entry != null && (entry.data != data || deadlineMs <= 0)) {
+            // Ô đã bị thay thế hoặc cây đã trưởng thành -> Bỏ khỏi registry
+            scheduler.cancel(entry.timer);
+            growingTrees.remove(key);
+            entry = null;
+        }
+        if (deadlineMs > 0) {
+            if (entry == null) {
+                entry = new TreeEntry(col, row, data);
+                growingTrees.put(key, entry);
+            }
+            scheduler.schedule(entry.timer, deadlineMs);
+        }
+    }
+
+    private void clearTreeRegistry() {
+        scheduler.clear();
+        growingTrees.clear();
+        dueTrees.clear();
+    }
+
+    /**
+     * [MỚI] Dựng lại registry từ bản đồ (gọi sau khi Load Game).
+     * File save không lưu mốc thời gian của cây, nên cây đang lớn / gốc cây sẽ bắt đầu đếm lại từ lúc load.
+     */
+    public void rebuildTreeRegistry() {
+        clearTreeRegistry();
+        long now = System.nanoTime();
+        worldMap.forEachTile((col, row, data) -> {
+            TreeData tree = data.getTreeData();
+            if (tree == null || data.getBaseTileType() != Tile.TREE) return;
+
+            if (tree.getChopCount() > 0 && tree.getRegrowStartTime() == 0) {
+                tree.setRegrowStartTime(now); // Gốc cây: đếm lại thời gian mọc lại
+            } else if (tree.getChopCount() == 0 && tree.getLastChopTime() == 0
+                    && tree.getGrowthStage() >= TreeConfig.TREE_SEED_STAGE && tree.getGrowthStage() < TreeConfig.TREE_MAX_GROWTH_STAGE) {
+                // Giữ nguyên stage hiện tại, tiếp tục lớn từ đây
+                tree.setLastChopTime(now - tree.getGrowthStage() * TreeConfig.TIME_PER_GROWTH_STAGE_MS * 1_000_000L);
+            }
+            trackTree(col, row, data, now);
+        });
+    }
+
+    /**
+     * Số cây đang được theo dõi (đang lớn / chờ mọc lại).
+     */
+    public int getGrowingTreeCount() {
+        return growingTrees.size();
+    }
+
+    /**
+     * Mốc (ms) tiếp theo mà cây đổi trạng thái, 0 nếu không còn gì để chờ.
+     */
+    private long computeNextDeadlineMs(TreeData tree, long currentTime) {
+        if (tree.getChopCount() > 0) {
+            // Gốc cây chờ mọc lại
+            if (tree.getRegrowStartTime() > 0) {
+                return tree.getRegrowStartTime() / 1_000_000 + TreeConfig.REGROW_TIME_MS;
+            }
+            return 0;
+        }
+        if (tree.getGrowthStage() >= TreeConfig.TREE_SEED_STAGE && tree.getGrowthStage() < TreeConfig.TREE_MAX_GROWTH_STAGE) {
+            if (tree.getLastChopTime() > 0) {
+                return tree.getLastChopTime() / 1_000_000 + (tree.getGrowthStage() + 1) * TreeConfig.TIME_PER_GROWTH_STAGE_MS;
+            }
+            // Chưa có mốc thời gian: chỉ stage 0 được lên stage 1 ngay
+            return tree.getGrowthStage() < 1 ? currentTime / 1_000_000 : 0;
+        }
+        return 0;
     }
     
     private long toTileKey(int tileX, int tileY) {
@@ -36,21 +157,25 @@ public class TreeManager {
 
     /**
      * Kiểm tra mật độ cây (Giãn cách xã hội cho cây)
+     * [SỬA] Chỉ dựa vào noise của seed: ô được mọc cây khi noise của nó nhỏ nhất trong bán kính.
+     * Không đọc cây thật trên bản đồ -> kết quả ở mép chunk không phụ thuộc chunk bên cạnh đã sinh hay chưa.
      */
-    private boolean hasTreeNearby(int col, int row) {
+    private boolean isLocalNoiseMinimum(int col, int row, double noiseValue) {
         // [SỬA] Sử dụng radius từ Config
         int radius = TreeConfig.TREE_SPACING_RADIUS; 
         
         for (int r = row - radius; r <= row + radius; r++) {
             for (int c = col - radius; c <= col + radius; c++) {
                 if (c == col && r == row) continue;
-                TileData neighbor = worldMap.getTileData(c, r);
-                if (neighbor.getBaseTileType() == Tile.TREE || neighbor.getTreeData() != null) {
-                    return true; 
+                double neighborNoise = getDeterministicNoise(c, r);
+                // Bằng nhau thì ô có tọa độ nhỏ hơn thắng (để đúng 1 ô được chọn)
+                if (neighborNoise < noiseValue
+                        || (neighborNoise == noiseValue && (r < row || (r == row && c < col)))) {
+                    return false;
                 }
             }
         }
-        return false;
+        return true;
     }
 
     private double getDeterministicNoise(int x, int y) {
@@ -69,47 +194,21 @@ public class TreeManager {
         long currentTimeMs = currentTime / 1_000_000;
 
         // --- PHẦN 1: CÂY LỚN LÊN ---
+        // [SỬA] Chỉ xử lý các cây đã đến hạn trong scheduler thay vì duyệt toàn bộ bản đồ
         if (currentTimeMs - lastUpdateTimeMs >= GameLogicConfig.CROP_UPDATE_INTERVAL_MS) {
             lastUpdateTimeMs = currentTimeMs;
-            for (TileData data : worldMap.getAllTileData()) {
+            dueTrees.clear();
+            scheduler.advance(currentTimeMs, dueTrees::add);
+            for (TreeEntry entry : dueTrees) {
+                TileData data = entry.data;
                 if (data.getTreeData() != null && data.getBaseTileType() == Tile.TREE) {
-                    TreeData tree = data.getTreeData();
-                    
-                    // Xử lý gốc cây mọc lại (stump regrowth)
-                    if (tree.getChopCount() > 0) {
-                        // Gốc cây mọc lại sau REGROW_TIME_MS
-                        if (tree.getRegrowStartTime() > 0) {
-                            long timeSinceRegrow = (currentTime - tree.getRegrowStartTime()) / 1_000_000;
-                            if (timeSinceRegrow >= TreeConfig.REGROW_TIME_MS) {
-                                tree.setChopCount(0); // Không còn là gốc cây
-                                tree.setGrowthStage(TreeConfig.STUMP_REGROW_TARGET_STAGE); // Mọc lại thành stage 2
-                                tree.setRegrowStartTime(0);
-                                // Set lastChopTime để tính toán growth tiếp theo từ stage 2 lên stage 3
-                                // Cần set sao cho targetStage = 2 khi tính toán (timeSincePlant / TIME_PER_STAGE = 2)
-                                long targetTimeNanos = TreeConfig.STUMP_REGROW_TARGET_STAGE * TreeConfig.TIME_PER_GROWTH_STAGE_MS * 1_000_000L;
-                                tree.setLastChopTime(currentTime - targetTimeNanos);
-                                mapNeedsRedraw = true;
-                            }
-                        }
-                    }
-                    // Chỉ cho cây lớn lên nếu chưa bị chặt (chopCount == 0)
-                    else if (tree.getChopCount() == 0) {
-                        // Seed growth: Stage 0 -> 1 -> 2 -> 3
-                        if (tree.getGrowthStage() >= TreeConfig.TREE_SEED_STAGE && tree.getGrowthStage() < TreeConfig.TREE_MAX_GROWTH_STAGE) {
-                            long timeSincePlant = tree.getLastChopTime() > 0 ? 
-                                (currentTime - tree.getLastChopTime()) / 1_000_000 : 
-                                TreeConfig.TIME_PER_GROWTH_STAGE_MS;
-                            
-                            int targetStage = (int) (timeSincePlant / TreeConfig.TIME_PER_GROWTH_STAGE_MS);
-                            targetStage = Math.min(targetStage, TreeConfig.TREE_MAX_GROWTH_STAGE);
-                            
-                            if (targetStage > tree.getGrowthStage()) {
-                                tree.setGrowthStage(targetStage);
-                                mapNeedsRedraw = true;
-                            }
-                        }
+                    if (processTree(data.getTreeData(), currentTime)) {
+                        mapNeedsRedraw = true;
+                        worldMap.markTileDirty(entry.col, entry.row); // Sửa trực tiếp TreeData -> Vẽ lại ô
                     }
                 }
+                // Hẹn mốc tiếp theo, hoặc loại khỏi registry nếu cây đã trưởng thành
+                trackTree(entry.col, entry.row, data, currentTime);
             }
         }
 
@@ -126,37 +225,100 @@ public class TreeManager {
         return mapNeedsRedraw;
     }
 
+    /**
+     * Xử lý lớn lên / mọc lại cho một cây đã đến hạn.
+     * @return true nếu hình ảnh cây thay đổi
+     */
+    private boolean processTree(TreeData tree, long currentTime) {
+        boolean changed = false;
+        
+        // Xử lý gốc cây mọc lại (stump regrowth)
+        if (tree.getChopCount() > 0) {
+            // Gốc cây mọc lại sau REGROW_TIME_MS
+            if (tree.getRegrowStartTime() > 0) {
+                long timeSinceRegrow = (currentTime - tree.getRegrowStartTime()) / 1_000_000;
+                if (timeSinceRegrow >= TreeConfig.REGROW_TIME_MS) {
+                    tree.setChopCount(0); // Không còn là gốc cây
+                    tree.setGrowthStage(TreeConfig.STUMP_REGROW_TARGET_STAGE); // Mọc lại thành stage 2
+                    tree.setRegrowStartTime(0);
+                    // Set lastChopTime để tính toán growth tiếp theo từ stage 2 lên stage 3
+                    // Cần set sao cho targetStage = 2 khi tính toán (timeSincePlant / TIME_PER_STAGE = 2)
+                    long targetTimeNanos = TreeConfig.STUMP_REGROW_TARGET_STAGE * TreeConfig.TIME_PER_GROWTH_STAGE_MS * 1_000_000L;
+                    tree.setLastChopTime(currentTime - targetTimeNanos);
+                    changed = true;
+                }
+            }
+        }
+        // Chỉ cho cây lớn lên nếu chưa bị chặt (chopCount == 0)
+        else if (tree.getChopCount() == 0) {
+            // Seed growth: Stage 0 -> 1 -> 2 -> 3
+            if (tree.getGrowthStage() >= TreeConfig.TREE_SEED_STAGE && tree.getGrowthStage() < TreeConfig.TREE_MAX_GROWTH_STAGE) {
+                long timeSincePlant = tree.getLastChopTime() > 0 ? 
+                    (currentTime - tree.getLastChopTime()) / 1_000_000 : 
+                    TreeConfig.TIME_PER_GROWTH_STAGE_MS;
+                
+                int targetStage = (int) (timeSincePlant / TreeConfig.TIME_PER_GROWTH_STAGE_MS);
+                targetStage = Math.min(targetStage, TreeConfig.TREE_MAX_GROWTH_STAGE);
+                
+                if (targetStage > tree.getGrowthStage()) {
+                    tree.setGrowthStage(targetStage);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sinh cây cho các chunk lần đầu lọt vào bán kính quanh người chơi.
+     * Mỗi chunk chỉ được sinh đúng 1 lần (toàn bộ chunk cùng lúc).
+     */
     private boolean generateTreesAroundPlayer(double playerX, double playerY) {
         boolean anyChange = false;
         int playerTileX = (int) Math.floor(playerX / WorldConfig.TILE_SIZE);
         int playerTileY = (int) Math.floor(playerY / WorldConfig.TILE_SIZE);
 
-        int generationRadius = 14; 
-
-        for (int row = playerTileY - generationRadius; row <= playerTileY + generationRadius; row++) {
-            for (int col = playerTileX - generationRadius; col <= playerTileX + generationRadius; col++) {
-                
-                long key = toTileKey(col, row);
+        int generationRadius = TreeConfig.TREE_GENERATION_RADIUS;
+        int minChunkX = Math.floorDiv(playerTileX - generationRadius, WorldConfig.CHUNK_SIZE);
+        int maxChunkX = Math.floorDiv(playerTileX + generationRadius, WorldConfig.CHUNK_SIZE);
+        int minChunkY = Math.floorDiv(playerTileY - generationRadius, WorldConfig.CHUNK_SIZE);
+        int maxChunkY = Math.floorDiv(playerTileY + generationRadius, WorldConfig.CHUNK_SIZE);
 
-                if (generatedTiles.contains(key)) {
-                    continue; 
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                // add() trả về false nếu chunk đã được sinh trước đó
+                if (generatedChunks.add(toTileKey(chunkX, chunkY))) {
+                    if (generateChunk(chunkX, chunkY)) anyChange = true;
                 }
+            }
+        }
+        return anyChange;
+    }
 
-                generatedTiles.add(key);
+    /**
+     * Sinh cây cho toàn bộ một chunk dựa trên noise (phụ thuộc worldSeed).
+     */
+    private boolean generateChunk(int chunkX, int chunkY) {
+        boolean anyChange = false;
+        int startCol = chunkX * WorldConfig.CHUNK_SIZE;
+        int startRow = chunkY * WorldConfig.CHUNK_SIZE;
 
+        for (int row = startRow; row < startRow + WorldConfig.CHUNK_SIZE; row++) {
+            for (int col = startCol; col < startCol + WorldConfig.CHUNK_SIZE; col++) {
                 double noiseValue = getDeterministicNoise(col, row);
                 
                 // [SỬA] Sử dụng hằng số TỶ LỆ từ Config (VD: 0.06 thay vì 0.15)
                 if (noiseValue < TreeConfig.TREE_GENERATION_PROBABILITY) {
                     
-                    TileData data = worldMap.getTileData(col, row);
+                    TileData data = worldMap.peekTileData(col, row);
 
                     if (data.getBaseTileType() == Tile.GRASS && 
                         data.getTreeData() == null && 
                         data.getCropData() == null &&
                         data.getFenceData() == null) {
                         
-                        if (!hasTreeNearby(col, row)) {
+                        if (isLocalNoiseMinimum(col, row, noiseValue)) {
+                            data = worldMap.getTileData(col, row); // Chỉ tạo ô thật khi thực sự mọc cây
                             data.setBaseTileType(Tile.TREE);
                             // Luôn spawn cây ở stage trưởng thành (TREE_MATURE_STAGE)
                             int initialStage = TreeConfig.TREE_MATURE_STAGE;
@@ -172,4 +334,31 @@ public class TreeManager {
         }
         return anyChange;
     }
-}
\ No newline at end of file
+
+    // --- [MỚI] Lưu / Tải trạng thái sinh thế giới ---
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    /**
+     * Danh sách các chunk đã sinh cây (key = (chunkX << 32) | chunkY).
+     */
+    public List<Long> getGeneratedChunks() {
+        return new ArrayList<>(generatedChunks);
+    }
+
+    /**
+     * Khôi phục seed và các chunk đã sinh từ file save.
+     * Bắt buộc tính lại vùng quanh người chơi ở lần update tới.
+     */
+    public void restoreGenerationState(long seed, List<Long> chunks) {
+        this.worldSeed = seed;
+        this.generatedChunks.clear();
+        if (chunks != null) {
+            this.generatedChunks.addAll(chunks);
+        }
+        this.lastPlayerX = -9999;
+        this.lastPlayerY = -9999;
+    }
+}
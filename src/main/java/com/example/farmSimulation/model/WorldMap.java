@@ -1,31 +1,160 @@
 package com.example.farmSimulation.model;
 
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 
 // Class này lưu trữ TOÀN BỘ dữ liệu bản đồ (Model).
 // Đây là bản đồ hữu hạn
+// [SỬA] Bản đồ được chia thành các chunk (TileChunk) kích thước cố định, mỗi chunk là một mảng phẳng.
+// Chỉ còn 1 key/entry cho mỗi chunk thay vì cho mỗi ô.
 public class WorldMap {
-    private HashMap<Long, TileData> tileDataMap; // Lưu trữ loại ô tại mỗi tọa độ [hàng][cột] và loại ô
+    private final HashMap<Long, TileChunk> chunks; // Key = tọa độ chunk (chunkX, chunkY)
+
+    // [MỚI] Ô mặc định (GRASS, chỉ đọc) trả về cho các ô chưa tồn tại khi chỉ cần ĐỌC
+    private static final TileData DEFAULT_TILE = new ReadOnlyTileData();
+    private int tileCount = 0; // Tổng số ô đang được lưu trữ
+
+    // [MỚI] Index các ô đất đang canh tác (cho CropManager)
+    private final SoilRegistry soilRegistry = new SoilRegistry();
+
+    // [MỚI] Các ô đã thay đổi hình ảnh từ lần vẽ trước (key giống toKey), để renderer chỉ vẽ lại các ô này
+    // [SỬA] Tập long nguyên thủy: không tạo Long mỗi lần sửa ô
+    private final LongHashSet dirtyTiles = new LongHashSet();
+    // [MỚI] Các ô đã thay đổi dữ liệu từ lần ghi journal trước (tách riêng vì renderer xóa dirtyTiles mỗi frame)
+    private final LongHashSet changedTiles = new LongHashSet();
+    // [MỚI] Các chunk (key chunk) có ô trong changedTiles -> hasChangedTilesInChunk không phải duyệt cả changedTiles
+    private final LongHashSet changedChunks = new LongHashSet();
+
+    // [MỚI] Kho ngoài heap (file memory-mapped) cho các chunk đã unload, null = unload là bỏ hẳn
+    private MappedTileStore offHeapStore;
+
+    /**
+     * Callback duyệt qua từng ô (có kèm tọa độ) mà không cần tạo Map.Entry / Long key.
+     */
+    @FunctionalInterface
+    public interface TileVisitor {
+        void visit(int col, int row, TileData data);
+    }
+
+    /**
+     * [MỚI] Callback duyệt qua từng chunk (tọa độ chunk).
+     */
+    @FunctionalInterface
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkY);
+    }
+
+    /**
+     * [MỚI] Lắng nghe khi một ô được gán dữ liệu mới qua setTileData() hoặc khi bản đồ bị xóa.
+     * (Dùng cho CropManager / TreeManager để hẹn giờ xử lý ô)
+     */
+    public interface TileChangeListener {
+        void onTileChanged(int col, int row, TileData oldData, TileData newData);
+
+        void onMapCleared();
+    }
+
+    private final List<TileChangeListener> changeListeners = new ArrayList<>();
 
     public WorldMap() {
-        tileDataMap = new HashMap<>();
+        chunks = new HashMap<>();
     }
 
     //hàm tạo khóa
     /* Dùng phép dịch bit để ép 2 số int 32-bit col và row vào 1 key long 64-bit
     0xffffffffL là mask để lấy 32 bit thấp và loại bỏ sign-extension khi xử lý int như unsigned dưới dạng long*/
-    private long toKey(int col, int row) {
+    private static long toKey(int col, int row) {
         return ((long) col << 32) | (row & 0xffffffffL);
     }
 
+    // Tọa độ chunk chứa ô (floorDiv để tọa độ âm cũng đúng chunk)
+    private static int toChunkCoord(int tileCoord) {
+        return Math.floorDiv(tileCoord, TileChunk.SIZE);
+    }
+
+    // Vị trí ô trong mảng của chunk
+    private static int toLocalIndex(int col, int row) {
+        return TileChunk.toIndex(Math.floorMod(col, TileChunk.SIZE), Math.floorMod(row, TileChunk.SIZE));
+    }
+
+    // Chunk đang nằm trên heap (null nếu chưa có hoặc đang nằm trong kho ngoài heap)
+    private TileChunk getChunk(int col, int row) {
+        return chunks.get(toKey(toChunkCoord(col), toChunkCoord(row)));
+    }
+
+    // [SỬA] Chỉ đường GHI mới lấy chunk về từ kho ngoài heap (đọc thì dùng findTileData)
+    private TileChunk getOrCreateChunk(int col, int row) {
+        TileChunk chunk = getChunk(col, row);
+        if (chunk != null) return chunk;
+        int chunkX = toChunkCoord(col);
+        int chunkY = toChunkCoord(row);
+        if (offHeapStore != null && !offHeapStore.isEmpty()) {
+            chunk = restoreChunk(chunkX, chunkY);
+            if (chunk != null) return chunk;
+        }
+        chunk = new TileChunk(chunkX, chunkY);
+        chunks.put(toKey(chunkX, chunkY), chunk);
+        return chunk;
+    }
+
+    // [MỚI] Dựng lại chunk từ kho ngoài heap. Nội dung không đổi so với lúc unload
+    // -> không đánh dấu vẽ lại / cần lưu (hàm này có thể chạy giữa lúc đang duyệt dirtyTiles)
+    private TileChunk restoreChunk(int chunkX, int chunkY) {
+        TileChunk chunk = offHeapStore.take(chunkX, chunkY);
+        if (chunk == null) return null;
+        chunks.put(toKey(chunkX, chunkY), chunk);
+        tileCount += chunk.getTileCount();
+        for (int i = 0; i < TileChunk.SIZE * TileChunk.SIZE; i++) {
+            TileData data = chunk.get(i);
+            if (data == null) continue;
+            soilRegistry.update(data);
+            for (TileChangeListener listener : changeListeners) {
+                listener.onTileChanged(chunk.colAt(i), chunk.rowAt(i), null, data);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * [MỚI] Bật kho ngoài heap: chunk bị unload được nén vào file memory-mapped thay vì bỏ đi.
+     */
+    void setOffHeapStore(MappedTileStore offHeapStore) {
+        this.offHeapStore = offHeapStore;
+    }
+
     /**
-     * Hàm sẽ lấy TileData (hoặc tạo mới nếu không tồn tại)
-     * và trả về loại đất CƠ BẢN (baseTileType) của nó.
+     * [MỚI] Đóng kho ngoài heap (khi thoát game). Các chunk còn trong kho bị bỏ (đã có trong file vùng).
+     */
+    void closeOffHeapStore() {
+        if (offHeapStore == null) return;
+        offHeapStore.close();
+        offHeapStore = null;
+    }
+
+    /**
+     * [MỚI] Số chunk đang nằm trong kho ngoài heap.
+     */
+    public int getOffHeapChunkCount() {
+        return offHeapStore != null ? offHeapStore.getChunkCount() : 0;
+    }
+
+    /**
+     * Trả về loại đất CƠ BẢN (baseTileType) của ô.
+     * [SỬA] Chỉ đọc, không tạo ô mới (ô chưa tồn tại là GRASS).
      */
     public Tile getTileType(int col, int row) {
-        return getTileData(col, row).getBaseTileType();
+        return peekTileData(col, row).getBaseTileType();
     }
 
     /**
@@ -36,7 +165,7 @@ public class WorldMap {
         TileData data = getTileData(col, row);
         data.setBaseTileType(newTile);
         // Put lại vào map
-        tileDataMap.put(toKey(col, row), data);
+        setTileData(col, row, data);
     }
 
     /**
@@ -45,14 +174,44 @@ public class WorldMap {
      * nó sẽ tự động tạo một TileData (GRASS) mặc định, lưu lại và trả về.
      */
     public TileData getTileData(int col, int row) {
-        long key = toKey(col, row);
-        // Sử dụng computeIfAbsent để code gọn hơn
-        // computeIfAbsent là một method của Map (Java 8+).
-        // computeIfAbsent: Nếu 'path' chưa có trong cache,
-        // nó sẽ chạy hàm lambda (v -> new Image(...)) để tải ảnh,
-        // sau đó tự động 'put' vào cache và return ảnh đó.
-        // Cú pháp nếu ko dùng ->: V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
-        return tileDataMap.computeIfAbsent(key, k -> new TileData(Tile.GRASS));
+        TileChunk chunk = getOrCreateChunk(col, row);
+        int index = toLocalIndex(col, row);
+        TileData data = chunk.get(index);
+        if (data == null) {
+            data = new TileData(Tile.GRASS);
+            chunk.set(index, data);
+            tileCount++;
+        }
+        return data;
+    }
+
+    /**
+     * [MỚI] Lấy dữ liệu ô để ĐỌC, KHÔNG tạo mới.
+     * Nếu ô chưa tồn tại sẽ trả về một ô GRASS mặc định dùng chung (chỉ đọc, mọi setter sẽ ném lỗi).
+     * Dùng cho va chạm, render, tìm kiếm... để bản đồ không phình ra khi người chơi đi lại.
+     */
+    public TileData peekTileData(int col, int row) {
+        TileData data = findTileData(col, row);
+        return data != null ? data : DEFAULT_TILE;
+    }
+
+    /**
+     * [MỚI] Ô đã tồn tại chưa (trên heap hoặc trong kho ngoài heap). peekTileData trả về ô mặc định cho ô chưa tồn tại.
+     * [SỬA] Không lấy chunk về từ kho ngoài heap.
+     */
+    public boolean hasTileData(int col, int row) {
+        TileChunk chunk = getChunk(col, row);
+        if (chunk != null) return chunk.get(toLocalIndex(col, row)) != null;
+        return offHeapStore != null && offHeapStore.containsTile(col, row);
+    }
+
+    // [MỚI] Ô hiện tại hoặc null. Chunk nằm trong kho ngoài heap thì chỉ giải mã đúng 1 ô
+    // (bản copy: sửa nó không có tác dụng, muốn sửa phải dùng getTileData / setTileData)
+    private TileData findTileData(int col, int row) {
+        TileChunk chunk = getChunk(col, row);
+        if (chunk != null) return chunk.get(toLocalIndex(col, row));
+        if (offHeapStore == null || offHeapStore.isEmpty()) return null;
+        return offHeapStore.peek(col, row);
     }
 
     /**
@@ -60,22 +219,346 @@ public class WorldMap {
      * đã thay đổi nó.
      */
     public void setTileData(int col, int row, TileData data) {
-        tileDataMap.put(toKey(col, row), data);
+        putTileData(col, row, data, true);
+    }
+
+    /**
+     * [MỚI] Gán dữ liệu ô vừa đọc từ file vùng: giống setTileData nhưng KHÔNG tính là thay đổi cần lưu.
+     */
+    public void loadTileData(int col, int row, TileData data) {
+        changedTiles.remove(toKey(col, row));
+        putTileData(col, row, data, false);
+    }
+
+    // [SỬA] trackChange = false: không ghi nhận vào changedTiles / changedChunks (ô đọc từ file)
+    private void putTileData(int col, int row, TileData data, boolean trackChange) {
+        TileData old = getOrCreateChunk(col, row).set(toLocalIndex(col, row), data);
+        if (old == null && data != null) tileCount++;
+        else if (old != null && data == null) tileCount--;
+
+        // Cập nhật index đất canh tác
+        if (old != null && old != data) soilRegistry.remove(old);
+        soilRegistry.update(data);
+        dirtyTiles.add(toKey(col, row));
+        if (trackChange) markChanged(col, row);
+
+        for (TileChangeListener listener : changeListeners) {
+            listener.onTileChanged(col, row, old, data);
+        }
+    }
+
+    // Ghi nhận ô đã đổi dữ liệu (cho journal) và chunk chứa nó
+    private void markChanged(int col, int row) {
+        changedTiles.add(toKey(col, row));
+        changedChunks.add(toKey(toChunkCoord(col), toChunkCoord(row)));
+    }
+
+    /**
+     * [MỚI] Bỏ cả chunk khỏi bộ nhớ (vùng đã được lưu, sẽ đọc lại từ file khi cần).
+     * Listener nhận onTileChanged(old, null) cho từng ô để hủy hẹn giờ. Không tính là thay đổi cần lưu.
+     * [SỬA] Có kho ngoài heap: chunk được nén vào kho và tự lấy lại khi có ai đọc tới -> trả về true.
+     * Trả về false nếu dữ liệu chunk đã bị bỏ (phải đọc lại từ file vùng).
+     */
+    public boolean unloadChunk(int chunkX, int chunkY) {
+        TileChunk chunk = chunks.get(toKey(chunkX, chunkY));
+        if (chunk == null) return false;
+        boolean keptOffHeap = false;
+        if (offHeapStore != null) {
+            try {
+                offHeapStore.put(chunk);
+                keptOffHeap = true;
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Failed to move chunk " + chunkX + "," + chunkY + " off heap, dropping it.");
+            }
+        }
+        chunks.remove(toKey(chunkX, chunkY));
+        for (int i = 0; i < TileChunk.SIZE * TileChunk.SIZE; i++) {
+            TileData old = chunk.get(i);
+            if (old == null) continue;
+            chunk.set(i, null);
+            tileCount--;
+            soilRegistry.remove(old);
+            for (TileChangeListener listener : changeListeners) {
+                listener.onTileChanged(chunk.colAt(i), chunk.rowAt(i), old, null);
+            }
+        }
+        return keptOffHeap;
+    }
+
+    // [SỬA] Tính cả chunk đang nằm trong kho ngoài heap
+    public boolean hasChunk(int chunkX, int chunkY) {
+        return chunks.containsKey(toKey(chunkX, chunkY))
+                || (offHeapStore != null && offHeapStore.contains(chunkX, chunkY));
+    }
+
+    /**
+     * [MỚI] Duyệt các chunk đang nằm trong bộ nhớ (tọa độ chunk).
+     */
+    public void forEachChunk(ChunkVisitor visitor) {
+        for (TileChunk chunk : new ArrayList<>(chunks.values())) {
+            visitor.visit(chunk.getChunkX(), chunk.getChunkY());
+        }
+    }
+
+    /**
+     * [MỚI] Duyệt các ô (đang tồn tại) của 1 chunk.
+     */
+    public void forEachTileInChunk(int chunkX, int chunkY, TileVisitor visitor) {
+        TileChunk chunk = chunks.get(toKey(chunkX, chunkY));
+        if (chunk == null || chunk.isEmpty()) return;
+        for (int i = 0; i < TileChunk.SIZE * TileChunk.SIZE; i++) {
+            TileData data = chunk.get(i);
+            if (data != null) {
+                visitor.visit(chunk.colAt(i), chunk.rowAt(i), data);
+            }
+        }
+    }
+
+    /**
+     * [MỚI] Chunk có ô nào thay đổi mà chưa ghi vào journal không.
+     */
+    public boolean hasChangedTilesInChunk(int chunkX, int chunkY) {
+        return changedChunks.contains(toKey(chunkX, chunkY));
+    }
+
+    public void addTileChangeListener(TileChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * [MỚI] Đánh dấu ô cần vẽ lại. setTileData() đã tự đánh dấu,
+     * ai sửa trực tiếp TileData / CropData / TreeData / FenceData thì phải gọi hàm này.
+     */
+    public void markTileDirty(int col, int row) {
+        dirtyTiles.add(toKey(col, row));
+        markChanged(col, row);
+    }
+
+    public boolean hasDirtyTiles() {
+        return !dirtyTiles.isEmpty();
+    }
+
+    /**
+     * [MỚI] Duyệt và xóa danh sách ô cần vẽ lại (data là dữ liệu hiện tại, chỉ đọc).
+     */
+    public void drainDirtyTiles(TileVisitor visitor) {
+        if (dirtyTiles.isEmpty()) return;
+        dirtyTiles.forEach(key -> {
+            int col = (int) (key >> 32);
+            int row = (int) key;
+            visitor.visit(col, row, peekTileData(col, row));
+        });
+        dirtyTiles.clear();
+    }
+
+    /**
+     * [MỚI] Bỏ toàn bộ đánh dấu (khi renderer vừa vẽ lại toàn màn hình).
+     */
+    public void clearDirtyTiles() {
+        dirtyTiles.clear();
+    }
+
+    /**
+     * [MỚI] Duyệt và xóa danh sách ô đã thay đổi từ lần gọi trước (dùng cho journal lưu game).
+     * Ô đã bị xóa / chưa tồn tại được trả về dưới dạng ô mặc định (chỉ đọc).
+     */
+    public void drainChangedTiles(TileVisitor visitor) {
+        if (changedTiles.isEmpty()) return;
+        changedTiles.forEach(key -> {
+            int col = (int) (key >> 32);
+            int row = (int) key;
+            visitor.visit(col, row, peekTileData(col, row));
+        });
+        changedTiles.clear();
+        changedChunks.clear();
+    }
+
+    /**
+     * [MỚI] Bỏ danh sách ô đã thay đổi (khi vừa lưu / tải toàn bộ bản đồ).
+     */
+    public void clearChangedTiles() {
+        changedTiles.clear();
+        changedChunks.clear();
+    }
+
+    /**
+     * [MỚI] Duyệt qua tất cả các ô đang được lưu trữ kèm tọa độ.
+     * Duyệt theo từng chunk nên các ô gần nhau được xử lý liên tiếp.
+     * Visitor được phép gọi getTileData() (có thể tạo chunk mới) trong lúc duyệt.
+     */
+    public void forEachTile(TileVisitor visitor) {
+        for (TileChunk chunk : new ArrayList<>(chunks.values())) {
+            if (chunk.isEmpty()) continue;
+            for (int i = 0; i < TileChunk.SIZE * TileChunk.SIZE; i++) {
+                TileData data = chunk.get(i);
+                if (data != null) {
+                    visitor.visit(chunk.colAt(i), chunk.rowAt(i), data);
+                }
+            }
+        }
+    }
+
+    /**
+     * [MỚI] Xóa toàn bộ dữ liệu bản đồ (dùng khi Load Game).
+     */
+    public void clear() {
+        chunks.clear();
+        tileCount = 0;
+        soilRegistry.clear();
+        dirtyTiles.clear();
+        changedTiles.clear();
+        changedChunks.clear();
+        if (offHeapStore != null) offHeapStore.clear();
+        for (TileChangeListener listener : changeListeners) {
+            listener.onMapCleared();
+        }
+    }
+
+    /**
+     * [MỚI] Danh sách các ô đất đang canh tác (SOIL, ướt, có phân hoặc có cây).
+     * Ai sửa trực tiếp TileData (không qua setTileData) thì gọi soilRegistry.update(data) để đồng bộ.
+     */
+    public SoilRegistry getSoilRegistry() {
+        return soilRegistry;
+    }
+
+    /**
+     * Số ô đang được lưu trữ.
+     * [SỬA] Chỉ tính ô trên heap (không tính chunk trong kho ngoài heap).
+     */
+    public int getTileCount() {
+        return tileCount;
     }
 
     /**
      * Trả về tất cả các TileData đang được lưu trữ.
      * (Dùng cho CropManager để cập nhật cây trồng)
+     * [SỬA] Đây là view chỉ đọc duyệt trực tiếp trên các chunk (không copy).
      */
     public Collection<TileData> getAllTileData() {
-        return tileDataMap.values();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<TileData> iterator() {
+                return new TileIterator();
+            }
+
+            @Override
+            public int size() {
+                return tileCount;
+            }
+        };
     }
 
     /**
      * [MỚI] Trả về map gốc để truy cập cả Key (tọa độ) và Value (dữ liệu).
      * Cần thiết cho việc lưu game và cập nhật Fence toàn cục.
+     * [SỬA] Là view chỉ đọc trên các chunk, key vẫn theo định dạng (col << 32) | row.
+     * Nên dùng forEachTile() để tránh tạo Long key.
+     */
+    public Map<Long, TileData> getTileDataMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<Long, TileData>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<Long, TileData>> iterator() {
+                        TileIterator it = new TileIterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return it.hasNext();
+                            }
+
+                            @Override
+                            public Entry<Long, TileData> next() {
+                                TileData data = it.next();
+                                return new SimpleImmutableEntry<>(toKey(it.lastCol(), it.lastRow()), data);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return tileCount;
+                    }
+                };
+            }
+
+            @Override
+            public TileData get(Object key) {
+                if (!(key instanceof Long)) return null;
+                long k = (Long) key;
+                return findTileData((int) (k >> 32), (int) k);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return tileCount;
+            }
+        };
+    }
+
+    /**
+     * Iterator duyệt các ô khác null theo thứ tự từng chunk.
      */
-    public java.util.Map<Long, TileData> getTileDataMap() {
-        return tileDataMap;
+    private class TileIterator implements Iterator<TileData> {
+        private final Iterator<TileChunk> chunkIterator = chunks.values().iterator();
+        private TileChunk currentChunk;
+        private TileChunk lastChunk;
+        private int nextIndex = -1;
+        private int lastIndex = -1;
+
+        TileIterator() {
+            advance();
+        }
+
+        // Tìm ô khác null tiếp theo
+        private void advance() {
+            while (true) {
+                if (currentChunk != null) {
+                    for (int i = nextIndex + 1; i < TileChunk.SIZE * TileChunk.SIZE; i++) {
+                        if (currentChunk.get(i) != null) {
+                            nextIndex = i;
+                            return;
+                        }
+                    }
+                }
+                if (!chunkIterator.hasNext()) {
+                    currentChunk = null;
+                    return;
+                }
+                currentChunk = chunkIterator.next();
+                nextIndex = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return currentChunk != null;
+        }
+
+        @Override
+        public TileData next() {
+            if (currentChunk == null) throw new NoSuchElementException();
+            lastChunk = currentChunk;
+            lastIndex = nextIndex;
+            TileData data = currentChunk.get(nextIndex);
+            advance();
+            return data;
+        }
+
+        int lastCol() {
+            return lastChunk.colAt(lastIndex);
+        }
+
+        int lastRow() {
+            return lastChunk.rowAt(lastIndex);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.farmSimulation.view;
+
+import com.example.farmSimulation.config.CropConfig;
+import com.example.farmSimulation.config.FenceConfig;
+import com.example.farmSimulation.config.HudConfig;
+import com.example.farmSimulation.config.ItemSpriteConfig;
+import com.example.farmSimulation.config.PlayerSpriteConfig;
+import com.example.farmSimulation.config.TreeConfig;
+import com.example.farmSimulation.config.WorldConfig;
+import com.example.farmSimulation.model.CropStatusIndicator;
+import com.example.farmSimulation.model.Tile;
+import com.example.farmSimulation.model.TileData;
+import com.example.farmSimulation.model.WorldMap;
+import com.example.farmSimulation.view.assets.ImageManager;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import lombok.Getter;
+
+/**
+ * [MỚI] Renderer bản đồ dạng Canvas: vẽ tất cả các lớp (đất, phân bón, cây trồng, cây, rào,
+ * item trên đất, icon trạng thái) lên MỘT Canvas bằng drawImage, thay cho ~10 node ImageView mỗi ô.
+ * Thứ tự vẽ giống WorldRenderer: Lớp môi trường (theo từng hàng) -> Item trên đất -> UI/Debug.
+ *
+ * Canvas chỉ vẽ lại khi camera qua ô mới hoặc có ô trên màn hình thay đổi,
+ * phần cuộn mượt giữa 2 ô do WorldRenderer dời worldPane.
+ */
+public class CanvasTileRenderer {
+    private final ImageManager assetManager;
+    private final WorldMap worldMap;
+
+    @Getter
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+
+    private int lastStartCol;
+    private int lastStartRow;
+    private boolean hasRendered = false;
+    private boolean visibleTileDirty = false; // Có ô trên màn hình thay đổi trong lần duyệt dirty
+
+    public CanvasTileRenderer(ImageManager assetManager, WorldMap worldMap) {
+        this.assetManager = assetManager;
+        this.worldMap = worldMap;
+        this.canvas = new Canvas(WorldConfig.NUM_COLS_ON_SCREEN * WorldConfig.TILE_SIZE,
+                WorldConfig.NUM_ROWS_ON_SCREEN * WorldConfig.TILE_SIZE);
+        this.canvas.setMouseTransparent(true);
+        this.gc = canvas.getGraphicsContext2D();
+        this.gc.setImageSmoothing(false); // Giữ pixel art sắc nét (giống ImageView.setSmooth(false))
+    }
+
+    /**
+     * Vẽ lại Canvas nếu cần. startCol/startRow là ô thế giới ở góc trên trái màn hình.
+     */
+    public void updateMap(int startCol, int startRow, boolean forceRedraw) {
+        boolean needsRedraw = forceRedraw || !hasRendered || startCol != lastStartCol || startRow != lastStartRow;
+
+        if (!needsRedraw && worldMap.hasDirtyTiles()) {
+            // Chỉ cần biết có ô nào trên màn hình đổi không (cây cao có thể đè sang ô bên trên -> vẽ lại cả Canvas)
+            visibleTileDirty = false;
+            worldMap.drainDirtyTiles((col, row, data) -> {
+                if (col >= startCol && col < startCol + WorldConfig.NUM_COLS_ON_SCREEN
+                        && row >= startRow && row < startRow + WorldConfig.NUM_ROWS_ON_SCREEN) {
+                    visibleTileDirty = true;
+                }
+            });
+            needsRedraw = visibleTileDirty;
+        }
+        if (!needsRedraw) return;
+
+        redraw(startCol, startRow);
+        worldMap.clearDirtyTiles();
+        lastStartCol = startCol;
+        lastStartRow = startRow;
+        hasRendered = true;
+    }
+
+    private void redraw(int startCol, int startRow) {
+        int cols = WorldConfig.NUM_COLS_ON_SCREEN;
+        int rows = WorldConfig.NUM_ROWS_ON_SCREEN;
+        double tile = WorldConfig.TILE_SIZE;
+
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        // Layer 1: Môi trường (Đất, Phân bón, Cây trồng, Cây, Rào) - theo từng hàng để hàng dưới đè hàng trên
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                TileData data = worldMap.peekTileData(startCol + c, startRow + r);
+                double x = c * tile;
+                double y = r * tile;
+
+                Tile type = data.getBaseTileType();
+                Tile baseType = (type == Tile.TREE || type == Tile.FENCE) ? Tile.GRASS : type;
+                draw(assetManager.getTileTexture(baseType), x, y, tile, tile);
+
+                if (data.isFertilized()) {
+                    draw(assetManager.getFertilizerTexture(), x, y, tile, tile);
+                }
+                if (data.getCropData() != null) {
+                    draw(assetManager.getCropTexture(data.getCropData()), x, y - CropConfig.CROP_Y_OFFSET,
+                            CropConfig.CROP_SPRITE_WIDTH, CropConfig.CROP_SPRITE_HEIGHT);
+                }
+                if (data.getTreeData() != null) {
+                    draw(assetManager.getTreeTexture(data.getTreeData()), x, y - TreeConfig.TREE_Y_OFFSET,
+                            TreeConfig.TREE_SPRITE_WIDTH, TreeConfig.TREE_SPRITE_HEIGHT);
+                }
+                if (data.getFenceData() != null) {
+                    draw(assetManager.getFenceTexture(data.getFenceData()), x, y - FenceConfig.FENCE_Y_OFFSET,
+                            FenceConfig.FENCE_SPRITE_WIDTH, FenceConfig.FENCE_SPRITE_HEIGHT);
+                }
+            }
+        }
+
+        // Layer 2: Item trên đất
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                TileData data = worldMap.peekTileData(startCol + c, startRow + r);
+                if (data.getGroundItem() != null && data.getGroundItemAmount() > 0) {
+                    draw(assetManager.getItemIcon(data.getGroundItem()),
+                            c * tile + data.getGroundItemOffsetX(), r * tile + data.getGroundItemOffsetY(),
+                            ItemSpriteConfig.ITEM_SPRITE_WIDTH, ItemSpriteConfig.ITEM_SPRITE_HEIGHT);
+                }
+            }
+        }
+
+        // Layer 3: UI (Icon trạng thái) và Debug
+        boolean debugTree = TreeConfig.DEBUG_TREE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS;
+        boolean debugFence = FenceConfig.DEBUG_FENCE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                TileData data = worldMap.peekTileData(startCol + c, startRow + r);
+                double x = c * tile;
+                double y = r * tile;
+
+                Image statusIcon = assetManager.getStatusIcon(data.getStatusIndicator());
+                if (statusIcon != null) {
+                    draw(assetManager.getIconBG(), x, y - HudConfig.ICON_Y_OFFSET, HudConfig.ICON_BG_SIZE, HudConfig.ICON_BG_SIZE);
+
+                    double iconWidth = data.getStatusIndicator() == CropStatusIndicator.NEED_WATER_AND_FERTILIZER
+                            ? HudConfig.ICON_SIZE * 2 : HudConfig.ICON_SIZE;
+                    double iconOffset = (HudConfig.ICON_BG_SIZE - iconWidth) / 2;
+                    draw(statusIcon, x + iconOffset, y - HudConfig.ICON_Y_OFFSET + HudConfig.ICON_PADDING_TOP,
+                            iconWidth, HudConfig.ICON_SIZE);
+                }
+
+                if (debugTree && data.getTreeData() != null && data.getTreeData().getGrowthStage() > 0) {
+                    double visualTreeBottomY = (y + tile) - CropConfig.CROP_Y_OFFSET;
+                    gc.setStroke(TreeConfig.DEBUG_TREE_HITBOX_COLOR);
+                    gc.setLineWidth(2.0);
+                    gc.strokeRect(x + (tile - TreeConfig.TREE_HITBOX_WIDTH) / 2.0,
+                            visualTreeBottomY - TreeConfig.TREE_HITBOX_HEIGHT - TreeConfig.TREE_HITBOX_Y_OFFSET_FROM_BOTTOM,
+                            TreeConfig.TREE_HITBOX_WIDTH, TreeConfig.TREE_HITBOX_HEIGHT);
+                }
+                if (debugFence && data.getFenceData() != null && data.getFenceData().isSolid()) {
+                    gc.setStroke(FenceConfig.DEBUG_FENCE_HITBOX_COLOR);
+                    gc.setLineWidth(2.0);
+                    gc.strokeRect(x + (tile - FenceConfig.FENCE_HITBOX_WIDTH) / 2.0,
+                            (y + tile) - FenceConfig.FENCE_HITBOX_HEIGHT - FenceConfig.FENCE_HITBOX_Y_OFFSET_FROM_BOTTOM,
+                            FenceConfig.FENCE_HITBOX_WIDTH, FenceConfig.FENCE_HITBOX_HEIGHT);
+                }
+            }
+        }
+    }
+
+    private void draw(Image image, double x, double y, double width, double height) {
+        if (image != null) {
+            gc.drawImage(image, x, y, width, height);
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class CharacterCreationView {
     private final TextField nameField;
     private final ComboBox<String> genderComboBox;
     private final Label errorLabel;
+    private final Label loadingLabel; // [MỚI] Trạng thái tải tài nguyên nền
     private BiConsumer<String, String> onStartGameCallback; // Callback: (name, gender)
     private Runnable onLoadGameCallback; // Callback cho Load Game
 
@@ -115,6 +116,13 @@ public class CharacterCreationView {
         errorLabel.setVisible(false);
         errorLabel.setWrapText(true);
 
+        // [MỚI] Loading label (hiện trong lúc tài nguyên đang tải nền)
+        loadingLabel = new Label("Loading assets...");
+        loadingLabel.setTextFill(Color.LIGHTGRAY);
+        loadingLabel.setFont(Font.font("Arial", 14));
+        loadingLabel.setVisible(false);
+        loadingLabel.setManaged(false);
+
         // Start Game button (Đã đổi tên)
         Button startButton = new Button(SettingsMenuConfig.START_NEW_GAME_TEXT);
         startButton.setPrefWidth(200);
@@ -171,6 +179,7 @@ public class CharacterCreationView {
                 nameLabel, nameField,
                 genderLabel, genderComboBox,
                 errorLabel,
+                loadingLabel,
                 startButton,
                 loadButton // Thêm nút Load vào form
         );
@@ -194,6 +203,14 @@ public class CharacterCreationView {
         this.onLoadGameCallback = callback;
     }
 
+    /**
+     * [MỚI] Hiện / ẩn dòng "Loading assets..." (gọi trên FX thread)
+     */
+    public void setAssetsLoading(boolean loading) {
+        loadingLabel.setVisible(loading);
+        loadingLabel.setManaged(loading);
+    }
+
     /**
      * Tạo Scene từ view này
      * @return Scene với CharacterCreationView
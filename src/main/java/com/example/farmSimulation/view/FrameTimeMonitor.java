@@ -0,0 +1,100 @@
+package com.example.farmSimulation.view;
+
+import com.example.farmSimulation.config.WorldConfig;
+
+/**
+ * [MỚI] Đo thời gian khung hình để so sánh các chế độ renderer.
+ * [SỬA] Số chính là khoảng cách giữa 2 pulse liên tiếp: gồm cả logic, đồng bộ scene graph và vẽ của Prism
+ * (phần khác nhau thật sự giữa lưới ImageView và Canvas). Phải chạy với
+ * -Dprism.vsync=false -Djavafx.animation.fullspeed=true, nếu không khoảng này bị khóa ở ~16.7 ms.
+ * Kèm theo là thời gian xử lý trong handler (update) và riêng phần vẽ map để biết chi phí nằm ở đâu.
+ * Cứ FRAME_TIME_REPORT_INTERVAL frame thì in trung bình / lớn nhất ra console.
+ */
+public class FrameTimeMonitor {
+    // Khoảng cách lớn hơn mức này coi như game vừa dừng (pause, chuyển cảnh) -> không tính
+    private static final long MAX_FRAME_INTERVAL_NANOS = 500_000_000L;
+
+    private final String label;
+    private long lastPulseNanos = 0;
+    private long frameStartNanos = 0;
+    private long renderNanosThisFrame = 0; // Thời gian vẽ map trong frame hiện tại
+
+    private int intervalCount = 0;
+    private long totalIntervalNanos = 0;
+    private long maxIntervalNanos = 0;
+
+    private int frameCount = 0;
+    private long totalFrameNanos = 0;
+    private long maxFrameNanos = 0;
+    private long totalRenderNanos = 0;
+    private long maxRenderNanos = 0;
+
+    public FrameTimeMonitor(String label) {
+        this.label = label;
+        if (!"false".equals(System.getProperty("prism.vsync"))
+                || !"true".equals(System.getProperty("javafx.animation.fullspeed"))) {
+            System.out.println("[FrameTime] Run with -Dprism.vsync=false -Djavafx.animation.fullspeed=true,"
+                    + " otherwise frame intervals are capped by the 60 Hz pulse.");
+        }
+    }
+
+    /**
+     * Gọi ở đầu pulse (trước khi cập nhật logic).
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        if (lastPulseNanos != 0) {
+            long interval = now - lastPulseNanos;
+            if (interval < MAX_FRAME_INTERVAL_NANOS) {
+                totalIntervalNanos += interval;
+                maxIntervalNanos = Math.max(maxIntervalNanos, interval);
+                intervalCount++;
+            }
+        }
+        lastPulseNanos = now;
+        frameStartNanos = now;
+        renderNanosThisFrame = 0;
+    }
+
+    /**
+     * Cộng thời gian 1 lần vẽ map (worldRenderer.updateMap) vào frame hiện tại.
+     */
+    public void recordRender(long nanos) {
+        renderNanosThisFrame += nanos;
+    }
+
+    /**
+     * Gọi ở cuối pulse.
+     */
+    public void endFrame() {
+        if (frameStartNanos == 0) return;
+        long frameNanos = System.nanoTime() - frameStartNanos;
+        frameStartNanos = 0;
+
+        totalFrameNanos += frameNanos;
+        maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+        totalRenderNanos += renderNanosThisFrame;
+        maxRenderNanos = Math.max(maxRenderNanos, renderNanosThisFrame);
+        frameCount++;
+
+        if (frameCount >= WorldConfig.FRAME_TIME_REPORT_INTERVAL) {
+            double avgInterval = intervalCount > 0 ? totalIntervalNanos / (double) intervalCount : 0;
+            System.out.printf("[FrameTime] %s: frame avg %.3f ms (max %.3f ms, %.0f fps), update avg %.3f ms (max %.3f ms), map render avg %.3f ms (max %.3f ms)%n",
+                    label, toMs(avgInterval), toMs(maxIntervalNanos), avgInterval > 0 ? 1e9 / avgInterval : 0,
+                    toMs(totalFrameNanos / (double) frameCount), toMs(maxFrameNanos),
+                    toMs(totalRenderNanos / (double) frameCount), toMs(maxRenderNanos));
+            intervalCount = 0;
+            totalIntervalNanos = 0;
+            maxIntervalNanos = 0;
+            frameCount = 0;
+            totalFrameNanos = 0;
+            maxFrameNanos = 0;
+            totalRenderNanos = 0;
+            maxRenderNanos = 0;
+        }
+    }
+
+    private static double toMs(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.farmSimulation.view;
+
+import javafx.scene.control.Label;
+
+/**
+ * [MỚI] Gắn một Label của HUD với giá trị số: chỉ ghép chuỗi và gọi setText khi giá trị thực sự đổi.
+ * Các hàm update được gọi mỗi frame, nên khi đứng yên sẽ không tạo String / không làm Label layout lại.
+ */
+public class HudTextBinding {
+    private final Label label;
+    private final String prefix;    // VD: "LEVEL: ", "$", "X: "
+    private final String separator; // Giữa 2 giá trị (update(a, b)), VD: ", Y: "
+    private final StringBuilder buffer = new StringBuilder(24);
+
+    private boolean hasValue = false;
+    private int lastA;
+    private int lastB;
+    private String lastText;
+
+    public HudTextBinding(Label label, String prefix) {
+        this(label, prefix, "");
+    }
+
+    public HudTextBinding(Label label, String prefix, String separator) {
+        this.label = label;
+        this.prefix = prefix;
+        this.separator = separator;
+    }
+
+    /**
+     * Hiển thị prefix + value.
+     */
+    public void update(int value) {
+        if (hasValue && value == lastA) return;
+        hasValue = true;
+        lastA = value;
+
+        buffer.setLength(0);
+        buffer.append(prefix).append(value);
+        label.setText(buffer.toString());
+    }
+
+    /**
+     * Hiển thị prefix + a + separator + b.
+     */
+    public void update(int a, int b) {
+        if (hasValue && a == lastA && b == lastB) return;
+        hasValue = true;
+        lastA = a;
+        lastB = b;
+
+        buffer.setLength(0);
+        buffer.append(prefix).append(a).append(separator).append(b);
+        label.setText(buffer.toString());
+    }
+
+    /**
+     * Hiển thị chuỗi đã định dạng sẵn (so sánh theo tham chiếu -> dùng với bảng chuỗi dựng trước).
+     */
+    public void update(String text) {
+        if (text == lastText) return;
+        lastText = text;
+        label.setText(text);
+    }
+
+    /**
+     * Buộc lần update tiếp theo ghi lại Label (VD: sau khi Label bị đổi text từ chỗ khác).
+     */
+    public void invalidate() {
+        hasValue = false;
+        lastText = null;
+    }
+}
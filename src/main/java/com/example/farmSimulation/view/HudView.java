@@ -32,6 +32,27 @@ public class HudView extends Pane {
     // Brightness setting (0.0 - 1.0)
     private double brightness = GameLogicConfig.DEFAULT_BRIGHTNESS;
 
+    // [MỚI] Trạng thái ánh sáng để tính độ tối (xem applyDarkness)
+    private double lightIntensity = 1.0;
+    private double rainDarkness = 0.0;
+    private int lastDarknessStep = -1;
+
+    // [MỚI] Chuỗi giờ dựng sẵn cho mọi phút trong ngày (định dạng 12 giờ: "12:10", "1:05")
+    private static final String[] CLOCK_TEXT = buildClockText();
+
+    // [MỚI] Màu thanh stamina (tạo 1 lần thay vì Color.web mỗi frame)
+    private static final Color STAMINA_HIGH_COLOR = Color.web("#2ecc71");
+    private static final Color STAMINA_MEDIUM_COLOR = Color.web("#f1c40f");
+    private static final Color STAMINA_LOW_COLOR = Color.web("#e74c3c");
+
+    // [MỚI] Binding cho các Label cập nhật mỗi frame (chỉ setText khi giá trị đổi)
+    private final HudTextBinding levelText;
+    private final HudTextBinding moneyText;
+    private final HudTextBinding coordsText;
+    private final HudTextBinding dayText;
+    private final HudTextBinding timeText;
+    private Boolean lastRaining = null; // Trạng thái icon thời tiết đang hiển thị
+
     // --- Top-Left: Player Stats ---
     private final Rectangle levelRectangle; // Rounded Rectangle hiển thị Level (badge style)
     private final Label levelLabel; // Text Level (hiển thị "LEVEL: X")
@@ -69,6 +90,8 @@ public class HudView extends Pane {
     private final StackPane trashIconButtonPane; // Container for trash icon (for drag-and-drop deletion)
     private ImageView trashIconButton; // Icon Trash Can (from GUI icons)
 
+    private final Label savingIndicator; // [MỚI] Chỉ báo đang lưu game (autosave chạy nền)
+
     // --- Overlays ---
     private final Rectangle darknessOverlay; // Lớp phủ màu đen để tạo hiệu ứng tối
 
@@ -186,6 +209,10 @@ public class HudView extends Pane {
         coordsLabel.setStyle(HudConfig.COORDS_TEXT_STYLE); // Font nhỏ, trắng
         coordsContainer.getChildren().add(coordsLabel);
 
+        levelText = new HudTextBinding(levelLabel, "LEVEL: ");
+        moneyText = new HudTextBinding(moneyLabel, "$");
+        coordsText = new HudTextBinding(coordsLabel, "X: ", ", Y: ");
+
         // --- Khởi tạo Top-Right Elements (từ trên xuống: Settings, Timer, Weather) ---
         // Tính toán vị trí X để dính sát cạnh phải: Icons centered at SCREEN_WIDTH - MARGIN - RADIUS
         double iconRadius = HudConfig.ICON_BUTTON_SIZE / 2;
@@ -228,6 +255,9 @@ public class HudView extends Pane {
         timerLabel.setAlignment(Pos.CENTER_RIGHT); // Căn text sang phải
         timerLabel.setLayoutX(WindowConfig.SCREEN_WIDTH - HudConfig.HUD_TOP_RIGHT_MARGIN - HudConfig.TIMER_LABEL_WIDTH);
         timerLabel.setLayoutY(currentY);
+
+        dayText = new HudTextBinding(dayLabel, "Day ");
+        timeText = new HudTextBinding(timerLabel, "");
         timerLabel.setMouseTransparent(true);
 
         currentY += 25.0; // Chiều cao của time label + spacing
@@ -315,6 +345,16 @@ public class HudView extends Pane {
         trashIconButtonPane.getChildren().add(trashIconButton);
         // Trash icon is not clickable, only for drag-and-drop detection
 
+        // [MỚI] Chỉ báo "Saving..." (ẩn mặc định, hiện khi đang ghi file save)
+        savingIndicator = new Label(HudConfig.SAVING_INDICATOR_TEXT);
+        savingIndicator.setStyle(HudConfig.SAVING_INDICATOR_STYLE);
+        savingIndicator.setPrefWidth(HudConfig.SAVING_INDICATOR_WIDTH);
+        savingIndicator.setAlignment(Pos.CENTER);
+        savingIndicator.setLayoutX(shopIconCenterX - shopIconRadius - HudConfig.SAVING_INDICATOR_MARGIN - HudConfig.SAVING_INDICATOR_WIDTH);
+        savingIndicator.setLayoutY(shopIconCenterY - HudConfig.SAVING_INDICATOR_MARGIN);
+        savingIndicator.setMouseTransparent(true);
+        savingIndicator.setVisible(false);
+
         // --- Khởi tạo Temporary Text ---
         temporaryText = new Text();
         temporaryText.setFont(HudConfig.TEMP_TEXT_FONT);
@@ -346,6 +386,7 @@ public class HudView extends Pane {
                 shopIconButtonPane, // Shop Icon (ImageView) ở Bottom-Right
                 trashIconButtonPane, // Trash Can Icon (ImageView) ở Bottom-Left
                 settingsIconButtonPane, // Settings Icon (ImageView) ở Top-Right
+                savingIndicator, // [MỚI] Chỉ báo đang lưu
                 temporaryText
         );
 
@@ -450,7 +491,7 @@ public class HudView extends Pane {
         var player = gameManager.getMainPlayer();
 
         // Update Level
-        levelLabel.setText("LEVEL: " + player.getLevel());
+        levelText.update(player.getLevel());
 
         // Update XP Bar - Sử dụng getter từ Lombok (@Getter annotation)
         double xpProgress = 0.0;
@@ -471,13 +512,13 @@ public class HudView extends Pane {
         Color staminaColor;
         if (percentage > 0.6) {
             // Green when above 60%
-            staminaColor = Color.web("#2ecc71");
+            staminaColor = STAMINA_HIGH_COLOR;
         } else if (percentage > 0.15) {
             // Yellow when between 15% and 60%
-            staminaColor = Color.web("#f1c40f");
+            staminaColor = STAMINA_MEDIUM_COLOR;
         } else {
             // Red when 15% or below
-            staminaColor = Color.web("#e74c3c");
+            staminaColor = STAMINA_LOW_COLOR;
         }
         staminaBarFill.setFill(staminaColor);
 
@@ -499,15 +540,25 @@ public class HudView extends Pane {
 
             int tileY = -(int) Math.floor(player.getTileY() / WorldConfig.TILE_SIZE);
 
-            coordsLabel.setText(String.format("X: %d, Y: %d", tileX, tileY));
+            coordsText.update(tileX, tileY);
         }
     }
 
     /**
      * Cập nhật hiển thị thời tiết
      */
+    /**
+     * [MỚI] Hiện / ẩn chỉ báo đang lưu game
+     */
+    public void setSaving(boolean saving) {
+        if (savingIndicator.isVisible() != saving) {
+            savingIndicator.setVisible(saving);
+        }
+    }
+
     public void updateWeather(boolean isRaining) {
         if (assetManager == null || weatherIcon == null) return;
+        if (lastRaining != null && lastRaining == isRaining) return; // [MỚI] Không đổi -> bỏ qua
 
         // Load weather icon from GUI icons
         Image weatherIconImage;
@@ -519,6 +570,7 @@ public class HudView extends Pane {
 
         if (weatherIconImage != null) {
             weatherIcon.setImage(weatherIconImage);
+            lastRaining = isRaining;
         }
     }
 
@@ -545,9 +597,12 @@ public class HudView extends Pane {
         temporaryTextAnimation.play();
     }
 
-    public void updateTimer(int day, String timeString) {
-        this.dayLabel.setText("Day " + day);
-        this.timerLabel.setText(timeString);
+    /**
+     * [SỬA] Nhận phút trong ngày (0 - 1439) thay vì chuỗi đã format, chuỗi lấy từ bảng dựng sẵn
+     */
+    public void updateTimer(int day, int minuteOfDay) {
+        this.dayText.update(day);
+        this.timeText.update(CLOCK_TEXT[Math.floorMod(minuteOfDay, CLOCK_TEXT.length)]);
         // Vị trí X đã được set cố định trong constructor, không cần tính lại
         // Day và Time labels đã có fixed width và alignment CENTER_RIGHT
     }
@@ -557,7 +612,25 @@ public class HudView extends Pane {
      * Áp dụng brightness setting sử dụng overlay method
      */
     public void updateLighting(double intensity) {
+        this.lightIntensity = intensity;
+        applyDarkness();
+    }
+
+    /**
+     * [MỚI] Độ tối thêm khi mưa (0 = không mưa), cộng dồn lên độ tối ngày đêm
+     */
+    public void setRainDarkness(double rainDarkness) {
+        this.rainDarkness = rainDarkness;
+        applyDarkness();
+    }
+
+    /**
+     * [MỚI] Tính độ tối cuối cùng (ngày đêm + brightness + mưa), làm tròn theo bậc
+     * và chỉ đổi opacity của darknessOverlay khi sang bậc khác.
+     */
+    private void applyDarkness() {
         final double MAX_DARKNESS = 0.95; // Maximum opacity clamp
+        double intensity = this.lightIntensity;
         // Tính opacity tự nhiên dựa trên intensity (0.0 = sáng, 1.0 = tối)
         double naturalDarkness = 1.0 - intensity;
 
@@ -570,7 +643,13 @@ public class HudView extends Pane {
         // Clamp opacity giữa 0.0 và MAX_DARKNESS (0.95)
         finalOpacity = Math.max(0.0, Math.min(finalOpacity, MAX_DARKNESS));
 
-        this.darknessOverlay.setOpacity(finalOpacity);
+        // Làm tối thêm khi mưa (giới hạn bởi MAX_DARKNESS_OPACITY)
+        finalOpacity = Math.min(finalOpacity + rainDarkness, GameLogicConfig.MAX_DARKNESS_OPACITY);
+
+        int step = (int) Math.round(finalOpacity * GameLogicConfig.DARKNESS_OPACITY_STEPS);
+        if (step == lastDarknessStep) return; // Không đổi bậc -> không đụng vào Scene Graph
+        lastDarknessStep = step;
+        this.darknessOverlay.setOpacity(step / (double) GameLogicConfig.DARKNESS_OPACITY_STEPS);
     }
 
     /**
@@ -612,7 +691,26 @@ public class HudView extends Pane {
      * Cập nhật hiển thị số tiền
      */
     public void updateMoney(double amount) {
-        this.moneyLabel.setText("$" + (int)amount);
+        this.moneyText.update((int) amount);
+    }
+
+    /**
+     * [MỚI] Dựng sẵn chuỗi giờ cho 24 * 60 phút
+     */
+    private static String[] buildClockText() {
+        String[] text = new String[24 * 60];
+        for (int minuteOfDay = 0; minuteOfDay < text.length; minuteOfDay++) {
+            int hours24 = minuteOfDay / 60;
+            int minutes = minuteOfDay % 60;
+
+            // Chuyển đổi từ 24 giờ sang 12 giờ (đơn giản, không có AM/PM)
+            int hours12 = hours24 % 12;
+            if (hours12 == 0) {
+                hours12 = 12; // 0 giờ và 12 giờ đều hiển thị là 12
+            }
+            text[minuteOfDay] = hours12 + (minutes < 10 ? ":0" : ":") + minutes;
+        }
+        return text;
     }
 
     /**
@@ -40,6 +40,10 @@ public class MainGameView {
 
     // Các thành phần View con
     private WorldRenderer worldRenderer;
+    // [MỚI] Chọn renderer bản đồ: Canvas (true) hoặc lưới ImageView (false)
+    // [SỬA] Truyền qua constructor (renderer được tạo 1 lần trong initUI)
+    private final boolean useCanvasTiles;
+    private FrameTimeMonitor frameTimeMonitor; // Đo frame time (khi DEBUG_FRAME_TIME = true)
     private HudView hudView;
     private SettingsMenuView settingsMenu;
     private HotbarView hotbarView;
@@ -63,9 +67,17 @@ public class MainGameView {
      * (Dependency Injection)
      */
     public MainGameView(ImageManager assetManager, WorldMap worldMap, HotbarView hotbarView) {
+        this(assetManager, worldMap, hotbarView, WorldConfig.USE_CANVAS_TILE_RENDERER);
+    }
+
+    /**
+     * [MỚI] useCanvasTiles: vẽ bản đồ lên Canvas (true) hay lưới ImageView (false).
+     */
+    public MainGameView(ImageManager assetManager, WorldMap worldMap, HotbarView hotbarView, boolean useCanvasTiles) {
         this.assetManager = assetManager;
         this.worldMap = worldMap;
         this.hotbarView = hotbarView;
+        this.useCanvasTiles = useCanvasTiles;
         this.visualEffectManager = new VisualEffectManager(); // Khởi tạo
     }
     /**
@@ -81,7 +93,8 @@ public class MainGameView {
         this.entityPane.setMouseTransparent(true); // Không chặn click chuột xuống đất
 
         // Khởi tạo các View con
-        this.worldRenderer = new WorldRenderer(assetManager, worldMap, entityPane);
+        this.worldRenderer = new WorldRenderer(assetManager, worldMap, entityPane, useCanvasTiles);
+        this.frameTimeMonitor = new FrameTimeMonitor(useCanvasTiles ? "Canvas renderer" : "ImageView renderer");
         this.hudView = new HudView();
         // HudView sẽ được set gameManager và mainGameView sau (trong setGameManager)
         // ⚠️ Phải khởi tạo SettingsMenu SAU KHI gameManager đã được set
@@ -153,8 +166,27 @@ public class MainGameView {
     // --- CÁC HÀM ĐIỀU PHỐI (DELEGATE) ---
     // (Chỉ gọi lệnh cho các View con)
 
+    // [SỬA] Đo thời gian khung hình (gồm cả phần Prism vẽ) để so sánh giữa 2 chế độ renderer (khi DEBUG_FRAME_TIME = true)
+    public void beginFrameTiming() {
+        if (WorldConfig.DEBUG_FRAME_TIME && frameTimeMonitor != null) {
+            frameTimeMonitor.beginFrame();
+        }
+    }
+
+    public void endFrameTiming() {
+        if (WorldConfig.DEBUG_FRAME_TIME && frameTimeMonitor != null) {
+            frameTimeMonitor.endFrame();
+        }
+    }
+
     // Hàm cập nhật map
     public void updateMap(double worldOffsetX, double worldOffsetY, boolean forceRedraw) {
+        if (WorldConfig.DEBUG_FRAME_TIME && frameTimeMonitor != null) {
+            long start = System.nanoTime();
+            worldRenderer.updateMap(worldOffsetX, worldOffsetY, forceRedraw);
+            frameTimeMonitor.recordRender(System.nanoTime() - start);
+            return;
+        }
         worldRenderer.updateMap(worldOffsetX, worldOffsetY, forceRedraw);
     }
 
@@ -220,8 +252,8 @@ public class MainGameView {
     }
 
     // Hàm cập nhật thời gian
-    public void updateTimer(int day, String timeString) {
-        hudView.updateTimer(day, timeString);
+    public void updateTimer(int day, int minuteOfDay) {
+        hudView.updateTimer(day, minuteOfDay);
     }
 
     // Hàm cập nhật ánh sáng
@@ -244,12 +276,19 @@ public class MainGameView {
     /**
      * Cập nhật vẽ động vật
      */
-    public void updateAnimals(java.util.List<com.example.farmSimulation.model.Animal> animals, double worldOffsetX, double worldOffsetY) {
+    public void updateAnimals(java.util.List<com.example.farmSimulation.model.Animal> animals, double worldOffsetX, double worldOffsetY, long animationTimeMs) {
         if (worldRenderer != null) {
-            worldRenderer.updateAnimals(animals, worldOffsetX, worldOffsetY);
+            worldRenderer.updateAnimals(animals, worldOffsetX, worldOffsetY, animationTimeMs);
         }
     }
 
+    /**
+     * [MỚI] Cập nhật các hiệu ứng hình ảnh theo thời gian của đồng hồ chung
+     */
+    public void updateVisualEffects(long timeMs) {
+        visualEffectManager.update(timeMs);
+    }
+
     // Hàm hiển thị animation thu hoạch bay về túi
     public void playHarvestAnimation(ItemType itemType, int col, int row, double worldOffsetX, double worldOffsetY) {
         // Xác định tọa độ bắt đầu (Tại ô đất)
@@ -377,6 +416,13 @@ public class MainGameView {
         }
     }
 
+    // [MỚI] Bật / tắt chỉ báo đang lưu trên HUD
+    public void setSaving(boolean saving) {
+        if (hudView != null) {
+            hudView.setSaving(saving);
+        }
+    }
+
     /**
      * Cập nhật hiển thị số tiền
      */
@@ -401,12 +447,9 @@ public class MainGameView {
         }
 
         // [MỚI] Làm tối màn hình một chút khi mưa
+        // [SỬA] HudView tự cộng độ tối mưa vào độ tối ngày đêm (không đọc lại opacity của lớp phủ)
         if (hudView != null) {
-            double currentIntensity = 1.0 - hudView.getDarknessOverlay().getOpacity();
-            double rainDarkness = isRaining ? com.example.farmSimulation.config.WeatherConfig.RAIN_DARKNESS_OPACITY : 0.0;
-            double newOpacity = Math.min(1.0 - currentIntensity + rainDarkness,
-                    com.example.farmSimulation.config.GameLogicConfig.MAX_DARKNESS_OPACITY);
-            hudView.getDarknessOverlay().setOpacity(newOpacity);
+            hudView.setRainDarkness(isRaining ? com.example.farmSimulation.config.WeatherConfig.RAIN_DARKNESS_OPACITY : 0.0);
         }
     }
 
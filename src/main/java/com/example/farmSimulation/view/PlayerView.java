@@ -2,6 +2,7 @@ package com.example.farmSimulation.view;
 
 import com.example.farmSimulation.config.GameLogicConfig;
 import com.example.farmSimulation.config.PlayerSpriteConfig;
+import com.example.farmSimulation.model.FrameClock;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -83,8 +84,13 @@ public class PlayerView {
     // Reference to Player for accessing timeOfDeath (for death animation)
     private com.example.farmSimulation.model.Player player;
 
+    // [MỚI] Đồng hồ chung của GameManager (bắt buộc, truyền vào constructor)
+    private final FrameClock frameClock;
+    private long deathAnimStartMs = -1; // Thời điểm (theo đồng hồ) bắt đầu animation chết
+
     // --- Hàm khởi tạo ---
-    public PlayerView(Image playerSheet, Image playerActionsSheet) {
+    public PlayerView(Image playerSheet, Image playerActionsSheet, FrameClock frameClock) {
+        this.frameClock = frameClock;
         this.playerSheet = playerSheet;
         this.playerActionsSheet = playerActionsSheet;
 
@@ -110,7 +116,7 @@ public class PlayerView {
         sprite.setSmooth(false); // Khử răng cưa
         sprite.setPreserveRatio(true); // [FIX] Giữ tỉ lệ khi resize
 
-        this.lastFrameTime = System.nanoTime(); // Dùng nanoTime cho chính xác
+        this.lastFrameTime = currentTimeMs();
 
 
         // --- Khởi tạo Debug Nodes (CHỈ KHI DEBUG BẬT) ---
@@ -274,6 +280,11 @@ public class PlayerView {
         this.player = player;
     }
     
+    // Thời gian animation hiện tại (ms)
+    private long currentTimeMs() {
+        return frameClock.getTimeMs();
+    }
+
     /**
      * Hàm được gọi 60 lần/giây từ GameManager
      * Nhiệm vụ: CHỈ tính toán frame tiếp theo
@@ -285,7 +296,11 @@ public class PlayerView {
             if (data == null) return;
             
             // Calculate elapsed time since death
-            long elapsedMs = System.currentTimeMillis() - player.getTimeOfDeath();
+            // [SỬA] Tính theo đồng hồ chung kể từ frame đầu tiên ở trạng thái DEAD
+            if (deathAnimStartMs < 0) {
+                deathAnimStartMs = currentTimeMs();
+            }
+            long elapsedMs = currentTimeMs() - deathAnimStartMs;
             
             // Calculate frame index based on elapsed time
             long frameSpeed = data.speed(); // ms per frame
@@ -307,8 +322,8 @@ public class PlayerView {
         AnimData data = getAnimationData();
         if (data == null) return;
 
-        long now = System.nanoTime();
-        long deltaMs = (now - lastFrameTime) / 1_000_000;
+        long now = currentTimeMs();
+        long deltaMs = now - lastFrameTime;
         lastFrameTime = now;
         frameAccumulator += deltaMs;
 
@@ -383,7 +398,8 @@ public class PlayerView {
         if (stateChanged || directionChanged) {
             currentFrame = 0;
             frameAccumulator = 0;
-            lastFrameTime = System.nanoTime();
+            lastFrameTime = currentTimeMs();
+            if (stateChanged) deathAnimStartMs = -1;
             updateViewport(); // Cập nhật hình ảnh ngay lập tức
         }
     }
@@ -1,21 +1,46 @@
 package com.example.farmSimulation.view;
 
 import com.example.farmSimulation.config.HudConfig;
-import javafx.animation.FadeTransition;
-import javafx.animation.ParallelTransition;
-import javafx.animation.ScaleTransition;
-import javafx.animation.TranslateTransition;
+import javafx.animation.Interpolator;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
-import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class chịu trách nhiệm quản lý các hiệu ứng hình ảnh tạm thời
  * như: item bay về túi, hiệu ứng hạt (particles), v.v.
+ * [SỬA] Hiệu ứng chạy theo đồng hồ chung (update(timeMs) mỗi frame) thay vì Transition của JavaFX,
+ * nên dừng lại khi game pause và chạy tiếp đúng chỗ khi resume.
  */
 public class VisualEffectManager {
 
+    /**
+     * [MỚI] Một item đang bay về túi
+     */
+    private static final class FlyingItem {
+        final Pane rootPane;
+        final ImageView view;
+        final double startX;
+        final double startY;
+        final double endX;
+        final double endY;
+        long startTimeMs = -1; // Gán ở lần update đầu tiên
+
+        FlyingItem(Pane rootPane, ImageView view, double startX, double startY, double endX, double endY) {
+            this.rootPane = rootPane;
+            this.view = view;
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+        }
+    }
+
+    private final List<FlyingItem> flyingItems = new ArrayList<>();
+
     /**
      * Tạo và chạy animation item bay từ bản đồ về vị trí đích (UI)
      * @param rootPane Pane chính để vẽ item lên
@@ -34,35 +59,50 @@ public class VisualEffectManager {
         // Đặt vị trí bắt đầu
         flyingItem.setLayoutX(startX);
         flyingItem.setLayoutY(startY);
+        flyingItem.setScaleX(HudConfig.HARVEST_SCALE_FROM);
+        flyingItem.setScaleY(HudConfig.HARVEST_SCALE_FROM);
 
         // Thêm vào rootPane
         rootPane.getChildren().add(flyingItem);
+        flyingItems.add(new FlyingItem(rootPane, flyingItem, startX, startY, endX, endY));
+    }
 
-        // Tạo Animation Bay (Translate)
-        TranslateTransition translate = new TranslateTransition(Duration.millis(HudConfig.HARVEST_FLY_DURATION_MS), flyingItem);
-        // TranslateTransition dùng delta (khoảng cách di chuyển) chứ không phải tọa độ tuyệt đối
-        translate.setToX(endX - startX);
-        translate.setToY(endY - startY);
-
-        // Tạo Animation Thu nhỏ (Scale)
-        ScaleTransition scale = new ScaleTransition(Duration.millis(HudConfig.HARVEST_FLY_DURATION_MS), flyingItem);
-        scale.setFromX(HudConfig.HARVEST_SCALE_FROM);
-        scale.setFromY(HudConfig.HARVEST_SCALE_FROM);
-        scale.setToX(HudConfig.HARVEST_SCALE_TO);
-        scale.setToY(HudConfig.HARVEST_SCALE_TO);
+    /**
+     * [MỚI] Cập nhật tất cả hiệu ứng tại thời điểm timeMs (đồng hồ chung của GameManager)
+     */
+    public void update(long timeMs) {
+        for (int i = flyingItems.size() - 1; i >= 0; i--) {
+            FlyingItem item = flyingItems.get(i);
+            if (item.startTimeMs < 0) item.startTimeMs = timeMs;
+            long elapsed = timeMs - item.startTimeMs;
 
-        // Tạo Animation Mờ dần (Fade) ở cuối
-        FadeTransition fade = new FadeTransition(Duration.millis(HudConfig.HARVEST_FADE_DURATION_MS), flyingItem);
-        fade.setFromValue(1.0);
-        fade.setToValue(0.0);
-        fade.setDelay(Duration.millis(HudConfig.HARVEST_FADE_DELAY_MS)); // Chờ gần đến đích mới mờ
+            // Bay (Translate) + Thu nhỏ (Scale) trong HARVEST_FLY_DURATION_MS
+            double flyT = Interpolator.EASE_BOTH.interpolate(0.0, 1.0, progress(elapsed, HudConfig.HARVEST_FLY_DURATION_MS));
+            // Dùng translate (khoảng cách di chuyển) giống TranslateTransition cũ
+            item.view.setTranslateX((item.endX - item.startX) * flyT);
+            item.view.setTranslateY((item.endY - item.startY) * flyT);
+            double scale = HudConfig.HARVEST_SCALE_FROM + (HudConfig.HARVEST_SCALE_TO - HudConfig.HARVEST_SCALE_FROM) * flyT;
+            item.view.setScaleX(scale);
+            item.view.setScaleY(scale);
 
-        // Chạy song song
-        ParallelTransition parallel = new ParallelTransition(translate, scale, fade);
+            // Mờ dần (Fade) ở cuối: chờ gần đến đích mới mờ
+            double fadeT = Interpolator.EASE_BOTH.interpolate(0.0, 1.0,
+                    progress(elapsed - (long) HudConfig.HARVEST_FADE_DELAY_MS, HudConfig.HARVEST_FADE_DURATION_MS));
+            item.view.setOpacity(1.0 - fadeT);
 
-        // Dọn dẹp khi xong
-        parallel.setOnFinished(e -> rootPane.getChildren().remove(flyingItem));
+            // Dọn dẹp khi xong
+            if (elapsed >= HudConfig.HARVEST_FLY_DURATION_MS
+                    && elapsed >= HudConfig.HARVEST_FADE_DELAY_MS + HudConfig.HARVEST_FADE_DURATION_MS) {
+                item.rootPane.getChildren().remove(item.view);
+                flyingItems.remove(i);
+            }
+        }
+    }
 
-        parallel.play();
+    // Tiến độ 0.0 - 1.0 của một đoạn animation dài durationMs
+    private static double progress(long elapsedMs, double durationMs) {
+        if (elapsedMs <= 0) return 0.0;
+        if (durationMs <= 0 || elapsedMs >= durationMs) return 1.0;
+        return elapsedMs / durationMs;
     }
-}
\ No newline at end of file
+}
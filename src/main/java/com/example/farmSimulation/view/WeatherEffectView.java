@@ -2,30 +2,46 @@ package com.example.farmSimulation.view;
 
 import com.example.farmSimulation.config.WeatherConfig;
 import com.example.farmSimulation.config.WindowConfig;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.Pane;
-import javafx.scene.shape.Line;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
  * Quản lý hiệu ứng mưa (Rain Effect)
+ * [SỬA] Hệ thống hạt: vị trí giọt mưa lưu trong mảng số, mỗi frame vẽ tất cả lên MỘT Canvas
+ * (1 path, 1 lần stroke) thay vì RAIN_DROP_COUNT node Line -> số node không đổi theo mật độ mưa.
  */
 public class WeatherEffectView extends Pane {
-    private final List<Line> rainDrops;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
     private final Random random;
     private boolean isRaining;
-    
+
+    // Trạng thái các giọt mưa (đầu trên của giọt), cấp phát 1 lần
+    private final double[] dropX;
+    private final double[] dropY;
+    private int activeDropCount = 0;
+
     public WeatherEffectView() {
-        this.rainDrops = new ArrayList<>();
         this.random = new Random();
         this.isRaining = false;
+        this.dropX = new double[WeatherConfig.RAIN_DROP_COUNT];
+        this.dropY = new double[WeatherConfig.RAIN_DROP_COUNT];
+
+        this.canvas = new Canvas(WindowConfig.SCREEN_WIDTH, WindowConfig.SCREEN_HEIGHT);
+        this.canvas.setOpacity(WeatherConfig.RAIN_OPACITY);
+        this.gc = canvas.getGraphicsContext2D();
+        this.gc.setStroke(WeatherConfig.RAIN_COLOR);
+        this.gc.setLineWidth(WeatherConfig.RAIN_DROP_WIDTH);
+        this.getChildren().add(canvas);
+
         this.setPrefSize(WindowConfig.SCREEN_WIDTH, WindowConfig.SCREEN_HEIGHT);
         this.setMouseTransparent(true);
         this.setVisible(false);
     }
-    
+
     /**
      * Cập nhật trạng thái mưa
      */
@@ -33,47 +49,36 @@ public class WeatherEffectView extends Pane {
         if (this.isRaining == raining) {
             return; // Không thay đổi
         }
-        
+
         this.isRaining = raining;
         this.setVisible(raining);
-        
+
         if (raining) {
             // Tạo các giọt mưa
             createRainDrops();
         } else {
             // Xóa tất cả giọt mưa
-            this.getChildren().clear();
-            rainDrops.clear();
+            activeDropCount = 0;
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
         }
     }
-    
+
     /**
      * Tạo các giọt mưa
      */
     private void createRainDrops() {
-        this.getChildren().clear();
-        rainDrops.clear();
-        
-        for (int i = 0; i < WeatherConfig.RAIN_DROP_COUNT; i++) {
-            Line drop = new Line();
-            drop.setStroke(WeatherConfig.RAIN_COLOR);
-            drop.setStrokeWidth(2.0);
-            drop.setOpacity(WeatherConfig.RAIN_OPACITY);
-            
+        activeDropCount = WeatherConfig.RAIN_DROP_COUNT;
+        for (int i = 0; i < activeDropCount; i++) {
             // Vị trí ngẫu nhiên
-            double x = random.nextDouble() * WindowConfig.SCREEN_WIDTH;
-            double y = random.nextDouble() * WindowConfig.SCREEN_HEIGHT;
-            
-            drop.setStartX(x);
-            drop.setStartY(y);
-            drop.setEndX(x);
-            drop.setEndY(y + WeatherConfig.RAIN_DROP_LENGTH);
-            
-            rainDrops.add(drop);
-            this.getChildren().add(drop);
+            spawnDrop(i, random.nextDouble() * WindowConfig.SCREEN_HEIGHT);
         }
     }
-    
+
+    private void spawnDrop(int i, double y) {
+        dropX[i] = random.nextDouble() * WindowConfig.SCREEN_WIDTH;
+        dropY[i] = y;
+    }
+
     /**
      * Cập nhật animation mưa (gọi mỗi frame)
      */
@@ -81,23 +86,26 @@ public class WeatherEffectView extends Pane {
         if (!isRaining) {
             return;
         }
-        
-        for (Line drop : rainDrops) {
+
+        double length = WeatherConfig.RAIN_DROP_LENGTH;
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.beginPath();
+        for (int i = 0; i < activeDropCount; i++) {
             // Di chuyển giọt mưa xuống dưới
-            double newStartY = drop.getStartY() + WeatherConfig.RAIN_DROP_SPEED;
-            double newEndY = drop.getEndY() + WeatherConfig.RAIN_DROP_SPEED;
-            
+            double y = dropY[i] + WeatherConfig.RAIN_DROP_SPEED;
+
             // Nếu giọt mưa rơi ra ngoài màn hình, reset về phía trên
-            if (newStartY > WindowConfig.SCREEN_HEIGHT) {
-                newStartY = -WeatherConfig.RAIN_DROP_LENGTH;
-                newEndY = 0;
-                drop.setStartX(random.nextDouble() * WindowConfig.SCREEN_WIDTH);
+            if (y > WindowConfig.SCREEN_HEIGHT) {
+                spawnDrop(i, -length);
+                y = -length;
+            } else {
+                dropY[i] = y;
             }
-            
-            drop.setStartY(newStartY);
-            drop.setEndY(newEndY);
-            drop.setEndX(drop.getStartX());
+
+            double x = dropX[i];
+            gc.moveTo(x, y);
+            gc.lineTo(x, y + length);
         }
+        gc.stroke();
     }
 }
-
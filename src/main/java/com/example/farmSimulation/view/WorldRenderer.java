@@ -9,22 +9,28 @@ import com.example.farmSimulation.config.FenceConfig;
 import com.example.farmSimulation.config.ItemSpriteConfig;
 import com.example.farmSimulation.config.PlayerSpriteConfig;
 import com.example.farmSimulation.model.Animal;
+import com.example.farmSimulation.model.AnimalManager;
 import com.example.farmSimulation.model.AnimalType; // [MỚI] Thêm import
+import com.example.farmSimulation.model.ItemType;
 import com.example.farmSimulation.model.Tile;
 import com.example.farmSimulation.model.TileData;
 import com.example.farmSimulation.model.WorldMap;
 import com.example.farmSimulation.view.assets.ImageManager;
+import javafx.scene.Group;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Rectangle;
 import lombok.Getter;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 @Getter
-public class WorldRenderer {
+public class WorldRenderer implements AnimalManager.AnimalListener {
     // Mảng 2D LƯU TRỮ các ImageView
     private final ImageView[][] baseTiles; // Lớp 1: Các ô hiển thị trên màn hình (GRASS, SOIL, WATER)
     private final ImageView[][] overlayTiles; // Lớp 2: Phân bón
@@ -45,22 +51,70 @@ public class WorldRenderer {
     // Ghost placement: Hiển thị bóng mờ khi cầm item có thể đặt
     private final ImageView ghostPlacement;
 
+    /**
+     * [MỚI] Preview ghost của một loại item: ảnh + độ lệch so với góc trên trái ô.
+     * Tính 1 lần cho mỗi loại item rồi dùng lại.
+     */
+    private static final class GhostPreview {
+        final Image image;
+        final double offsetX;
+        final double offsetY;
+
+        GhostPreview(Image image, double offsetX, double offsetY) {
+            this.image = image;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+    }
+
+    private static final GhostPreview NO_GHOST = new GhostPreview(null, 0, 0); // Item không đặt được
+    private final Map<ItemType, GhostPreview> ghostPreviews = new EnumMap<>(ItemType.class);
+    private GhostPreview currentGhost = NO_GHOST; // Preview đang hiển thị
+    private double ghostScreenX = Double.NaN;     // Vị trí ghost lần trước (chỉ set lại khi đổi)
+    private double ghostScreenY = Double.NaN;
+
     // Debug: Hitbox collision của cây (chỉ hiển thị khi DEBUG_TREE_HITBOX = true)
     private final Rectangle[][] treeHitboxes;
 
     // Debug: Hitbox collision của rào (chỉ hiển thị khi DEBUG_FENCE_HITBOX = true)
     private final Rectangle[][] fenceHitboxes;
 
-    // Động vật: Map lưu ImageView cho mỗi con vật (key = Animal object reference)
-    private final Map<Animal, ImageView> animalViews;
-    private final Map<Animal, ImageView> animalStatusIcons; // Icon trạng thái (đói/sản phẩm)
-    private final Map<Animal, ImageView> animalStatusBackgrounds; // Nền icon
+    // Động vật: Map lưu bộ ImageView cho mỗi con vật (key = Animal object reference)
+    // [SỬA] Tạo / thu hồi theo sự kiện thêm/xóa từ AnimalManager, ImageView được tái sử dụng qua pool
+    private final Map<Animal, AnimalSprite> animalSprites;
+    private final ArrayDeque<AnimalSprite> animalSpritePool; // Các bộ ImageView đang rảnh (đã ẩn)
+    private final Pane animalLayer;       // Lớp thân động vật
+    private final Pane animalStatusLayer; // Lớp icon trạng thái (luôn nằm trên thân mọi con)
+
+    /**
+     * [MỚI] Bộ ImageView của một con vật: thân, nền icon và icon trạng thái.
+     * Chỉ được thêm vào Pane 1 lần khi tạo, sau đó chỉ ẩn / hiện (vị trí trong Pane không đổi).
+     */
+    private static final class AnimalSprite {
+        final ImageView body = new ImageView();
+        final ImageView statusBackground = new ImageView();
+        final ImageView statusIcon = new ImageView();
+        long lastVisibleFrame; // Frame gần nhất con vật nằm trong màn hình
+    }
+
+    private long animalFrameCounter = 0;
 
     // Lưu lại vị trí render map lần cuối
     private int lastRenderedStartCol = -1;
     private int lastRenderedStartRow = -1;
+    private boolean hasRenderedMap = false;
+
+    // [MỚI] Các mảng ImageView dùng địa chỉ vòng (ring buffer): ô thế giới (col, row) luôn nằm ở
+    // phần tử [floorMod(row, NUM_ROWS_ON_SCREEN)][floorMod(col, NUM_COLS_ON_SCREEN)].
+    // Khi camera qua ô mới, chỉ hàng / cột vừa lọt vào màn hình phải đặt lại vị trí và vẽ lại.
+    // Mỗi hàng của mỗi lớp nằm trong 1 Group riêng để giữ thứ tự vẽ (hàng dưới đè lên hàng trên).
+    private static final int LAYER_GROUPS = 3; // 0: Môi trường, 1: Item trên đất, 2: UI và Debug
+    private final Group[][] rowGroups;
 
-    public WorldRenderer(ImageManager assetManager, WorldMap worldMap, Pane entityPane) {
+    // [MỚI] Renderer Canvas (null nếu đang dùng lưới ImageView)
+    private final CanvasTileRenderer canvasTileRenderer;
+
+    public WorldRenderer(ImageManager assetManager, WorldMap worldMap, Pane entityPane, boolean useCanvasTiles) {
         this.assetManager = assetManager;
         this.worldMap = worldMap;
         this.entityPane = entityPane;
@@ -78,12 +132,43 @@ public class WorldRenderer {
         this.treeHitboxes = new Rectangle[WorldConfig.NUM_ROWS_ON_SCREEN][WorldConfig.NUM_COLS_ON_SCREEN];
         this.fenceHitboxes = new Rectangle[WorldConfig.NUM_ROWS_ON_SCREEN][WorldConfig.NUM_COLS_ON_SCREEN];
 
-        this.animalViews = new HashMap<>();
-        this.animalStatusIcons = new HashMap<>();
-        this.animalStatusBackgrounds = new HashMap<>();
+        this.animalSprites = new IdentityHashMap<>();
+        this.animalSpritePool = new ArrayDeque<>();
+        this.animalLayer = new Pane();
+        this.animalLayer.setMouseTransparent(true);
+        this.animalStatusLayer = new Pane();
+        this.animalStatusLayer.setMouseTransparent(true);
+        this.entityPane.getChildren().addAll(animalLayer, animalStatusLayer);
 
         this.worldPane = new Pane();
 
+        // [MỚI] Chế độ Canvas: vẽ toàn bộ bản đồ lên 1 Canvas, không tạo lưới ImageView
+        this.rowGroups = new Group[LAYER_GROUPS][WorldConfig.NUM_ROWS_ON_SCREEN];
+        if (useCanvasTiles) {
+            this.canvasTileRenderer = new CanvasTileRenderer(assetManager, worldMap);
+            worldPane.getChildren().add(canvasTileRenderer.getCanvas());
+        } else {
+            this.canvasTileRenderer = null;
+            buildTileViews();
+        }
+
+        // Selector và Ghost
+        this.tileSelector = new Rectangle(WorldConfig.TILE_SIZE, WorldConfig.TILE_SIZE);
+        this.tileSelector.setFill(null);
+        this.tileSelector.setStroke(WorldConfig.SELECTOR_COLOR);
+        this.tileSelector.setStrokeWidth(WorldConfig.SELECTOR_STROKE_WIDTH);
+        this.tileSelector.setVisible(true);
+
+        this.ghostPlacement = new ImageView();
+        this.ghostPlacement.setMouseTransparent(true);
+        this.ghostPlacement.setVisible(false);
+        this.ghostPlacement.setOpacity(WorldConfig.GHOST_PLACEMENT_OPACITY);
+    }
+
+    /**
+     * Tạo lưới ImageView cho các lớp bản đồ (chế độ ImageView).
+     */
+    private void buildTileViews() {
         // --- KHỞI TẠO ĐỐI TƯỢNG (Chưa add vào Pane) ---
         for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
             for (int c = 0; c < WorldConfig.NUM_COLS_ON_SCREEN; c++) {
@@ -137,52 +222,38 @@ public class WorldRenderer {
         }
 
         // --- ADD VÀO PANE THEO LỚP (Z-ORDERING FIX) ---
-        // [QUAN TRỌNG] Add theo từng vòng lặp riêng biệt để đảm bảo lớp trên luôn đè lên lớp dưới của TOÀN BỘ MAP.
+        // [QUAN TRỌNG] Lớp trên luôn đè lên lớp dưới của TOÀN BỘ MAP.
+        // [SỬA] Mỗi (lớp, hàng) là 1 Group, thứ tự vẽ giữa các Group được chỉnh bằng viewOrder trong updateMap.
+        for (int g = 0; g < LAYER_GROUPS; g++) {
+            for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
+                rowGroups[g][r] = new Group();
+                worldPane.getChildren().add(rowGroups[g][r]);
+            }
+        }
 
-        // Layer 1: Môi trường (Đất, Cây, Rào...)
         for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
             for (int c = 0; c < WorldConfig.NUM_COLS_ON_SCREEN; c++) {
-                worldPane.getChildren().addAll(
+                // Layer 1: Môi trường (Đất, Cây, Rào...)
+                rowGroups[0][r].getChildren().addAll(
                         baseTiles[r][c],
                         overlayTiles[r][c],
                         cropTiles[r][c],
                         treeTiles[r][c],
                         fenceTiles[r][c]
                 );
-            }
-        }
 
-        // Layer 2: Item trên đất (Sẽ luôn nằm trên cây cối của hàng dưới)
-        for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
-            for (int c = 0; c < WorldConfig.NUM_COLS_ON_SCREEN; c++) {
-                worldPane.getChildren().add(groundItemTiles[r][c]);
-            }
-        }
+                // Layer 2: Item trên đất (Sẽ luôn nằm trên cây cối của hàng dưới)
+                rowGroups[1][r].getChildren().add(groundItemTiles[r][c]);
 
-        // Layer 3: UI và Debug (Trên cùng)
-        for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
-            for (int c = 0; c < WorldConfig.NUM_COLS_ON_SCREEN; c++) {
-                worldPane.getChildren().addAll(
+                // Layer 3: UI và Debug (Trên cùng)
+                rowGroups[2][r].getChildren().addAll(
                         statusBackground[r][c],
                         statusIconTiles[r][c]
                 );
-
-                if (treeHitboxes[r][c] != null) worldPane.getChildren().add(treeHitboxes[r][c]);
-                if (fenceHitboxes[r][c] != null) worldPane.getChildren().add(fenceHitboxes[r][c]);
+                if (treeHitboxes[r][c] != null) rowGroups[2][r].getChildren().add(treeHitboxes[r][c]);
+                if (fenceHitboxes[r][c] != null) rowGroups[2][r].getChildren().add(fenceHitboxes[r][c]);
             }
         }
-
-        // Selector và Ghost
-        this.tileSelector = new Rectangle(WorldConfig.TILE_SIZE, WorldConfig.TILE_SIZE);
-        this.tileSelector.setFill(null);
-        this.tileSelector.setStroke(WorldConfig.SELECTOR_COLOR);
-        this.tileSelector.setStrokeWidth(WorldConfig.SELECTOR_STROKE_WIDTH);
-        this.tileSelector.setVisible(true);
-
-        this.ghostPlacement = new ImageView();
-        this.ghostPlacement.setMouseTransparent(true);
-        this.ghostPlacement.setVisible(false);
-        this.ghostPlacement.setOpacity(WorldConfig.GHOST_PLACEMENT_OPACITY);
     }
 
     private ImageView createTileView(int c, int r, double yOffset, double width, double height) {
@@ -203,99 +274,177 @@ public class WorldRenderer {
         int startCol = (int) Math.floor(cameraWorldX / WorldConfig.TILE_SIZE);
         int startRow = (int) Math.floor(cameraWorldY / WorldConfig.TILE_SIZE);
 
-        double pixelOffsetX = -(cameraWorldX - (startCol * WorldConfig.TILE_SIZE));
-        double pixelOffsetY = -(cameraWorldY - (startRow * WorldConfig.TILE_SIZE));
-
-        worldPane.setLayoutX(pixelOffsetX);
-        worldPane.setLayoutY(pixelOffsetY);
-
-        boolean needsTileUpdate = (startCol != lastRenderedStartCol ||
-                startRow != lastRenderedStartRow ||
-                forceRedraw);
-
-        if (!needsTileUpdate) {
+        if (canvasTileRenderer != null) {
+            // Canvas vẽ theo ô trên màn hình -> worldPane chỉ dời phần lẻ (cuộn mượt trong 1 ô)
+            worldPane.setLayoutX(-(cameraWorldX - (startCol * WorldConfig.TILE_SIZE)));
+            worldPane.setLayoutY(-(cameraWorldY - (startRow * WorldConfig.TILE_SIZE)));
+            canvasTileRenderer.updateMap(startCol, startRow, forceRedraw);
             return;
         }
 
-        for (int r = 0; r < WorldConfig.NUM_ROWS_ON_SCREEN; r++) {
-            for (int c = 0; c < WorldConfig.NUM_COLS_ON_SCREEN; c++) {
-                int logicalCol = startCol + c;
-                int logicalRow = startRow + r;
-                TileData data = worldMap.getTileData(logicalCol, logicalRow);
-
-                Tile type = data.getBaseTileType();
-                Tile baseType = (type == Tile.TREE || type == Tile.FENCE) ? Tile.GRASS : type;
-                this.baseTiles[r][c].setImage(assetManager.getTileTexture(baseType));
-
-                this.overlayTiles[r][c].setImage(data.isFertilized() ? assetManager.getFertilizerTexture() : null);
-                this.cropTiles[r][c].setImage(assetManager.getCropTexture(data.getCropData()));
-                this.treeTiles[r][c].setImage(assetManager.getTreeTexture(data.getTreeData()));
-                // [FIX LỖI] Cập nhật hình ảnh hàng rào (đã bị thiếu)
-                this.fenceTiles[r][c].setImage(assetManager.getFenceTexture(data.getFenceData()));
-
-                if (data.getGroundItem() != null && data.getGroundItemAmount() > 0) {
-                    Image itemTexture = assetManager.getItemIcon(data.getGroundItem());
-                    this.groundItemTiles[r][c].setImage(itemTexture);
-                    this.groundItemTiles[r][c].setTranslateX(data.getGroundItemOffsetX());
-                    this.groundItemTiles[r][c].setTranslateY(data.getGroundItemOffsetY());
-                    this.groundItemTiles[r][c].setVisible(true);
-                } else {
-                    this.groundItemTiles[r][c].setImage(null);
-                    this.groundItemTiles[r][c].setVisible(false);
-                }
+        // [SỬA] Các ImageView đặt theo tọa độ THẾ GIỚI -> worldPane chỉ cần dời theo camera
+        worldPane.setLayoutX(worldOffsetX);
+        worldPane.setLayoutY(worldOffsetY);
 
-                if (TreeConfig.DEBUG_TREE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS && treeHitboxes[r][c] != null) {
-                    if (data.getTreeData() != null && data.getTreeData().getGrowthStage() > 0) {
-                        double tileLocalX = c * WorldConfig.TILE_SIZE;
-                        double tileLocalY = r * WorldConfig.TILE_SIZE;
-                        double layoutX = tileLocalX + (WorldConfig.TILE_SIZE - TreeConfig.TREE_HITBOX_WIDTH) / 2.0;
-                        double visualTreeBottomY = (tileLocalY + WorldConfig.TILE_SIZE) - CropConfig.CROP_Y_OFFSET;
-                        double layoutY = visualTreeBottomY - TreeConfig.TREE_HITBOX_HEIGHT - TreeConfig.TREE_HITBOX_Y_OFFSET_FROM_BOTTOM;
-
-                        treeHitboxes[r][c].setLayoutX(layoutX);
-                        treeHitboxes[r][c].setLayoutY(layoutY);
-                        treeHitboxes[r][c].setVisible(true);
-                    } else {
-                        treeHitboxes[r][c].setVisible(false);
+        int cols = WorldConfig.NUM_COLS_ON_SCREEN;
+        int rows = WorldConfig.NUM_ROWS_ON_SCREEN;
+        int deltaCol = startCol - lastRenderedStartCol;
+        int deltaRow = startRow - lastRenderedStartRow;
+
+        if (forceRedraw || !hasRenderedMap || Math.abs(deltaCol) >= cols || Math.abs(deltaRow) >= rows) {
+            // Vẽ lại toàn bộ màn hình
+            for (int row = startRow; row < startRow + rows; row++) {
+                for (int col = startCol; col < startCol + cols; col++) {
+                    renderWorldTile(col, row, worldMap.peekTileData(col, row));
+                }
+            }
+            worldMap.clearDirtyTiles(); // Đã vẽ lại toàn bộ màn hình
+            updateRowOrder(startRow);
+            hasRenderedMap = true;
+        } else {
+            // [MỚI] Chỉ vẽ các cột vừa lọt vào màn hình
+            if (deltaCol != 0) {
+                int fromCol = deltaCol > 0 ? lastRenderedStartCol + cols : startCol;
+                int toCol = deltaCol > 0 ? startCol + cols : lastRenderedStartCol;
+                for (int col = fromCol; col < toCol; col++) {
+                    for (int row = startRow; row < startRow + rows; row++) {
+                        renderWorldTile(col, row, worldMap.peekTileData(col, row));
                     }
                 }
-
-                if (FenceConfig.DEBUG_FENCE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS && fenceHitboxes[r][c] != null) {
-                    if (data.getFenceData() != null && data.getFenceData().isSolid()) {
-                        double tileLocalX = c * WorldConfig.TILE_SIZE;
-                        double tileLocalY = r * WorldConfig.TILE_SIZE;
-                        double layoutX = tileLocalX + (WorldConfig.TILE_SIZE - FenceConfig.FENCE_HITBOX_WIDTH) / 2.0;
-                        double layoutY = (tileLocalY + WorldConfig.TILE_SIZE) - FenceConfig.FENCE_HITBOX_HEIGHT - FenceConfig.FENCE_HITBOX_Y_OFFSET_FROM_BOTTOM;
-
-                        fenceHitboxes[r][c].setLayoutX(layoutX);
-                        fenceHitboxes[r][c].setLayoutY(layoutY);
-                        fenceHitboxes[r][c].setVisible(true);
-                    } else {
-                        fenceHitboxes[r][c].setVisible(false);
+            }
+            // [MỚI] Chỉ vẽ các hàng vừa lọt vào màn hình
+            if (deltaRow != 0) {
+                int fromRow = deltaRow > 0 ? lastRenderedStartRow + rows : startRow;
+                int toRow = deltaRow > 0 ? startRow + rows : lastRenderedStartRow;
+                for (int row = fromRow; row < toRow; row++) {
+                    for (int col = startCol; col < startCol + cols; col++) {
+                        renderWorldTile(col, row, worldMap.peekTileData(col, row));
                     }
                 }
+                updateRowOrder(startRow);
+            }
 
-                // UI Icons
-                Image statusIcon = assetManager.getStatusIcon(data.getStatusIndicator());
-                if (data.getStatusIndicator() == com.example.farmSimulation.model.CropStatusIndicator.NEED_WATER_AND_FERTILIZER) {
-                    double doubleWidth = HudConfig.ICON_SIZE * 2;
-                    this.statusIconTiles[r][c].setFitWidth(doubleWidth);
-                    double iconOffset = (HudConfig.ICON_BG_SIZE - doubleWidth) / 2;
-                    this.statusIconTiles[r][c].setLayoutX((c) * WorldConfig.TILE_SIZE + iconOffset);
-                } else {
-                    this.statusIconTiles[r][c].setFitWidth(HudConfig.ICON_SIZE);
-                    double iconOffset = (HudConfig.ICON_BG_SIZE - HudConfig.ICON_SIZE) / 2;
-                    this.statusIconTiles[r][c].setLayoutX((c) * WorldConfig.TILE_SIZE + iconOffset);
-                }
-                this.statusIconTiles[r][c].setImage(statusIcon);
-                this.statusBackground[r][c].setVisible(statusIcon != null);
-                this.statusBackground[r][c].setLayoutX((c) * WorldConfig.TILE_SIZE);
+            // [MỚI] Vẽ lại các ô đã thay đổi (nếu đang nằm trên màn hình)
+            if (worldMap.hasDirtyTiles()) {
+                worldMap.drainDirtyTiles((col, row, data) -> {
+                    if (col >= startCol && col < startCol + cols && row >= startRow && row < startRow + rows) {
+                        renderWorldTile(col, row, data);
+                    }
+                });
             }
         }
         this.lastRenderedStartCol = startCol;
         this.lastRenderedStartRow = startRow;
     }
 
+    /**
+     * [MỚI] Sắp xếp thứ tự vẽ các Group theo hàng trên màn hình:
+     * lớp sau đè lớp trước, trong cùng lớp thì hàng dưới đè hàng trên (viewOrder nhỏ hơn = vẽ sau).
+     */
+    private void updateRowOrder(int startRow) {
+        int rows = WorldConfig.NUM_ROWS_ON_SCREEN;
+        for (int r = 0; r < rows; r++) {
+            int slotRow = Math.floorMod(startRow + r, rows);
+            for (int g = 0; g < LAYER_GROUPS; g++) {
+                rowGroups[g][slotRow].setViewOrder(-(g * rows + r));
+            }
+        }
+    }
+
+    // Vẽ ô thế giới (col, row) vào phần tử tương ứng của ring buffer
+    private void renderWorldTile(int col, int row, TileData data) {
+        renderTile(Math.floorMod(row, WorldConfig.NUM_ROWS_ON_SCREEN), Math.floorMod(col, WorldConfig.NUM_COLS_ON_SCREEN), col, row, data);
+    }
+
+    /**
+     * [MỚI] Cập nhật toàn bộ các lớp ImageView của phần tử [r][c] để hiển thị ô thế giới (col, row).
+     */
+    private void renderTile(int r, int c, int col, int row, TileData data) {
+        // Đặt lại vị trí theo tọa độ thế giới (phần tử này có thể vừa được dùng lại cho ô khác)
+        double tileX = col * WorldConfig.TILE_SIZE;
+        double tileY = row * WorldConfig.TILE_SIZE;
+        placeTileView(baseTiles[r][c], tileX, tileY, 0);
+        placeTileView(overlayTiles[r][c], tileX, tileY, 0);
+        placeTileView(cropTiles[r][c], tileX, tileY, -CropConfig.CROP_Y_OFFSET);
+        placeTileView(treeTiles[r][c], tileX, tileY, -TreeConfig.TREE_Y_OFFSET);
+        placeTileView(fenceTiles[r][c], tileX, tileY, -FenceConfig.FENCE_Y_OFFSET);
+        placeTileView(groundItemTiles[r][c], tileX, tileY, 0);
+        placeTileView(statusBackground[r][c], tileX, tileY, -HudConfig.ICON_Y_OFFSET);
+        statusIconTiles[r][c].setLayoutY(tileY - HudConfig.ICON_Y_OFFSET + HudConfig.ICON_PADDING_TOP);
+
+        Tile type = data.getBaseTileType();
+        Tile baseType = (type == Tile.TREE || type == Tile.FENCE) ? Tile.GRASS : type;
+        this.baseTiles[r][c].setImage(assetManager.getTileTexture(baseType));
+
+        this.overlayTiles[r][c].setImage(data.isFertilized() ? assetManager.getFertilizerTexture() : null);
+        this.cropTiles[r][c].setImage(assetManager.getCropTexture(data.getCropData()));
+        this.treeTiles[r][c].setImage(assetManager.getTreeTexture(data.getTreeData()));
+        // [FIX LỖI] Cập nhật hình ảnh hàng rào (đã bị thiếu)
+        this.fenceTiles[r][c].setImage(assetManager.getFenceTexture(data.getFenceData()));
+
+        if (data.getGroundItem() != null && data.getGroundItemAmount() > 0) {
+            Image itemTexture = assetManager.getItemIcon(data.getGroundItem());
+            this.groundItemTiles[r][c].setImage(itemTexture);
+            this.groundItemTiles[r][c].setTranslateX(data.getGroundItemOffsetX());
+            this.groundItemTiles[r][c].setTranslateY(data.getGroundItemOffsetY());
+            this.groundItemTiles[r][c].setVisible(true);
+        } else {
+            this.groundItemTiles[r][c].setImage(null);
+            this.groundItemTiles[r][c].setVisible(false);
+        }
+
+        if (TreeConfig.DEBUG_TREE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS && treeHitboxes[r][c] != null) {
+            if (data.getTreeData() != null && data.getTreeData().getGrowthStage() > 0) {
+                double tileLocalX = tileX;
+                double tileLocalY = tileY;
+                double layoutX = tileLocalX + (WorldConfig.TILE_SIZE - TreeConfig.TREE_HITBOX_WIDTH) / 2.0;
+                double visualTreeBottomY = (tileLocalY + WorldConfig.TILE_SIZE) - CropConfig.CROP_Y_OFFSET;
+                double layoutY = visualTreeBottomY - TreeConfig.TREE_HITBOX_HEIGHT - TreeConfig.TREE_HITBOX_Y_OFFSET_FROM_BOTTOM;
+
+                treeHitboxes[r][c].setLayoutX(layoutX);
+                treeHitboxes[r][c].setLayoutY(layoutY);
+                treeHitboxes[r][c].setVisible(true);
+            } else {
+                treeHitboxes[r][c].setVisible(false);
+            }
+        }
+
+        if (FenceConfig.DEBUG_FENCE_HITBOX && PlayerSpriteConfig.DEBUG_PLAYER_BOUNDS && fenceHitboxes[r][c] != null) {
+            if (data.getFenceData() != null && data.getFenceData().isSolid()) {
+                double tileLocalX = tileX;
+                double tileLocalY = tileY;
+                double layoutX = tileLocalX + (WorldConfig.TILE_SIZE - FenceConfig.FENCE_HITBOX_WIDTH) / 2.0;
+                double layoutY = (tileLocalY + WorldConfig.TILE_SIZE) - FenceConfig.FENCE_HITBOX_HEIGHT - FenceConfig.FENCE_HITBOX_Y_OFFSET_FROM_BOTTOM;
+
+                fenceHitboxes[r][c].setLayoutX(layoutX);
+                fenceHitboxes[r][c].setLayoutY(layoutY);
+                fenceHitboxes[r][c].setVisible(true);
+            } else {
+                fenceHitboxes[r][c].setVisible(false);
+            }
+        }
+
+        // UI Icons
+        Image statusIcon = assetManager.getStatusIcon(data.getStatusIndicator());
+        if (data.getStatusIndicator() == com.example.farmSimulation.model.CropStatusIndicator.NEED_WATER_AND_FERTILIZER) {
+            double doubleWidth = HudConfig.ICON_SIZE * 2;
+            this.statusIconTiles[r][c].setFitWidth(doubleWidth);
+            double iconOffset = (HudConfig.ICON_BG_SIZE - doubleWidth) / 2;
+            this.statusIconTiles[r][c].setLayoutX(tileX + iconOffset);
+        } else {
+            this.statusIconTiles[r][c].setFitWidth(HudConfig.ICON_SIZE);
+            double iconOffset = (HudConfig.ICON_BG_SIZE - HudConfig.ICON_SIZE) / 2;
+            this.statusIconTiles[r][c].setLayoutX(tileX + iconOffset);
+        }
+        this.statusIconTiles[r][c].setImage(statusIcon);
+        this.statusBackground[r][c].setVisible(statusIcon != null);
+    }
+
+    private void placeTileView(ImageView view, double tileX, double tileY, double yOffset) {
+        view.setLayoutX(tileX);
+        view.setLayoutY(tileY + yOffset);
+    }
+
     public void updateSelector(int tileSelectedX, int tileSelectedY, double worldOffsetX, double worldOffsetY) {
         if (this.tileSelector == null) return;
         double tileSelectedOnScreenX = tileSelectedX * WorldConfig.TILE_SIZE + worldOffsetX;
@@ -304,99 +453,169 @@ public class WorldRenderer {
         this.tileSelector.setLayoutY(tileSelectedOnScreenY);
     }
 
+    /**
+     * [SỬA] Chỉ chạm vào node ghost khi item đang cầm hoặc vị trí trên màn hình thay đổi.
+     * Ảnh và độ lệch được lấy từ ghostPreviews (không cắt ảnh / tạo FenceData mỗi frame).
+     */
     public void updateGhostPlacement(int tileX, int tileY, double worldOffsetX, double worldOffsetY, com.example.farmSimulation.model.ItemStack currentItem) {
-        boolean shouldShow = false;
-        Image ghostImage = null;
-        double yOffsetCorrection = 0.0;
-
+        GhostPreview preview = NO_GHOST;
         if (currentItem != null) {
-            com.example.farmSimulation.model.ItemType itemType = currentItem.getItemType();
-            if (itemType == com.example.farmSimulation.model.ItemType.WOOD) {
-                ghostImage = assetManager.getFenceTexture(new com.example.farmSimulation.model.FenceData(false));
-                shouldShow = true;
-                yOffsetCorrection = FenceConfig.FENCE_Y_OFFSET;
-            } else if (itemType.name().startsWith("SEEDS_")) {
-                // SEEDS_TREE: Sử dụng tree seed icon
-                if (itemType == com.example.farmSimulation.model.ItemType.SEEDS_TREE) {
-                    ghostImage = assetManager.getTreeSeedIcon();
-                    shouldShow = true;
-                    yOffsetCorrection = TreeConfig.TREE_Y_OFFSET;
-                } else {
-                    // Các loại hạt giống cây trồng khác
-                    try {
-                        com.example.farmSimulation.model.CropType cropType = com.example.farmSimulation.model.CropType.valueOf(itemType.name().substring(6));
-                        ghostImage = assetManager.getSeedIcon(cropType);
-                        shouldShow = true;
-                        yOffsetCorrection = CropConfig.CROP_Y_OFFSET;
-                    } catch (IllegalArgumentException ignored) {}
-                }
+            ItemType itemType = currentItem.getItemType();
+            preview = ghostPreviews.get(itemType);
+            if (preview == null) {
+                preview = createGhostPreview(itemType);
+                ghostPreviews.put(itemType, preview);
             }
         }
 
-        if (shouldShow && ghostImage != null) {
-            double screenX = tileX * WorldConfig.TILE_SIZE + worldOffsetX;
-            double screenY = tileY * WorldConfig.TILE_SIZE + worldOffsetY;
-            double imageWidth = ghostImage.getWidth();
-            double imageHeight = ghostImage.getHeight();
-            double offsetX = (WorldConfig.TILE_SIZE - imageWidth) / 2.0;
-
-            // [SỬA] Đối với SEEDS_TREE, sử dụng cùng logic positioning như treeTiles
-            // treeTiles được tạo với yOffset = -TreeConfig.TREE_Y_OFFSET trong createTileView
-            // createTileView set LayoutY = r * WorldConfig.TILE_SIZE + yOffset
-            // Vậy treeTile LayoutY = tileY * WorldConfig.TILE_SIZE - TreeConfig.TREE_Y_OFFSET (trong worldPane coordinates)
-            // Ghost placement cần match chính xác điều này
-            double offsetY;
-            if (currentItem != null && currentItem.getItemType() == com.example.farmSimulation.model.ItemType.SEEDS_TREE) {
-                // Match treeTiles positioning: LayoutY = tileY * WorldConfig.TILE_SIZE - TreeConfig.TREE_Y_OFFSET
-                // screenY đã là tileY * WorldConfig.TILE_SIZE + worldOffsetY
-                // Cần trừ TreeConfig.TREE_Y_OFFSET để match treeTiles
-                offsetY = -TreeConfig.TREE_Y_OFFSET;
-            } else {
-                // Các item khác dùng logic center vertically
-                offsetY = (WorldConfig.TILE_SIZE - imageHeight) / 2.0 - yOffsetCorrection;
+        if (preview.image == null) {
+            if (currentGhost != NO_GHOST) {
+                ghostPlacement.setVisible(false);
+                currentGhost = NO_GHOST;
             }
+            return;
+        }
 
-            ghostPlacement.setImage(ghostImage);
-            ghostPlacement.setFitWidth(imageWidth);
-            ghostPlacement.setFitHeight(imageHeight);
-            ghostPlacement.setLayoutX(screenX + offsetX);
-            ghostPlacement.setLayoutY(screenY + offsetY);
+        if (preview != currentGhost) {
+            ghostPlacement.setImage(preview.image);
+            ghostPlacement.setFitWidth(preview.image.getWidth());
+            ghostPlacement.setFitHeight(preview.image.getHeight());
             ghostPlacement.setVisible(true);
+            currentGhost = preview;
+            ghostScreenX = Double.NaN; // Buộc đặt lại vị trí
+        }
+
+        double screenX = tileX * WorldConfig.TILE_SIZE + worldOffsetX + preview.offsetX;
+        double screenY = tileY * WorldConfig.TILE_SIZE + worldOffsetY + preview.offsetY;
+        if (screenX != ghostScreenX || screenY != ghostScreenY) {
+            ghostPlacement.setLayoutX(screenX);
+            ghostPlacement.setLayoutY(screenY);
+            ghostScreenX = screenX;
+            ghostScreenY = screenY;
+        }
+    }
+
+    /**
+     * [MỚI] Tạo preview ghost cho một loại item (NO_GHOST nếu item không đặt được).
+     */
+    private GhostPreview createGhostPreview(ItemType itemType) {
+        Image ghostImage = null;
+        double yOffsetCorrection = 0.0;
+
+        if (itemType == ItemType.WOOD) {
+            ghostImage = assetManager.getFencePostTexture();
+            yOffsetCorrection = FenceConfig.FENCE_Y_OFFSET;
+        } else if (itemType == ItemType.SEEDS_TREE) {
+            // SEEDS_TREE: Sử dụng tree seed icon
+            ghostImage = assetManager.getTreeSeedIcon();
+        } else if (itemType.name().startsWith("SEEDS_")) {
+            // Các loại hạt giống cây trồng khác
+            try {
+                com.example.farmSimulation.model.CropType cropType = com.example.farmSimulation.model.CropType.valueOf(itemType.name().substring(6));
+                ghostImage = assetManager.getSeedIcon(cropType);
+                yOffsetCorrection = CropConfig.CROP_Y_OFFSET;
+            } catch (IllegalArgumentException ignored) {}
+        }
+
+        if (ghostImage == null) return NO_GHOST;
+
+        double offsetX = (WorldConfig.TILE_SIZE - ghostImage.getWidth()) / 2.0;
+        double offsetY;
+        if (itemType == ItemType.SEEDS_TREE) {
+            // Match treeTiles positioning: LayoutY = tileY * WorldConfig.TILE_SIZE - TreeConfig.TREE_Y_OFFSET
+            offsetY = -TreeConfig.TREE_Y_OFFSET;
         } else {
-            ghostPlacement.setVisible(false);
+            // Các item khác dùng logic center vertically
+            offsetY = (WorldConfig.TILE_SIZE - ghostImage.getHeight()) / 2.0 - yOffsetCorrection;
         }
+        return new GhostPreview(ghostImage, offsetX, offsetY);
     }
 
-    public void updateAnimals(java.util.List<Animal> animals, double worldOffsetX, double worldOffsetY) {
-        java.util.List<Animal> toRemove = new java.util.ArrayList<>();
-        for (Animal animal : animalViews.keySet()) {
-            if (!animals.contains(animal) || animal.isDead()) {
-                toRemove.add(animal);
-            }
+    @Override
+    public void onAnimalAdded(Animal animal) {
+        // [SỬA] Không tạo sprite ngay: chỉ cấp khi con vật nằm trong màn hình (xem updateAnimals)
+    }
+
+    @Override
+    public void onAnimalRemoved(Animal animal) {
+        AnimalSprite sprite = animalSprites.remove(animal);
+        if (sprite != null) {
+            releaseAnimalSprite(sprite);
+        }
+    }
+
+    // Trả bộ ImageView về pool (chỉ ẩn, không xóa khỏi Pane). Pool dư quá nhiều thì gỡ bớt khỏi scene.
+    private void releaseAnimalSprite(AnimalSprite sprite) {
+        sprite.body.setVisible(false);
+        sprite.body.setImage(null);
+        sprite.statusBackground.setVisible(false);
+        sprite.statusIcon.setVisible(false);
+
+        if (animalSpritePool.size() < AnimalConfig.ANIMAL_SPRITE_POOL_MAX_IDLE) {
+            animalSpritePool.push(sprite);
+        } else {
+            animalLayer.getChildren().remove(sprite.body);
+            animalStatusLayer.getChildren().removeAll(sprite.statusBackground, sprite.statusIcon);
         }
-        for (Animal animal : toRemove) {
-            ImageView view = animalViews.remove(animal);
-            ImageView icon = animalStatusIcons.remove(animal);
-            ImageView bg = animalStatusBackgrounds.remove(animal);
-            if (view != null) entityPane.getChildren().remove(view);
-            if (icon != null) entityPane.getChildren().remove(icon);
-            if (bg != null) entityPane.getChildren().remove(bg);
+    }
+
+    // [MỚI] Kiểm tra con vật có nằm trong màn hình (cộng thêm khoảng đệm) hay không
+    private boolean isAnimalOnScreen(Animal animal, double worldOffsetX, double worldOffsetY) {
+        double screenX = animal.getX() + worldOffsetX;
+        double screenY = animal.getY() + worldOffsetY;
+        double margin = AnimalConfig.ANIMAL_CULL_MARGIN;
+        return screenX >= -margin && screenX <= WorldConfig.NUM_COLS_ON_SCREEN * WorldConfig.TILE_SIZE + margin
+                && screenY >= -margin && screenY <= WorldConfig.NUM_ROWS_ON_SCREEN * WorldConfig.TILE_SIZE + margin;
+    }
+
+    // Lấy bộ ImageView của con vật (lấy từ pool hoặc tạo mới nếu chưa có)
+    private AnimalSprite acquireAnimalSprite(Animal animal) {
+        AnimalSprite sprite = animalSprites.get(animal);
+        if (sprite != null) return sprite;
+
+        sprite = animalSpritePool.poll();
+        if (sprite == null) {
+            sprite = new AnimalSprite();
+            sprite.body.setSmooth(false);
+            sprite.body.setPreserveRatio(true);
+            sprite.body.setMouseTransparent(true);
+            sprite.statusBackground.setImage(assetManager.getIconBG());
+            sprite.statusBackground.setSmooth(false);
+            sprite.statusBackground.setMouseTransparent(true);
+            sprite.statusBackground.setFitWidth(HudConfig.ICON_BG_SIZE);
+            sprite.statusBackground.setFitHeight(HudConfig.ICON_BG_SIZE);
+            sprite.statusIcon.setSmooth(false);
+            sprite.statusIcon.setMouseTransparent(true);
+            sprite.statusIcon.setFitWidth(HudConfig.ICON_SIZE);
+            sprite.statusIcon.setFitHeight(HudConfig.ICON_SIZE);
+            sprite.statusBackground.setVisible(false);
+            sprite.statusIcon.setVisible(false);
+
+            animalLayer.getChildren().add(sprite.body);
+            // [FIX LỖI MÀU TRẮNG] Thêm nền TRƯỚC, sau đó mới thêm icon để icon nằm ĐÈ lên nền
+            animalStatusLayer.getChildren().addAll(sprite.statusBackground, sprite.statusIcon);
         }
+        sprite.body.setVisible(true);
+        animalSprites.put(animal, sprite);
+        return sprite;
+    }
 
-        // [MỚI] Lấy thời gian hiện tại để tính frame animation chung cho tất cả động vật
-        long now = System.currentTimeMillis();
+    /**
+     * Cập nhật vị trí / frame của động vật.
+     * [SỬA] Không còn so sánh danh sách mỗi frame: việc thêm / xóa ImageView do onAnimalAdded / onAnimalRemoved xử lý.
+     * [SỬA] Chỉ con nằm trong màn hình mới có ImageView, con ra khỏi màn hình sẽ trả ImageView về pool.
+     */
+    public void updateAnimals(java.util.List<Animal> animals, double worldOffsetX, double worldOffsetY, long animationTimeMs) {
+        // [SỬA] Thời gian animation lấy từ đồng hồ chung (FrameClock) của GameManager
+        long now = animationTimeMs;
+        long frame = ++animalFrameCounter;
 
         for (Animal animal : animals) {
-            if (animal.isDead()) continue;
-            ImageView animalView = animalViews.get(animal);
-            if (animalView == null) {
-                animalView = new ImageView();
-                animalView.setSmooth(false);
-                animalView.setPreserveRatio(true);
-                animalView.setMouseTransparent(true);
-                animalViews.put(animal, animalView);
-                entityPane.getChildren().add(animalView);
-            }
+            if (animal.isDead() || !isAnimalOnScreen(animal, worldOffsetX, worldOffsetY)) continue;
+
+            AnimalSprite sprite = acquireAnimalSprite(animal);
+            sprite.lastVisibleFrame = frame;
+            ImageView animalView = sprite.body;
 
             // [SỬA] Tính toán frame index dựa trên thời gian và cấu hình
             int frameIndex = 0;
@@ -453,13 +672,23 @@ public class WorldRenderer {
             animalView.setLayoutX(screenX - displaySize / 2.0);
             animalView.setLayoutY(screenY - displaySize);
 
-            updateAnimalStatusIcon(animal, worldOffsetX, worldOffsetY);
+            updateAnimalStatusIcon(animal, sprite, worldOffsetX, worldOffsetY);
+        }
+
+        // Thu hồi ImageView của các con không còn trong màn hình (hoặc đã chết)
+        Iterator<AnimalSprite> iterator = animalSprites.values().iterator();
+        while (iterator.hasNext()) {
+            AnimalSprite sprite = iterator.next();
+            if (sprite.lastVisibleFrame != frame) {
+                iterator.remove();
+                releaseAnimalSprite(sprite);
+            }
         }
     }
 
-    private void updateAnimalStatusIcon(Animal animal, double worldOffsetX, double worldOffsetY) {
-        ImageView iconView = animalStatusIcons.get(animal);
-        ImageView bgView = animalStatusBackgrounds.get(animal);
+    private void updateAnimalStatusIcon(Animal animal, AnimalSprite sprite, double worldOffsetX, double worldOffsetY) {
+        ImageView iconView = sprite.statusIcon;
+        ImageView bgView = sprite.statusBackground;
         boolean needsIcon = false;
         Image iconImage = null;
 
@@ -476,28 +705,8 @@ public class WorldRenderer {
         }
 
         if (needsIcon && iconImage != null) {
-            // [FIX LỖI MÀU TRẮNG] Thêm bgView TRƯỚC, sau đó mới thêm iconView để icon nằm ĐÈ lên nền
-            if (bgView == null) {
-                bgView = new ImageView();
-                bgView.setImage(assetManager.getIconBG());
-                bgView.setSmooth(false);
-                bgView.setMouseTransparent(true);
-                animalStatusBackgrounds.put(animal, bgView);
-                entityPane.getChildren().add(bgView); // Add background first
-            }
-            if (iconView == null) {
-                iconView = new ImageView();
-                iconView.setSmooth(false);
-                iconView.setMouseTransparent(true);
-                animalStatusIcons.put(animal, iconView);
-                entityPane.getChildren().add(iconView); // Add icon second (on top)
-            }
-
+            // [SỬA] ImageView nền / icon đã được tạo sẵn cùng bộ sprite, chỉ cần đổi ảnh
             iconView.setImage(iconImage);
-            iconView.setFitWidth(HudConfig.ICON_SIZE);
-            iconView.setFitHeight(HudConfig.ICON_SIZE);
-            bgView.setFitWidth(HudConfig.ICON_BG_SIZE);
-            bgView.setFitHeight(HudConfig.ICON_BG_SIZE);
 
             // [MỚI] Sử dụng displaySize (có scale) để tính toán vị trí icon chính xác cho con non
             double spriteSize = animal.getType().getSpriteSize();
@@ -537,8 +746,8 @@ public class WorldRenderer {
             iconView.setVisible(true);
             bgView.setVisible(true);
         } else {
-            if (iconView != null) iconView.setVisible(false);
-            if (bgView != null) bgView.setVisible(false);
+            iconView.setVisible(false);
+            bgView.setVisible(false);
         }
     }
 }
\ No newline at end of file
@@ -6,10 +6,17 @@ import javafx.scene.image.Image;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.WritableImage;
 
+import lombok.Getter;
+
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // Tải và quản lý tất cả tài nguyên
 public class ImageManager {
@@ -17,13 +24,25 @@ public class ImageManager {
     // để sử dụng lại sau này, nhằm tăng tốc độ truy xuất và giảm tài nguyên tiêu thụ.
 
     // Cache cho các ảnh <key, value> (key là đường dẫn)
-    private final Map<String, Image> textureCache = new HashMap<>();
+    // [SỬA] ConcurrentHashMap vì các sheet được giải mã song song trên worker thread (loadAssetsAsync)
+    private final Map<String, Image> textureCache = new ConcurrentHashMap<>();
 
     // Cache đặc biệt cho Tile (tối ưu cho Enum)
     private final Map<Tile, Image> tileTextureMap = new EnumMap<>(Tile.class);
 
-    // Cache cho các sprite đã được cắt
-    private final Map<String, Image> spriteCache = new HashMap<>();
+    // [SỬA] Atlas các sprite đã được cắt, dạng mảng tra theo chỉ số (ordinal)
+    // -> Không còn tạo String key + hash mỗi lần gọi (các hàm này được gọi mỗi ô / mỗi con vật / mỗi frame)
+    private Image[][] cropSprites;          // [cropType.ordinal()][stage]
+    private Image[] treeSprites;            // [stage]
+    private Image treeStumpSprite;          // Gốc cây (đã bị chặt)
+    private Image[] fenceSprites;           // [pattern 0-15]
+    private Image[][][][] animalSprites;    // [animalType.ordinal()][direction][action.ordinal()][frame]
+    private boolean spriteAtlasBuilt = false;
+
+    // [MỚI] Cache icon hạt giống / sản phẩm thu hoạch (trước đây cắt lại WritableImage mỗi lần gọi)
+    private final Map<CropType, Image> seedIconCache = new EnumMap<>(CropType.class);
+    private final Map<CropType, Image> harvestIconCache = new EnumMap<>(CropType.class);
+    private Image treeSeedIcon;
 
     // Cache cho icon của Item (để dùng cho HUD và Shop)
     private final Map<ItemType, Image> itemIconCache = new EnumMap<>(ItemType.class);
@@ -34,51 +53,252 @@ public class ImageManager {
     // Cache cho GUI icons (Settings, Shop, Money, Weather, etc.)
     private final Map<String, Image> guiIconCache = new HashMap<>();
 
+    // [MỚI] Tải nền: tín hiệu sẵn sàng + số liệu thời gian tải
+    private volatile CompletableFuture<Void> assetsReady;
+    @Getter private volatile int decodedSheetCount = 0;
+    @Getter private volatile long decodeTimeMs = 0;  // Thời gian giải mã tất cả sheet (song song)
+    @Getter private volatile long sliceTimeMs = 0;   // Thời gian cắt sẵn tất cả frame
+    @Getter private volatile long totalLoadTimeMs = 0;
+
     /**
-     * Tải TOÀN BỘ tài nguyên game vào bộ nhớ.
-     * Sẽ được gọi 1 lần duy nhất khi game bắt đầu.
+     * Tải TOÀN BỘ tài nguyên game vào bộ nhớ (đồng bộ, trên thread gọi hàm).
      */
     public void loadAssets() {
-        // Tải Player
-        getTexture(AssetPaths.PLAYER_SHEET);
-        getTexture(AssetPaths.PLAYER_ACTIONS_SHEET);
-
-        // Tải GUI
-        getTexture(AssetPaths.LOGO);
-        Image itemsSheet = getTexture(AssetPaths.ITEMS_SHEET); // Load items sheet
-        getTexture(AssetPaths.ANIMAL_ITEM_SHEET); // Load animal item sheet
-        getTexture(AssetPaths.ICON_BG); // Tải nền icon
-
-        // Tải Tile Textures
-        Image grass = getTexture(AssetPaths.GRASS);
-        Image soil = getTexture(AssetPaths.SOIL);
-        Image water = getTexture(AssetPaths.WATER);
-        Image soilWet = getTexture(AssetPaths.SOIL_WET); // Tải đất ướt
-
-        // Tải các tài nguyên trồng trọt
-        getTexture(AssetPaths.FERTILIZER_OVERLAY); // Tải phân bón
-        getTexture(AssetPaths.CROP_SHEET); // Tải ảnh crop
-
-        // Tải các tài nguyên cây và hàng rào
-        getTexture(AssetPaths.TREE_SHEET); // Tải ảnh cây tự nhiên
-        getTexture(AssetPaths.FENCE_SHEET); // Tải ảnh hàng rào
-        // TREE và FENCE không có texture cố định, sẽ được vẽ từ spritesheet
-
-        // Tải các tài nguyên động vật
-        loadAnimalTextures();
+        for (String path : getAllSheetPaths()) {
+            getTexture(path);
+        }
+        sliceAssets();
+    }
+
+    /**
+     * [MỚI] Tải tài nguyên ở nền: giải mã các sheet song song trên worker pool, sau đó cắt sẵn tất cả frame.
+     * Gọi 1 lần khi game bắt đầu (trong lúc màn hình Character Creation đang hiển thị).
+     * Chỉ làm việc với Image / WritableImage (không đụng Scene Graph) nên chạy ngoài FX thread được.
+     *
+     * @return Future hoàn thành khi toàn bộ tài nguyên đã sẵn sàng (gọi lại trả về future cũ)
+     */
+    public synchronized CompletableFuture<Void> loadAssetsAsync() {
+        if (assetsReady != null) return assetsReady;
+
+        long startNanos = System.nanoTime();
+        int threads = Math.max(1, Math.min(WorldConfig.ASSET_LOADER_MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "asset-loader");
+            thread.setDaemon(true); // Không giữ JVM sống khi đóng game
+            return thread;
+        });
+
+        // Bước 1: Giải mã song song từng sheet
+        List<String> paths = getAllSheetPaths();
+        CompletableFuture<?>[] decodes = new CompletableFuture<?>[paths.size()];
+        for (int i = 0; i < paths.size(); i++) {
+            String path = paths.get(i);
+            decodes[i] = CompletableFuture.runAsync(() -> getTexture(path), pool);
+        }
+
+        // Bước 2: Cắt sẵn frame (ghi vào các cache thường -> chỉ 1 thread làm)
+        assetsReady = CompletableFuture.allOf(decodes)
+                .thenRunAsync(() -> {
+                    long decodedNanos = System.nanoTime();
+                    decodedSheetCount = paths.size();
+                    decodeTimeMs = (decodedNanos - startNanos) / 1_000_000;
+
+                    sliceAssets();
+
+                    long doneNanos = System.nanoTime();
+                    sliceTimeMs = (doneNanos - decodedNanos) / 1_000_000;
+                    totalLoadTimeMs = (doneNanos - startNanos) / 1_000_000;
+                    if (WorldConfig.DEBUG_ASSET_LOAD_TIME) {
+                        System.out.println("Assets ready: " + decodedSheetCount + " sheets decoded in " + decodeTimeMs
+                                + " ms (" + threads + " threads), sliced in " + sliceTimeMs + " ms, total " + totalLoadTimeMs + " ms");
+                    }
+                }, pool)
+                .whenComplete((v, ex) -> {
+                    pool.shutdown();
+                    if (ex != null) {
+                        System.err.println("Lỗi khi tải tài nguyên nền: " + ex.getMessage());
+                        ex.printStackTrace();
+                    }
+                });
+        return assetsReady;
+    }
+
+    /**
+     * [MỚI] Chờ tải nền xong (nếu có). Chỉ thực sự chặn khi người chơi vào game trước khi tải xong.
+     * Nếu tải nền lỗi thì tải lại đồng bộ để game vẫn chạy được.
+     */
+    public void awaitAssets() {
+        CompletableFuture<Void> ready = assetsReady;
+        if (ready == null) {
+            loadAssets();
+            return;
+        }
+        try {
+            ready.join();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Tải nền thất bại, tải lại tài nguyên đồng bộ.");
+            loadAssets();
+        }
+    }
+
+    /**
+     * [MỚI] Tài nguyên đã tải xong chưa
+     */
+    public boolean isAssetsReady() {
+        CompletableFuture<Void> ready = assetsReady;
+        return ready != null && ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * [MỚI] Danh sách tất cả spritesheet cần giải mã.
+     */
+    private List<String> getAllSheetPaths() {
+        List<String> paths = new ArrayList<>();
+        // Player
+        paths.add(AssetPaths.PLAYER_SHEET);
+        paths.add(AssetPaths.PLAYER_ACTIONS_SHEET);
+
+        // GUI
+        paths.add(AssetPaths.LOGO);
+        paths.add(AssetPaths.ITEMS_SHEET);
+        paths.add(AssetPaths.ANIMAL_ITEM_SHEET);
+        paths.add(AssetPaths.ICON_BG);
+        paths.add(AssetPaths.GUI_ICONS);
+
+        // Tile Textures
+        paths.add(AssetPaths.GRASS);
+        paths.add(AssetPaths.SOIL);
+        paths.add(AssetPaths.WATER);
+        paths.add(AssetPaths.SOIL_WET);
+
+        // Trồng trọt, cây tự nhiên và hàng rào
+        paths.add(AssetPaths.FERTILIZER_OVERLAY);
+        paths.add(AssetPaths.CROP_SHEET);
+        paths.add(AssetPaths.TREE_SHEET);
+        paths.add(AssetPaths.FENCE_SHEET);
+
+        // Động vật (nhiều loại có thể dùng chung sheet)
+        for (AnimalType animalType : AnimalType.values()) {
+            if (!paths.contains(animalType.getAssetPath())) {
+                paths.add(animalType.getAssetPath());
+            }
+        }
+        return paths;
+    }
 
+    /**
+     * Cắt và cache mọi thứ lấy từ các sheet đã giải mã, để lần đầu gặp một con vật / cây / icon
+     * trong lúc chơi không phải cắt ảnh nữa.
+     */
+    private void sliceAssets() {
         // Liên kết Tile (Model) với Image (View)
-        tileTextureMap.put(Tile.GRASS, grass);
-        tileTextureMap.put(Tile.SOIL, soil);
-        tileTextureMap.put(Tile.WATER, water);
-        tileTextureMap.put(Tile.SOIL_WET, soilWet);
+        tileTextureMap.put(Tile.GRASS, getTexture(AssetPaths.GRASS));
+        tileTextureMap.put(Tile.SOIL, getTexture(AssetPaths.SOIL));
+        tileTextureMap.put(Tile.WATER, getTexture(AssetPaths.WATER));
+        tileTextureMap.put(Tile.SOIL_WET, getTexture(AssetPaths.SOIL_WET)); // Đất ướt
 
         // Cắt và cache các icon trạng thái từ Items Sheet
-        loadStatusIcons(itemsSheet);
+        loadStatusIcons(getTexture(AssetPaths.ITEMS_SHEET));
+
+        // Cắt và cache GUI icons
+        loadGuiIcons(getTexture(AssetPaths.GUI_ICONS));
 
-        // Tải và cache GUI icons
-        Image guiIconSheet = getTexture(AssetPaths.GUI_ICONS);
-        loadGuiIcons(guiIconSheet);
+        // Cắt sẵn toàn bộ sprite cây trồng / cây / rào / động vật vào mảng
+        buildSpriteAtlas();
+
+        // Icon item (HUD, Shop), hạt giống và sản phẩm thu hoạch
+        for (ItemType itemType : ItemType.values()) {
+            getItemIcon(itemType);
+        }
+        for (CropType cropType : CropType.values()) {
+            getSeedIcon(cropType);
+            getHarvestIcon(cropType);
+        }
+        getTreeSeedIcon();
+    }
+
+    /**
+     * [MỚI] Cắt trước tất cả các frame sprite vào các mảng tra cứu.
+     * Gọi trong loadAssets(), các hàm get...Texture cũng tự gọi nếu chưa cắt.
+     */
+    private void buildSpriteAtlas() {
+        if (spriteAtlasBuilt) return;
+
+        // --- Cây trồng: [loại][stage] ---
+        Image cropSheet = getTexture(AssetPaths.CROP_SHEET);
+        CropType[] cropTypes = CropType.values();
+        cropSprites = new Image[cropTypes.length][];
+        for (CropType type : cropTypes) {
+            Image[] stages = new Image[type.getMaxStages()];
+            for (int stage = 0; stage < stages.length; stage++) {
+                stages[stage] = cutSprite(cropSheet, stage, type.getSpriteRow(), CropConfig.CROP_SPRITE_WIDTH, CropConfig.CROP_SPRITE_HEIGHT);
+            }
+            cropSprites[type.ordinal()] = stages;
+        }
+
+        // --- Cây tự nhiên: mỗi frame trong hàng duy nhất của sheet ---
+        Image treeSheet = getTexture(AssetPaths.TREE_SHEET);
+        int treeFrames = treeSheet == null ? 0 : (int) (treeSheet.getWidth() / TreeConfig.TREE_SPRITE_WIDTH);
+        treeSprites = new Image[treeFrames];
+        for (int stage = 0; stage < treeFrames; stage++) {
+            treeSprites[stage] = cutSprite(treeSheet, stage, 0, TreeConfig.TREE_SPRITE_WIDTH, TreeConfig.TREE_SPRITE_HEIGHT);
+        }
+        // Frame 4 là stump
+        treeStumpSprite = cutSprite(treeSheet, TreeConfig.TREE_STUMP_FRAME_INDEX, 0, TreeConfig.TREE_SPRITE_WIDTH, TreeConfig.TREE_SPRITE_HEIGHT);
+
+        // --- Hàng rào: [pattern] ---
+        Image fenceSheet = getTexture(AssetPaths.FENCE_SHEET);
+        fenceSprites = new Image[16];
+        for (int pattern = 0; pattern < fenceSprites.length; pattern++) {
+            int[] cell = getFenceSheetCell(pattern);
+            fenceSprites[pattern] = cutSprite(fenceSheet, cell[0], cell[1], FenceConfig.FENCE_SPRITE_WIDTH, FenceConfig.FENCE_SPRITE_HEIGHT);
+        }
+
+        // --- Động vật: [loại][hướng][hành động][frame] ---
+        AnimalType[] animalTypes = AnimalType.values();
+        Animal.Action[] actions = Animal.Action.values();
+        animalSprites = new Image[animalTypes.length][][][];
+        for (AnimalType type : animalTypes) {
+            Image sheet = getTexture(type.getAssetPath());
+            double spriteSize = type.getSpriteSize();
+            int sheetCols = sheet == null ? 0 : (int) (sheet.getWidth() / spriteSize);
+            int sheetRows = sheet == null ? 0 : (int) (sheet.getHeight() / spriteSize);
+            Image[][] cells = new Image[Math.max(sheetRows, 0)][Math.max(sheetCols, 0)]; // Mỗi ô của sheet chỉ cắt 1 lần
+            int frames = Math.max(sheetCols, 1);
+
+            Image[][][] byDirection = new Image[4][actions.length][frames];
+            for (int direction = 0; direction < 4; direction++) {
+                for (Animal.Action action : actions) {
+                    int row = getAnimalSheetRow(type, direction, action);
+                    for (int frame = 0; frame < frames; frame++) {
+                        int col = getAnimalSheetCol(type, frame);
+                        // Nếu không đủ frame, dùng frame đầu tiên (giữ nguyên hàng để không bị sai hướng)
+                        if (col >= sheetCols) col = 0;
+                        if (row < 0 || row >= sheetRows || col >= sheetCols) continue;
+                        if (cells[row][col] == null) {
+                            cells[row][col] = cutSprite(sheet, col, row, spriteSize, spriteSize);
+                        }
+                        byDirection[direction][action.ordinal()][frame] = cells[row][col];
+                    }
+                }
+            }
+            animalSprites[type.ordinal()] = byDirection;
+        }
+
+        // [SỬA] Chỉ đánh dấu khi đã cắt xong mọi mảng: lỗi giữa chừng thì lần gọi sau (tải lại đồng bộ) cắt lại từ đầu
+        spriteAtlasBuilt = true;
+    }
+
+    /**
+     * [MỚI] Cắt ô (col, row) kích thước w x h từ sheet. Trả về null nếu nằm ngoài sheet.
+     */
+    private Image cutSprite(Image sheet, int col, int row, double w, double h) {
+        if (sheet == null) return null;
+        int x = (int) (col * w);
+        int y = (int) (row * h);
+        if (x < 0 || y < 0 || x + w > sheet.getWidth() || y + h > sheet.getHeight()) return null;
+        return new WritableImage(sheet.getPixelReader(), x, y, (int) w, (int) h);
     }
 
     /**
@@ -243,7 +463,8 @@ public class ImageManager {
     }
 
     /**
-     * Lấy sprite của cây trồng và cache lại.
+     * Lấy sprite của cây trồng.
+     * [SỬA] Tra mảng [loại][stage] đã cắt sẵn thay vì String key.
      */
     public Image getCropTexture(CropData cropData) {
         if (cropData == null) {
@@ -251,80 +472,62 @@ public class ImageManager {
         }
 
         // Kiểm tra nếu cây chết hoặc dữ liệu sai
-        if (cropData.getGrowthStage() < 0) {
+        int stage = cropData.getGrowthStage();
+        if (stage < 0) {
             return null;
         }
 
-        // Tạo key cache
-        String key = cropData.getType().name() + "_" + cropData.getGrowthStage();
-
-        // Dùng computeIfAbsent để cắt 1 lần duy nhất
-        return spriteCache.computeIfAbsent(key, k -> {
-            Image cropSheet = getTexture(AssetPaths.CROP_SHEET);
-            if (cropSheet == null) return null;
-
-            PixelReader reader = cropSheet.getPixelReader();
-
-            // Tính toán vị trí (x, y) để cắt
-            double w = CropConfig.CROP_SPRITE_WIDTH;
-            double h = CropConfig.CROP_SPRITE_HEIGHT;
-            int x = (int) (cropData.getGrowthStage() * w);
-            int y = (int) (cropData.getType().getSpriteRow() * h);
-
-            if (x < 0 || y < 0 || x + w > cropSheet.getWidth() || y + h > cropSheet.getHeight()) return null;
-
-            // Cắt và tạo ảnh mới
-            return new WritableImage(reader, x, y, (int) w, (int) h);
-        });
+        buildSpriteAtlas();
+        Image[] stages = cropSprites[cropData.getType().ordinal()];
+        return stage < stages.length ? stages[stage] : null;
     }
 
     /**
      * Lấy icon hạt giống từ CROP_SHEET (Frame 0) để hiển thị ghost placement
      */
     public Image getSeedIcon(CropType type) {
-        Image cropSheet = getTexture(AssetPaths.CROP_SHEET);
-        if (cropSheet == null) return null;
+        Image icon = seedIconCache.get(type);
+        if (icon != null) return icon;
 
-        PixelReader reader = cropSheet.getPixelReader();
-
-        // Lấy Frame 0 (Giai đoạn hạt giống)
-        int x = (int) (CropConfig.CROP_SEED_FRAME_INDEX * CropConfig.CROP_SPRITE_WIDTH); // = 0
-        // Lấy hàng tương ứng với loại cây
-        int y = (int) (type.getSpriteRow() * CropConfig.CROP_SPRITE_HEIGHT);
-
-        return new WritableImage(reader, x, y, (int) CropConfig.CROP_SPRITE_WIDTH, (int) CropConfig.CROP_SPRITE_HEIGHT);
+        // Lấy Frame 0 (Giai đoạn hạt giống), hàng tương ứng với loại cây
+        icon = cutSprite(getTexture(AssetPaths.CROP_SHEET), CropConfig.CROP_SEED_FRAME_INDEX, type.getSpriteRow(),
+                CropConfig.CROP_SPRITE_WIDTH, CropConfig.CROP_SPRITE_HEIGHT);
+        if (icon != null) seedIconCache.put(type, icon);
+        return icon;
     }
 
     /**
      * Lấy icon hạt giống cây tự nhiên từ TREE_SHEET (Stage 0) để hiển thị ghost placement
      */
     public Image getTreeSeedIcon() {
-        Image treeSheet = getTexture(AssetPaths.TREE_SHEET);
-        if (treeSheet == null) return null;
-
-        PixelReader reader = treeSheet.getPixelReader();
-
-        // Stage 0 (Hạt/Mầm) là frame đầu tiên
-        int x = (int) (TreeConfig.TREE_SEED_STAGE * TreeConfig.TREE_SPRITE_WIDTH);
-        int y = 0; // Hàng duy nhất trong tree sheet
-
-        return new WritableImage(reader, x, y, (int) TreeConfig.TREE_SPRITE_WIDTH, (int) TreeConfig.TREE_SPRITE_HEIGHT);
+        if (treeSeedIcon == null) {
+            // Stage 0 (Hạt/Mầm) là frame đầu tiên, hàng duy nhất trong tree sheet
+            treeSeedIcon = cutSprite(getTexture(AssetPaths.TREE_SHEET), TreeConfig.TREE_SEED_STAGE, 0,
+                    TreeConfig.TREE_SPRITE_WIDTH, TreeConfig.TREE_SPRITE_HEIGHT);
+        }
+        return treeSeedIcon;
     }
 
     /**
      * Lấy icon sản phẩm thu hoạch (Frame cuối cùng của cây)
      */
     public Image getHarvestIcon(CropType type) {
-        Image cropSheet = getTexture(AssetPaths.CROP_SHEET);
-        if (cropSheet == null) return null;
-
-        PixelReader reader = cropSheet.getPixelReader();
+        Image icon = harvestIconCache.get(type);
+        if (icon != null) return icon;
 
         // Lấy Frame cuối cùng (MaxStages)
-        int x = (int) (CropConfig.CROP_HARVEST_FRAME_INDEX * CropConfig.CROP_SPRITE_WIDTH);
-        int y = (int) (type.getSpriteRow() * CropConfig.CROP_SPRITE_HEIGHT);
+        icon = cutSprite(getTexture(AssetPaths.CROP_SHEET), CropConfig.CROP_HARVEST_FRAME_INDEX, type.getSpriteRow(),
+                CropConfig.CROP_SPRITE_WIDTH, CropConfig.CROP_SPRITE_HEIGHT);
+        if (icon != null) harvestIconCache.put(type, icon);
+        return icon;
+    }
 
-        return new WritableImage(reader, x, y, (int) CropConfig.CROP_SPRITE_WIDTH, (int) CropConfig.CROP_SPRITE_HEIGHT);
+    /**
+     * [MỚI] Sprite cọc rào đơn (rào đóng, không nối) dùng cho ghost placement khi cầm gỗ.
+     */
+    public Image getFencePostTexture() {
+        buildSpriteAtlas();
+        return fenceSprites[0];
     }
 
     /**
@@ -441,18 +644,9 @@ public class ImageManager {
         return new WritableImage(reader, x, y, (int) w, (int) h);
     }
 
-    /**
-     * Tải tất cả texture động vật
-     */
-    private void loadAnimalTextures() {
-        // Tải spritesheet cho từng loại động vật
-        for (AnimalType animalType : AnimalType.values()) {
-            getTexture(animalType.getAssetPath());
-        }
-    }
-
     /**
      * Lấy sprite của động vật dựa trên type và direction
+     * [SỬA] Tra mảng [loại][hướng][hành động][frame] đã cắt sẵn thay vì String key.
      * @param animalType Loại động vật
      * @param direction Hướng (0: Down, 1: Right, 2: Left, 3: Up)
      * @param action Hành động (IDLE, WALK, EAT)
@@ -462,163 +656,112 @@ public class ImageManager {
     public Image getAnimalTexture(AnimalType animalType, int direction, Animal.Action action, int frameIndex) {
         if (animalType == null) return null;
 
-        // Tạo key cache: type_direction_action_frame (thêm frame index để cache từng frame riêng)
-        // Sử dụng frameIndex truyền vào thay vì hardcode 0
-        String key = animalType.name() + "_" + direction + "_" + action.name() + "_" + frameIndex;
-
-        return spriteCache.computeIfAbsent(key, k -> {
-            Image animalSheet = getTexture(animalType.getAssetPath());
-            if (animalSheet == null) return null;
-
-            PixelReader reader = animalSheet.getPixelReader();
-            double spriteSize = animalType.getSpriteSize();
-
-            int row = 0;
-            int col = 0;
-
-            // Xử lý riêng cho EGG_ENTITY (trứng đặt dưới đất)
-            if (animalType == AnimalType.EGG_ENTITY) {
-                // EGG_ENTITY nằm ở hàng 4 (Idle Down theo logic Standard)
-                row = AnimalConfig.STANDARD_ROW_IDLE_DOWN;
-                // Lấy 1 trong 2 frame trứng (cột 4 và 5)
-                // Sử dụng hằng số mới từ AnimalConfig
-                int eggFrameStart = AnimalConfig.EGG_FRAME_START_INDEX;
-                // Sử dụng random để chọn biến thể (lấy số nguyên ngẫu nhiên nhỏ hơn 2)
-                col = eggFrameStart + ThreadLocalRandom.current().nextInt(2);
-            }
-            // Xử lý riêng cho CHICKEN
-            else if (animalType == AnimalType.CHICKEN) {
-                // Phân loại hướng thành 2 nhóm
-                // Nhóm A (Trái/Xuống): direction = 2 (LEFT) hoặc 0 (DOWN)
-                // Nhóm B (Phải/Trên): direction = 1 (RIGHT) hoặc 3 (UP)
-                boolean isGroupA = (direction == 2 || direction == 0); // LEFT hoặc DOWN
-
-                if (action == Animal.Action.IDLE) {
-                    // IDLE: Nhóm A dùng Hàng 0 (8 frames), Nhóm B dùng Hàng 1 (8 frames)
-                    // [SỬA] Sử dụng constant từ AnimalConfig
-                    row = isGroupA ? AnimalConfig.CHICKEN_ROW_IDLE_LEFT : AnimalConfig.CHICKEN_ROW_IDLE_RIGHT;
-                } else if (action == Animal.Action.WALK) {
-                    // WALK: Nhóm A dùng Hàng 2 (4 frames), Nhóm B dùng Hàng 3 (4 frames)
-                    // [SỬA] Sử dụng constant từ AnimalConfig
-                    row = isGroupA ? AnimalConfig.CHICKEN_ROW_WALK_LEFT : AnimalConfig.CHICKEN_ROW_WALK_RIGHT;
-                } else {
-                    // EAT: Fallback về IDLE
-                    row = isGroupA ? AnimalConfig.CHICKEN_ROW_IDLE_LEFT : AnimalConfig.CHICKEN_ROW_IDLE_RIGHT;
-                }
-                // Sử dụng frameIndex truyền vào
-                col = frameIndex;
-            }
-            // Xử lý cho các động vật khác & Gà con (Standard layout)
-            else {
-                // Sử dụng switch với các constant từ AnimalConfig thay vì tính toán thủ công
-                if (action == Animal.Action.WALK) {
-                    // WALK: Dùng 4 hàng đầu (Row 0-3)
-                    switch (direction) {
-                        case 0: row = AnimalConfig.STANDARD_ROW_WALK_DOWN; break; // Down
-                        case 3: row = AnimalConfig.STANDARD_ROW_WALK_UP; break;   // Up
-                        case 2: row = AnimalConfig.STANDARD_ROW_WALK_LEFT; break; // Left
-                        case 1: row = AnimalConfig.STANDARD_ROW_WALK_RIGHT; break;// Right
-                        default: row = AnimalConfig.STANDARD_ROW_WALK_DOWN; break;
-                    }
-                } else { // IDLE or EAT
-                    // IDLE: Dùng 4 hàng sau (Row 4-7)
-                    switch (direction) {
-                        case 0: row = AnimalConfig.STANDARD_ROW_IDLE_DOWN; break; // Down
-                        case 3: row = AnimalConfig.STANDARD_ROW_IDLE_UP; break;   // Up
-                        case 2: row = AnimalConfig.STANDARD_ROW_IDLE_LEFT; break; // Left
-                        case 1: row = AnimalConfig.STANDARD_ROW_IDLE_RIGHT; break;// Right
-                        default: row = AnimalConfig.STANDARD_ROW_IDLE_DOWN; break;
-                    }
-                }
-                // Sử dụng frameIndex truyền vào
-                col = frameIndex;
-            }
-
-            int x = (int) (col * spriteSize);
-            int y = (int) (row * spriteSize);
+        buildSpriteAtlas();
+        Image[][][] byDirection = animalSprites[animalType.ordinal()];
+        if (direction < 0 || direction >= byDirection.length) direction = 0;
+        Image[] frames = byDirection[direction][action.ordinal()];
+        // Nếu không đủ frame, dùng frame đầu tiên
+        return frames[frameIndex >= 0 && frameIndex < frames.length ? frameIndex : 0];
+    }
 
-            if (x < 0 || y < 0 || x + spriteSize > animalSheet.getWidth() || y + spriteSize > animalSheet.getHeight()) {
-                // Nếu không đủ frame, dùng frame đầu tiên
-                x = 0;
-                // Giữ nguyên y (row) để không bị sai hướng
-                y = (int) (row * spriteSize);
+    /**
+     * Hàng trong spritesheet của động vật theo hướng và hành động.
+     */
+    private int getAnimalSheetRow(AnimalType animalType, int direction, Animal.Action action) {
+        // Xử lý riêng cho EGG_ENTITY (trứng đặt dưới đất)
+        if (animalType == AnimalType.EGG_ENTITY) {
+            // EGG_ENTITY nằm ở hàng 4 (Idle Down theo logic Standard)
+            return AnimalConfig.STANDARD_ROW_IDLE_DOWN;
+        }
+        // Xử lý riêng cho CHICKEN
+        if (animalType == AnimalType.CHICKEN) {
+            // Phân loại hướng thành 2 nhóm
+            // Nhóm A (Trái/Xuống): direction = 2 (LEFT) hoặc 0 (DOWN)
+            // Nhóm B (Phải/Trên): direction = 1 (RIGHT) hoặc 3 (UP)
+            boolean isGroupA = (direction == 2 || direction == 0); // LEFT hoặc DOWN
+
+            if (action == Animal.Action.WALK) {
+                // WALK: Nhóm A dùng Hàng 2 (4 frames), Nhóm B dùng Hàng 3 (4 frames)
+                return isGroupA ? AnimalConfig.CHICKEN_ROW_WALK_LEFT : AnimalConfig.CHICKEN_ROW_WALK_RIGHT;
             }
+            // IDLE: Nhóm A dùng Hàng 0 (8 frames), Nhóm B dùng Hàng 1 (8 frames). EAT: Fallback về IDLE
+            return isGroupA ? AnimalConfig.CHICKEN_ROW_IDLE_LEFT : AnimalConfig.CHICKEN_ROW_IDLE_RIGHT;
+        }
+        // Xử lý cho các động vật khác & Gà con (Standard layout)
+        if (action == Animal.Action.WALK) {
+            // WALK: Dùng 4 hàng đầu (Row 0-3)
+            switch (direction) {
+                case 3: return AnimalConfig.STANDARD_ROW_WALK_UP;    // Up
+                case 2: return AnimalConfig.STANDARD_ROW_WALK_LEFT;  // Left
+                case 1: return AnimalConfig.STANDARD_ROW_WALK_RIGHT; // Right
+                default: return AnimalConfig.STANDARD_ROW_WALK_DOWN; // Down
+            }
+        }
+        // IDLE or EAT: Dùng 4 hàng sau (Row 4-7)
+        switch (direction) {
+            case 3: return AnimalConfig.STANDARD_ROW_IDLE_UP;    // Up
+            case 2: return AnimalConfig.STANDARD_ROW_IDLE_LEFT;  // Left
+            case 1: return AnimalConfig.STANDARD_ROW_IDLE_RIGHT; // Right
+            default: return AnimalConfig.STANDARD_ROW_IDLE_DOWN; // Down
+        }
+    }
 
-            return new WritableImage(reader, x, y, (int) spriteSize, (int) spriteSize);
-        });
+    /**
+     * Cột trong spritesheet của động vật ứng với frame.
+     */
+    private int getAnimalSheetCol(AnimalType animalType, int frameIndex) {
+        if (animalType == AnimalType.EGG_ENTITY) {
+            // Trứng có 2 biến thể (cột 4 và 5). WorldRenderer truyền EGG_FRAME_START_INDEX + variant
+            int eggFrameStart = AnimalConfig.EGG_FRAME_START_INDEX;
+            boolean isEggFrame = frameIndex >= eggFrameStart && frameIndex < eggFrameStart + 2;
+            return isEggFrame ? frameIndex : eggFrameStart;
+        }
+        return frameIndex;
     }
 
     /**
      * Lấy sprite của cây tự nhiên dựa trên growth stage
+     * [SỬA] Tra mảng đã cắt sẵn.
      */
     public Image getTreeTexture(TreeData treeData) {
         if (treeData == null) {
             return null;
         }
 
+        buildSpriteAtlas();
         // Nếu đã bị chặt (stump), hiển thị frame 4
         if (treeData.getChopCount() > 0) {
-            String key = "tree_stump";
-            return spriteCache.computeIfAbsent(key, k -> {
-                Image treeSheet = getTexture(AssetPaths.TREE_SHEET);
-                if (treeSheet == null) return null;
-
-                PixelReader reader = treeSheet.getPixelReader();
-                double w = TreeConfig.TREE_SPRITE_WIDTH;
-                double h = TreeConfig.TREE_SPRITE_HEIGHT;
-
-                // Frame 4 là stump
-                int x = (int) (TreeConfig.TREE_STUMP_FRAME_INDEX * w);
-                int y = 0; // Chỉ có 1 hàng trong spritesheet
-
-                if (x < 0 || y < 0 || x + w > treeSheet.getWidth() || y + h > treeSheet.getHeight()) return null;
-
-                return new WritableImage(reader, x, y, (int) w, (int) h);
-            });
+            return treeStumpSprite;
         }
 
         // Nếu chưa bị chặt, hiển thị theo growth stage
+        // Cây có 5 frame: 0 (seed/sprout), 1 (cây nhỏ), 2 (cây trung bình), 3 (cây trưởng thành), 4 (stump)
         int stage = treeData.getGrowthStage();
-        String key = "tree_" + stage;
-
-        return spriteCache.computeIfAbsent(key, k -> {
-            Image treeSheet = getTexture(AssetPaths.TREE_SHEET);
-            if (treeSheet == null) return null;
-
-            PixelReader reader = treeSheet.getPixelReader();
-            double w = TreeConfig.TREE_SPRITE_WIDTH;
-            double h = TreeConfig.TREE_SPRITE_HEIGHT;
-
-            // Cây có 5 frame: 0 (seed/sprout), 1 (cây nhỏ), 2 (cây trung bình), 3 (cây trưởng thành), 4 (stump)
-            // Cây phát triển từ stage 0 đến stage 3
-            int x = (int) (stage * w);
-            int y = 0; // Chỉ có 1 hàng trong spritesheet
-
-            if (x < 0 || y < 0 || x + w > treeSheet.getWidth() || y + h > treeSheet.getHeight()) return null;
-
-            return new WritableImage(reader, x, y, (int) w, (int) h);
-        });
+        return stage >= 0 && stage < treeSprites.length ? treeSprites[stage] : null;
     }
 
     /**
      * Lấy sprite của hàng rào dựa trên pattern và trạng thái mở/đóng
+     * [SỬA] Tra mảng [pattern] đã cắt sẵn.
      */
     public Image getFenceTexture(FenceData fenceData) {
         if (fenceData == null) return null;
 
-        int width = (int) FenceConfig.FENCE_SPRITE_WIDTH;
-        int height = (int) FenceConfig.FENCE_SPRITE_HEIGHT;
-
-        // Nếu rào đang MỞ (Cổng) -> Lấy hình cái cọc đơn
+        buildSpriteAtlas();
+        // Nếu rào đang MỞ (Cổng) -> Lấy hình cái cọc đơn (Cột 0, Hàng 3 = pattern 0)
         if (fenceData.isOpen()) {
-            return spriteCache.computeIfAbsent("fence_open", k -> {
-                Image fenceSheet = getTexture(AssetPaths.FENCE_SHEET);
-                return new WritableImage(fenceSheet.getPixelReader(),
-                        0, 3 * height, width, height); // Cột 0, Hàng 3
-            });
+            return fenceSprites[0];
         }
 
         // Nếu rào ĐÓNG -> Map theo Pattern 0-15
+        int pattern = fenceData.getTilePattern();
+        return fenceSprites[pattern >= 0 && pattern < fenceSprites.length ? pattern : 0]; // Fallback về cọc đơn
+    }
+
+    /**
+     * Vị trí {cột, hàng} trong fence sheet của một pattern.
+     */
+    private int[] getFenceSheetCell(int pattern) {
         /** Hệ thống này sử dụng một kỹ thuật trong lập trình game gọi là Bitmasking (Mặt nạ bit).
          * Mỗi ô hàng rào sẽ kiểm tra 4 hướng xung quanh nó: Trên (Up), Phải (Right), Dưới (Down), và Trái (Left).
          * Mỗi hướng có 2 trạng thái: Có kết nối (1) hoặc Không kết nối (0).
@@ -627,47 +770,34 @@ public class ImageManager {
          * Trên (Up): 1 (2^0); Phải (Right): 2 (2^1); Dưới (Down): 4 (2^2); Trái (Left): 8 (2^3)
          * Nói chung là chuyển số từ nhị phân về thập phân.
         */
-        int pattern = fenceData.getTilePattern();
-        String key = "fence_" + pattern;
-
-        return spriteCache.computeIfAbsent(key, k -> {
-            Image fenceSheet = getTexture(AssetPaths.FENCE_SHEET);
-            PixelReader reader = fenceSheet.getPixelReader();
-
-            int col, row;
-
-            switch (pattern) {
-                // --- NHÓM 1: CÁC ĐẦU MÚT & ĐƯỜNG THẲNG (CỘT 0 & HÀNG 0) ---
-                case 0:  col = 0; row = 3; break; // Cọc đơn (Không nối gì)
-
-                case 1:  col = 0; row = 2; break; // Chỉ nối Lên (Đầu dưới)
-                case 4:  col = 0; row = 0; break; // Chỉ nối Xuống (Đầu trên)
-                case 5:  col = 0; row = 1; break; // Dọc (Lên + Xuống)
-
-                case 2:  col = 1; row = 0; break; // Chỉ nối Phải (Đầu trái)
-                case 8:  col = 3; row = 0; break; // Chỉ nối Trái (Đầu phải)
-                case 10: col = 2; row = 0; break; // Ngang (Trái + Phải)
-
-                // --- NHÓM 2: CÁC GÓC (KHỐI 3x3 - BỐN GÓC) ---
-                case 6:  col = 1; row = 1; break; // Góc Trên-Trái (Nối Phải+Xuống)
-                case 12: col = 3; row = 1; break; // Góc Trên-Phải (Nối Trái+Xuống)
-                case 3:  col = 1; row = 3; break; // Góc Dưới-Trái (Nối Phải+Lên)
-                case 9:  col = 3; row = 3; break; // Góc Dưới-Phải (Nối Trái+Lên)
-
-                // --- NHÓM 3: NGÃ BA (CHỮ T) ---
-                case 7:  col = 1; row = 2; break; // T quay Phải (Lên+Xuống+Phải)
-                case 11: col = 2; row = 3; break; // T quay Lên (Trái+Phải+Lên) - Úp ngược
-                case 13: col = 3; row = 2; break; // T quay Trái (Lên+Xuống+Trái)
-                case 14: col = 2; row = 1; break; // T quay Xuống (Trái+Phải+Xuống)
-
-                // --- NHÓM 4: NGÃ TƯ (DẤU +) ---
-                case 15: col = 2; row = 2; break; // Nối cả 4 hướng
-
-                default: col = 0; row = 3; break; // Fallback về cọc đơn
-            }
-
-            // Cắt ảnh 64x64
-            return new WritableImage(reader, col * width, row * height, width, height);
-        });
+        switch (pattern) {
+            // --- NHÓM 1: CÁC ĐẦU MÚT & ĐƯỜNG THẲNG (CỘT 0 & HÀNG 0) ---
+            case 0:  return new int[]{0, 3}; // Cọc đơn (Không nối gì)
+
+            case 1:  return new int[]{0, 2}; // Chỉ nối Lên (Đầu dưới)
+            case 4:  return new int[]{0, 0}; // Chỉ nối Xuống (Đầu trên)
+            case 5:  return new int[]{0, 1}; // Dọc (Lên + Xuống)
+
+            case 2:  return new int[]{1, 0}; // Chỉ nối Phải (Đầu trái)
+            case 8:  return new int[]{3, 0}; // Chỉ nối Trái (Đầu phải)
+            case 10: return new int[]{2, 0}; // Ngang (Trái + Phải)
+
+            // --- NHÓM 2: CÁC GÓC (KHỐI 3x3 - BỐN GÓC) ---
+            case 6:  return new int[]{1, 1}; // Góc Trên-Trái (Nối Phải+Xuống)
+            case 12: return new int[]{3, 1}; // Góc Trên-Phải (Nối Trái+Xuống)
+            case 3:  return new int[]{1, 3}; // Góc Dưới-Trái (Nối Phải+Lên)
+            case 9:  return new int[]{3, 3}; // Góc Dưới-Phải (Nối Trái+Lên)
+
+            // --- NHÓM 3: NGÃ BA (CHỮ T) ---
+            case 7:  return new int[]{1, 2}; // T quay Phải (Lên+Xuống+Phải)
+            case 11: return new int[]{2, 3}; // T quay Lên (Trái+Phải+Lên) - Úp ngược
+            case 13: return new int[]{3, 2}; // T quay Trái (Lên+Xuống+Trái)
+            case 14: return new int[]{2, 1}; // T quay Xuống (Trái+Phải+Xuống)
+
+            // --- NHÓM 4: NGÃ TƯ (DẤU +) ---
+            case 15: return new int[]{2, 2}; // Nối cả 4 hướng
+
+            default: return new int[]{0, 3}; // Fallback về cọc đơn
+        }
     }
-}
\ No newline at end of file
+}
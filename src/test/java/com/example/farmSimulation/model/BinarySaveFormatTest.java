@@ -0,0 +1,284 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.model.GameSaveState.SavedAnimal;
+import com.example.farmSimulation.model.GameSaveState.SavedItemStack;
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinarySaveFormatTest {
+
+    @Test
+    void writeThenReadKeepsAllData() throws IOException {
+        GameSaveState state = sampleState();
+
+        GameSaveState loaded = readBack(toBytes(state));
+
+        assertEquals(state.playerMoney, loaded.playerMoney);
+        assertEquals(state.playerXP, loaded.playerXP);
+        assertEquals(state.playerLevel, loaded.playerLevel);
+        assertEquals(state.playerStamina, loaded.playerStamina);
+        assertEquals(state.playerX, loaded.playerX);
+        assertEquals(state.playerY, loaded.playerY);
+        assertEquals(state.currentDaySeconds, loaded.currentDaySeconds);
+        assertEquals(state.currentDay, loaded.currentDay);
+        assertEquals(state.worldSeed, loaded.worldSeed);
+        assertEquals(state.generatedChunks, loaded.generatedChunks);
+
+        // Slot trống (null) trong inventory phải giữ nguyên vị trí
+        assertEquals(3, loaded.inventory.size());
+        assertEquals(ItemType.HOE, loaded.inventory.get(0).type);
+        assertEquals(45, loaded.inventory.get(0).durability);
+        assertNull(loaded.inventory.get(1));
+        assertEquals(ItemType.WOOD, loaded.inventory.get(2).type);
+        assertEquals(20, loaded.inventory.get(2).quantity);
+
+        assertEquals(1, loaded.animals.size());
+        SavedAnimal animal = loaded.animals.get(0);
+        assertEquals(AnimalType.COW, animal.type);
+        assertEquals(-12.5, animal.x);
+        assertEquals(300.25, animal.y);
+        assertEquals(7, animal.age);
+        assertEquals(55.5, animal.hunger);
+
+        assertEquals(state.worldTiles.size(), loaded.worldTiles.size());
+        for (int i = 0; i < state.worldTiles.size(); i++) {
+            assertTileEquals(state.worldTiles.get(i), loaded.worldTiles.get(i));
+        }
+    }
+
+    @Test
+    void varIntRoundTripsEdgeValues() throws IOException {
+        int[] values = {0, 1, -1, 63, -64, 64, -65, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            BinarySaveFormat.writeVarInt(out, value);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        int[] read = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            read[i] = BinarySaveFormat.readVarInt(in);
+        }
+        assertArrayEquals(values, read);
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void smallVarIntsTakeOneByte() throws IOException {
+        for (int value : new int[] {0, 1, -1, 63, -64}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinarySaveFormat.writeVarInt(new DataOutputStream(bytes), value);
+            assertEquals(1, bytes.size(), "value " + value);
+        }
+    }
+
+    @Test
+    void malformedVarIntIsRejected() {
+        byte[] bytes = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertThrows(IOException.class, () -> BinarySaveFormat.readVarInt(in));
+    }
+
+    @Test
+    void defaultTileSkipsOptionalFields() throws IOException {
+        SavedTileData grass = tile(4, -9);
+        assertTrue(BinarySaveFormat.isDefaultTile(grass));
+
+        SavedTileData soil = tile(4, -9);
+        soil.baseType = Tile.SOIL;
+        assertFalse(BinarySaveFormat.isDefaultTile(soil));
+
+        // Ô mặc định chỉ tốn: col + row (varint) + flags + base type
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySaveFormat.writeTileList(new DataOutputStream(bytes), List.of(grass), false);
+        assertEquals(1 + 1 + 1 + 1 + 1, bytes.size());
+
+        List<SavedTileData> read = new ArrayList<>();
+        BinarySaveFormat.readTileList(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), read,
+                sharedTables());
+        assertEquals(1, read.size());
+        assertTileEquals(grass, read.get(0));
+        assertTrue(BinarySaveFormat.isDefaultTile(read.get(0)));
+    }
+
+    @Test
+    void regionIndexReplacesTileList() throws IOException {
+        GameSaveState state = sampleState();
+        state.regions = new ArrayList<>(List.of(new GameSaveState.SavedRegion(-3, 5, true),
+                new GameSaveState.SavedRegion(0, 0, false)));
+
+        GameSaveState loaded = readBack(toBytes(state));
+
+        assertTrue(loaded.worldTiles.isEmpty());
+        assertEquals(2, loaded.regions.size());
+        assertEquals(-3, loaded.regions.get(0).chunkX);
+        assertEquals(5, loaded.regions.get(0).chunkY);
+        assertTrue(loaded.regions.get(0).active);
+        assertFalse(loaded.regions.get(1).active);
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = toBytes(sampleState());
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> readBack(truncated));
+    }
+
+    @Test
+    void corruptSectionLengthIsRejected() throws IOException {
+        byte[] bytes = toBytes(sampleState());
+        // Byte 6 = id khối đầu tiên, byte 7..10 = độ dài khối
+        bytes[7] = (byte) 0x80;
+        assertThrows(IOException.class, () -> readBack(bytes));
+    }
+
+    @Test
+    void legacySaveConvertsToBinary() throws IOException, ClassNotFoundException {
+        // Giống SaveManager.importLegacySave: đọc file .dat (Java serialization) rồi ghi lại dạng nhị phân
+        GameSaveState state = sampleState();
+        ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(legacy)) {
+            oos.writeObject(state);
+        }
+        GameSaveState imported;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(legacy.toByteArray()))) {
+            imported = (GameSaveState) ois.readObject();
+        }
+
+        GameSaveState loaded = readBack(toBytes(imported));
+
+        assertEquals(state.playerMoney, loaded.playerMoney);
+        assertEquals(state.currentDay, loaded.currentDay);
+        assertEquals(state.inventory.size(), loaded.inventory.size());
+        assertEquals(state.animals.size(), loaded.animals.size());
+        assertEquals(state.worldTiles.size(), loaded.worldTiles.size());
+        for (int i = 0; i < state.worldTiles.size(); i++) {
+            assertTileEquals(state.worldTiles.get(i), loaded.worldTiles.get(i));
+        }
+    }
+
+    // ==============================================================
+    // TIỆN ÍCH
+    // ==============================================================
+
+    static GameSaveState sampleState() {
+        GameSaveState state = new GameSaveState();
+        state.playerMoney = 1234.5;
+        state.playerXP = 87.25;
+        state.playerLevel = 3;
+        state.playerStamina = 64.0;
+        state.playerX = -480.75;
+        state.playerY = 1024.0;
+        state.currentDaySeconds = 321.125;
+        state.currentDay = 12;
+        state.worldSeed = 0x1234_5678_9ABCL;
+        state.generatedChunks = new ArrayList<>(List.of(0L, ((long) -1 << 32) | 2L));
+
+        state.inventory.add(new SavedItemStack(ItemType.HOE, 1, 45));
+        state.inventory.add(null);
+        state.inventory.add(new SavedItemStack(ItemType.WOOD, 20, 0));
+
+        state.animals.add(new SavedAnimal(AnimalType.COW, -12.5, 300.25, 7, 55.5));
+
+        SavedTileData soil = tile(-3, 7);
+        soil.baseType = Tile.SOIL_WET;
+        soil.isWatered = true;
+        soil.isFertilized = true;
+        soil.lastWateredTime = 9_876_543_210L;
+        soil.fertilizerStartTime = 1_234_567_890L;
+        soil.hasCrop = true;
+        soil.cropType = CropType.POTATO;
+        soil.cropStage = 2;
+        state.worldTiles.add(soil);
+
+        SavedTileData tree = tile(Integer.MAX_VALUE, Integer.MIN_VALUE);
+        tree.hasTree = true;
+        tree.treeStage = 4;
+        tree.treeChopCount = 1;
+        state.worldTiles.add(tree);
+
+        SavedTileData fence = tile(0, 0);
+        fence.hasFence = true;
+        fence.fenceIsOpen = true;
+        state.worldTiles.add(fence);
+
+        SavedTileData item = tile(200, -200);
+        item.hasGroundItem = true;
+        item.groundItemType = ItemType.PICKAXE;
+        item.groundItemAmount = 1;
+        item.groundItemDurability = 150;
+        item.groundItemOffsetX = 12.5;
+        item.groundItemOffsetY = -3.25;
+        state.worldTiles.add(item);
+
+        return state;
+    }
+
+    static SavedTileData tile(int col, int row) {
+        SavedTileData tile = new SavedTileData();
+        tile.col = col;
+        tile.row = row;
+        tile.baseType = Tile.GRASS;
+        return tile;
+    }
+
+    static void assertTileEquals(SavedTileData expected, SavedTileData actual) {
+        assertEquals(expected.col, actual.col);
+        assertEquals(expected.row, actual.row);
+        assertEquals(expected.baseType, actual.baseType);
+        assertEquals(expected.isWatered, actual.isWatered);
+        assertEquals(expected.isFertilized, actual.isFertilized);
+        assertEquals(expected.lastWateredTime, actual.lastWateredTime);
+        assertEquals(expected.fertilizerStartTime, actual.fertilizerStartTime);
+        assertEquals(expected.hasCrop, actual.hasCrop);
+        assertEquals(expected.cropType, actual.cropType);
+        assertEquals(expected.cropStage, actual.cropStage);
+        assertEquals(expected.hasTree, actual.hasTree);
+        assertEquals(expected.treeStage, actual.treeStage);
+        assertEquals(expected.treeChopCount, actual.treeChopCount);
+        assertEquals(expected.hasFence, actual.hasFence);
+        assertEquals(expected.fenceIsOpen, actual.fenceIsOpen);
+        assertEquals(expected.hasGroundItem, actual.hasGroundItem);
+        assertEquals(expected.groundItemType, actual.groundItemType);
+        assertEquals(expected.groundItemAmount, actual.groundItemAmount);
+        assertEquals(expected.groundItemDurability, actual.groundItemDurability);
+        assertEquals(expected.groundItemOffsetX, actual.groundItemOffsetX);
+        assertEquals(expected.groundItemOffsetY, actual.groundItemOffsetY);
+    }
+
+    private static byte[] toBytes(GameSaveState state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySaveFormat.write(state, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static GameSaveState readBack(byte[] bytes) throws IOException {
+        return BinarySaveFormat.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    // Bảng tên enum dùng chung (giống header của journal)
+    private static BinarySaveFormat.EnumTables sharedTables() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySaveFormat.EnumTables.write(new DataOutputStream(bytes));
+        return BinarySaveFormat.EnumTables.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.farmSimulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    @Test
+    void addRemoveContains() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-1L));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(0L));
+        assertEquals(3, set.size());
+
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.remove(-1L));
+        assertFalse(set.remove(-1L));
+        assertFalse(set.contains(-1L));
+        assertTrue(set.contains(0L));
+        assertEquals(2, set.size());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+    }
+
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        // Key giống WorldMap: (col << 32) | row, tọa độ gần nhau -> nhiều va chạm trong chuỗi dò
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int col = random.nextInt(64) - 32;
+            int row = random.nextInt(64) - 32;
+            long key = ((long) col << 32) | (row & 0xffffffffL);
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.add(key), set.add(key));
+                case 1 -> assertEquals(expected.remove(key), set.remove(key));
+                default -> assertEquals(expected.contains(key), set.contains(key));
+            }
+            if (i % 50_000 == 0) {
+                expected.clear();
+                set.clear();
+            }
+        }
+        assertEquals(expected.size(), set.size());
+
+        Set<Long> visited = new HashSet<>();
+        set.forEach(visited::add);
+        assertEquals(expected, visited);
+    }
+}
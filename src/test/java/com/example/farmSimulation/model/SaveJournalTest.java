@@ -0,0 +1,162 @@
+package com.example.farmSimulation.model;
+
+import com.example.farmSimulation.model.GameSaveState.SavedTileData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.farmSimulation.model.BinarySaveFormatTest.tile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SaveJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAppliesRecordsInOrder() throws IOException {
+        SaveJournal journal = new SaveJournal(dir.resolve("farm_save.journal"));
+        journal.append(delta(10, tilled(1, 1)));
+        journal.append(delta(20, tree(2, 2), tile(1, 1))); // Ô (1,1) trở về mặc định
+
+        GameSaveState state = baseState();
+        assertEquals(2, journal.replay(state));
+
+        assertEquals(20, state.playerMoney);
+        assertEquals(List.of("0,0", "2,2"), tileKeys(state));
+    }
+
+    @Test
+    void replayDropsTruncatedLastRecord() throws IOException {
+        Path path = dir.resolve("farm_save.journal");
+        SaveJournal journal = new SaveJournal(path);
+        journal.append(delta(10, tilled(1, 1)));
+        journal.append(delta(20, tree(2, 2)));
+        long validSize = journal.size();
+        journal.append(delta(30, tilled(3, 3)));
+
+        // Crash giữa lúc ghi bản ghi cuối: mất vài byte cuối (CRC + 1 phần dữ liệu)
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(journal.size() - 6);
+        }
+
+        GameSaveState state = baseState();
+        assertEquals(2, journal.replay(state));
+
+        assertEquals(20, state.playerMoney);
+        assertEquals(List.of("0,0", "1,1", "2,2"), tileKeys(state));
+        assertEquals(validSize, Files.size(path)); // Đuôi hỏng bị cắt bỏ
+
+        // Bản ghi mới nối tiếp ngay sau bản ghi hợp lệ cuối cùng
+        journal.append(delta(40, tilled(4, 4)));
+        GameSaveState again = baseState();
+        assertEquals(3, journal.replay(again));
+        assertEquals(40, again.playerMoney);
+        assertEquals(List.of("0,0", "1,1", "2,2", "4,4"), tileKeys(again));
+    }
+
+    @Test
+    void replayDropsRecordWithBadChecksum() throws IOException {
+        Path path = dir.resolve("farm_save.journal");
+        SaveJournal journal = new SaveJournal(path);
+        journal.append(delta(10, tilled(1, 1)));
+        long validSize = journal.size();
+        journal.append(delta(20, tree(2, 2)));
+
+        byte[] data = Files.readAllBytes(path);
+        data[data.length - 1] ^= 0x01; // Sai CRC của bản ghi cuối
+        Files.write(path, data);
+
+        GameSaveState state = baseState();
+        assertEquals(1, journal.replay(state));
+        assertEquals(10, state.playerMoney);
+        assertEquals(validSize, Files.size(path));
+    }
+
+    @Test
+    void recordWithoutAnimalsKeepsPreviousAnimals() throws IOException {
+        SaveJournal journal = new SaveJournal(dir.resolve("farm_save.journal"));
+        GameSaveState withAnimals = delta(10);
+        withAnimals.animals.add(new GameSaveState.SavedAnimal(AnimalType.PIG, 32.0, 64.0, 3, 20.0));
+        journal.append(withAnimals);
+        GameSaveState withoutAnimals = delta(20, tilled(1, 1));
+        withoutAnimals.animals = null; // Động vật không đổi
+        journal.append(withoutAnimals);
+
+        GameSaveState state = baseState();
+        assertEquals(2, journal.replay(state));
+
+        assertEquals(20, state.playerMoney);
+        assertEquals(1, state.animals.size());
+        assertEquals(AnimalType.PIG, state.animals.get(0).type);
+        assertEquals(32.0, state.animals.get(0).x);
+    }
+
+    @Test
+    void corruptHeaderDeletesJournal() throws IOException {
+        Path path = dir.resolve("farm_save.journal");
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6});
+        SaveJournal journal = new SaveJournal(path);
+
+        GameSaveState state = baseState();
+        assertEquals(0, journal.replay(state));
+        assertFalse(journal.exists());
+        assertEquals(List.of("0,0"), tileKeys(state));
+    }
+
+    @Test
+    void missingJournalLeavesStateUntouched() throws IOException {
+        SaveJournal journal = new SaveJournal(dir.resolve("farm_save.journal"));
+        GameSaveState state = baseState();
+        assertEquals(0, journal.replay(state));
+        assertEquals(5, state.playerMoney);
+        assertEquals(List.of("0,0"), tileKeys(state));
+    }
+
+    // ==============================================================
+    // TIỆN ÍCH
+    // ==============================================================
+
+    private static GameSaveState baseState() {
+        GameSaveState state = new GameSaveState();
+        state.playerMoney = 5;
+        state.worldTiles.add(tilled(0, 0));
+        return state;
+    }
+
+    private static GameSaveState delta(double money, SavedTileData... tiles) {
+        GameSaveState delta = new GameSaveState();
+        delta.playerMoney = money;
+        delta.generatedChunks = null; // Bản ghi không đổi danh sách chunk
+        delta.worldTiles = new ArrayList<>(List.of(tiles));
+        return delta;
+    }
+
+    private static SavedTileData tilled(int col, int row) {
+        SavedTileData tile = tile(col, row);
+        tile.baseType = Tile.SOIL;
+        return tile;
+    }
+
+    private static SavedTileData tree(int col, int row) {
+        SavedTileData tile = tile(col, row);
+        tile.hasTree = true;
+        tile.treeStage = 1;
+        return tile;
+    }
+
+    private static List<String> tileKeys(GameSaveState state) {
+        List<String> keys = new ArrayList<>();
+        for (SavedTileData tile : state.worldTiles) {
+            keys.add(tile.col + "," + tile.row);
+        }
+        return keys;
+    }
+}
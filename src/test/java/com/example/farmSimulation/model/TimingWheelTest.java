@@ -0,0 +1,44 @@
+package com.example.farmSimulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long WHEEL_SPAN_MS = 1L << 24; // 64^4 tick, tick = 1 ms
+
+    @Test
+    void timersFireInDeadlineOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule(new TimingWheel.Timer<>("late"), 5_000);
+        wheel.schedule(new TimingWheel.Timer<>("early"), 70);
+        wheel.schedule(new TimingWheel.Timer<>("middle"), 300);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(69, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of("early", "middle", "late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timerBeyondWheelSpanDoesNotFireEarly() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        long deadline = 2 * WHEEL_SPAN_MS + 123;
+        wheel.schedule(new TimingWheel.Timer<>("far"), deadline);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(deadline - 1, fired::add);
+        assertTrue(fired.isEmpty()); // Trước đây bị kẹp về currentTick + span và nổ sớm
+        assertEquals(1, wheel.size());
+
+        wheel.advance(deadline, fired::add);
+        assertEquals(List.of("far"), fired);
+        assertEquals(0, wheel.size());
+    }
+}